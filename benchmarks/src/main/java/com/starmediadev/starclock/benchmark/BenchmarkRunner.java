@@ -0,0 +1,43 @@
+package com.starmediadev.starclock.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Entry point of the benchmark jar. This accepts the normal JMH command line options. <br>
+ * Unless a result format or file is provided, the results are also written as JSON to {@code starclock-<version>.json}, where the version is the StarClock version the benchmarks were built against, so they can be compared between versions.
+ */
+public final class BenchmarkRunner {
+    
+    private BenchmarkRunner() {
+    }
+    
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (commandLine.getResultFormat().hasValue() || commandLine.getResult().hasValue()) {
+            new Runner(options.build()).run();
+            return;
+        }
+        
+        Properties properties = new Properties();
+        try (InputStream in = BenchmarkRunner.class.getResourceAsStream("/starclock-benchmarks.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        }
+        
+        String version = properties.getProperty("version", "unknown");
+        options.resultFormat(ResultFormatType.JSON).result("starclock-" + version + ".json");
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,39 @@
+package com.starmediadev.starclock.benchmark;
+
+import com.starmediadev.starclock.callback.ClockCallback;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.TimerSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding and removing a callback on a clock that already has a number of callbacks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CallbackChurnBenchmark {
+    
+    @Param({"0", "1", "10"})
+    public int callbacks;
+    
+    private final ClockCallback<TimerSnapshot> callback = snapshot -> true;
+    private Timer timer;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        this.timer = new Timer(Clocks.LONG_TIME, Clocks.COUNT_AMOUNT);
+        Clocks.addCallbacks(timer, callbacks, 0);
+    }
+    
+    @Benchmark
+    public long addRemove() {
+        long id = timer.addCallback(callback, 1000L);
+        timer.removeCallback(id);
+        return id;
+    }
+}
@@ -0,0 +1,62 @@
+package com.starmediadev.starclock.benchmark;
+
+import com.starmediadev.starclock.CallbackDispatcher;
+import com.starmediadev.starclock.ClockManager;
+import com.starmediadev.starclock.ClockRunnable;
+import com.starmediadev.starclock.impl.Timer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a run of the {@link ClockRunnable} where every clock has a callback that is due on every run, with the callbacks called inline or through a {@link CallbackDispatcher}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CallbackDispatchBenchmark {
+    
+    @Param({"1000", "10000"})
+    public int clocks;
+    
+    @Param({"INLINE", "DISPATCHER"})
+    public String dispatch;
+    
+    private ClockManager manager;
+    private ClockRunnable runnable;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        this.manager = new ClockManager(null, Clocks.COUNT_AMOUNT);
+        if (dispatch.equals("DISPATCHER")) {
+            manager.setCallbackDispatcher(new CallbackDispatcher());
+        }
+        
+        for (int i = 0; i < clocks; i++) {
+            Timer timer = manager.createTimer(Clocks.LONG_TIME);
+            timer.addCallback(snapshot -> {
+                Blackhole.consumeCPU(64);
+                return true;
+            }, Clocks.COUNT_AMOUNT);
+            timer.start();
+        }
+        this.runnable = manager.getRunnable();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CallbackDispatcher dispatcher = manager.getCallbackDispatcher();
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+    
+    @Benchmark
+    public void tick() {
+        runnable.run();
+    }
+}
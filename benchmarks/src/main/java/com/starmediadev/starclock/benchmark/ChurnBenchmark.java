@@ -0,0 +1,51 @@
+package com.starmediadev.starclock.benchmark;
+
+import com.starmediadev.starclock.ClockManager;
+import com.starmediadev.starclock.ClockManager.EngineType;
+import com.starmediadev.starclock.impl.Timer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures registration churn: clocks being added and removed from other threads while the {@link com.starmediadev.starclock.ClockRunnable} runs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class ChurnBenchmark {
+    
+    @Param({"1000", "10000"})
+    public int clocks;
+    
+    @Param({"LINEAR", "TIMING_WHEEL", "EVENT_DRIVEN"})
+    public EngineType engine;
+    
+    private ClockManager manager;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        this.manager = new ClockManager(null, Clocks.COUNT_AMOUNT, engine);
+        Clocks.fill(manager, clocks, Clocks.Mix.TIMER, 1);
+    }
+    
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void tick() {
+        manager.getRunnable().run();
+    }
+    
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(2)
+    public Timer addRemove() {
+        Timer timer = manager.createTimer(Clocks.LONG_TIME);
+        timer.start();
+        manager.removeClock(timer);
+        return timer;
+    }
+}
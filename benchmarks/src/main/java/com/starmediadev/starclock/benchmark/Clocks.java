@@ -0,0 +1,48 @@
+package com.starmediadev.starclock.benchmark;
+
+import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.ClockManager;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+/**
+ * Helpers to fill a {@link ClockManager} for the benchmarks. <br>
+ * Clocks are created with lengths and end times that will not be reached during a benchmark run, so the amount of clocks stays the same.
+ */
+public final class Clocks {
+    static final long COUNT_AMOUNT = 50L;
+    static final long LONG_TIME = Long.MAX_VALUE / 4;
+    
+    private Clocks() {
+    }
+    
+    /**
+     * The kind of clocks to create
+     */
+    public enum Mix {
+        TIMER, STOPWATCH, MIXED
+    }
+    
+    static Clock<? extends ClockSnapshot> create(ClockManager manager, Mix mix, int index) {
+        boolean timer = switch (mix) {
+            case TIMER -> true;
+            case STOPWATCH -> false;
+            case MIXED -> index % 2 == 0;
+        };
+        
+        return timer ? manager.createTimer(LONG_TIME) : manager.createStopwatch(LONG_TIME);
+    }
+    
+    static <T extends ClockSnapshot> void addCallbacks(Clock<T> clock, int callbacks, int index) {
+        for (int i = 0; i < callbacks; i++) {
+            clock.addCallback(snapshot -> true, 1000L * (1 + (index + i) % 10));
+        }
+    }
+    
+    static void fill(ClockManager manager, int clocks, Mix mix, int callbacks) {
+        for (int i = 0; i < clocks; i++) {
+            Clock<? extends ClockSnapshot> clock = create(manager, mix, i);
+            addCallbacks(clock, callbacks, i);
+            clock.start();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.starmediadev.starclock.benchmark;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.StopwatchSnapshot;
+import com.starmediadev.starclock.snapshot.TimerSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of creating snapshots of the default clocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+    
+    private Timer timer;
+    private Stopwatch stopwatch;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        this.timer = new Timer(Clocks.LONG_TIME, Clocks.COUNT_AMOUNT);
+        this.stopwatch = new Stopwatch(Clocks.LONG_TIME, Clocks.COUNT_AMOUNT);
+    }
+    
+    @Benchmark
+    public TimerSnapshot timerSnapshot() {
+        return timer.createSnapshot();
+    }
+    
+    @Benchmark
+    public StopwatchSnapshot stopwatchSnapshot() {
+        return stopwatch.createSnapshot();
+    }
+}
@@ -0,0 +1,47 @@
+package com.starmediadev.starclock.benchmark;
+
+import com.starmediadev.starclock.ClockManager;
+import com.starmediadev.starclock.ClockManager.EngineType;
+import com.starmediadev.starclock.ClockRunnable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single run of the {@link ClockRunnable} for different amounts of clocks, callbacks per clock, clock types and engines. <br>
+ * The {@link EngineType#EVENT_DRIVEN} engine only processes the clocks that are due by the time of the run, so its runs measure the cost of a run that has little or nothing to process.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickBenchmark {
+    
+    @Param({"1000", "10000", "100000"})
+    public int clocks;
+    
+    @Param({"0", "1", "10"})
+    public int callbacks;
+    
+    @Param({"TIMER", "STOPWATCH", "MIXED"})
+    public Clocks.Mix mix;
+    
+    @Param({"LINEAR", "TIMING_WHEEL", "EVENT_DRIVEN"})
+    public EngineType engine;
+    
+    private ClockRunnable runnable;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        ClockManager manager = new ClockManager(null, Clocks.COUNT_AMOUNT, engine);
+        Clocks.fill(manager, clocks, mix, callbacks);
+        this.runnable = manager.getRunnable();
+    }
+    
+    @Benchmark
+    public void tick() {
+        runnable.run();
+    }
+}
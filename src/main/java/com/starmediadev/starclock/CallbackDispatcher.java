@@ -0,0 +1,301 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.CallbackHolder;
+import com.starmediadev.starclock.callback.ClockCallback;
+import com.starmediadev.starclock.metrics.ClockMetrics;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the {@link ClockCallback}'s of clocks on an {@link Executor} instead of on the thread running the {@link ClockRunnable}. See {@link ClockManager#setCallbackDispatcher(CallbackDispatcher)} <br>
+ * Each clock has its own bounded queue, so callbacks of a single clock still run one at a time in the order they were due, while callbacks of different clocks run in parallel. <br>
+ * When the queue of a clock is full, the {@link OverflowPolicy} decides what happens. <br>
+ * When the executor rejects the queue of a clock, for example because it was shut down, the callbacks of that clock run on the thread of the {@link ClockRunnable} with {@link OverflowPolicy#BLOCK}, and otherwise stay queued until a later callback of the clock is dispatched. <br>
+ * The return value of a callback is applied to the {@link CallbackHolder#setStatus(boolean)} once it finishes. Queued calls for a callback that returned false are dropped.
+ */
+public final class CallbackDispatcher {
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private volatile Logger logger;
+    
+    /**
+     * Constructs a new CallbackDispatcher that uses a virtual thread per callback when the Java runtime supports them, or a cached thread pool if it does not. <br>
+     * Each clock can have 16 callbacks queued and blocks when it has more.
+     */
+    public CallbackDispatcher() {
+        this(defaultExecutor(), 16, OverflowPolicy.BLOCK, true);
+    }
+    
+    /**
+     * Constructs a new CallbackDispatcher
+     * @param executor The executor to run the callbacks on. This must not run the tasks on the thread that submits them when using {@link OverflowPolicy#BLOCK}
+     * @param queueCapacity The amount of callbacks that can be queued for each clock
+     * @param overflowPolicy What to do when the queue of a clock is full
+     */
+    public CallbackDispatcher(Executor executor, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(executor, queueCapacity, overflowPolicy, false);
+    }
+    
+    private CallbackDispatcher(Executor executor, int queueCapacity, OverflowPolicy overflowPolicy, boolean owned) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be at least 1");
+        }
+        
+        this.executor = Objects.requireNonNull(executor);
+        this.ownedExecutor = owned && executor instanceof ExecutorService service ? service : null;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+    }
+    
+    /**
+     * @return The executor the callbacks run on
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+    
+    /**
+     * @return The amount of callbacks that can be queued for each clock
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    /**
+     * @return What happens when the queue of a clock is full
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+    
+    /**
+     * Sets the logger that exceptions thrown by callbacks are reported to. This is set to the logger of the {@link ClockManager} the dispatcher is given to
+     * @param logger The logger, or null to ignore exceptions
+     */
+    public void setLogger(Logger logger) {
+        this.logger = logger;
+    }
+    
+    /**
+     * Shuts down the executor if it was created by this dispatcher. This does nothing if the executor was provided
+     */
+    public void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+    
+    /**
+     * Queues a callback on the queue of its clock. A clock that has a queue of another dispatcher, because the dispatcher of the manager was replaced, is given a new queue so it uses the executor and limits of this one. The calls that were already queued still run on the previous dispatcher
+     */
+    <T extends ClockSnapshot> void dispatch(Clock<T> clock, CallbackHolder<T> holder, T snapshot, ClockMetrics metrics) {
+        Queue queue = clock.dispatchQueue;
+        if (queue == null || queue.getDispatcher() != this) {
+            synchronized (this) {
+                queue = clock.dispatchQueue;
+                if (queue == null || queue.getDispatcher() != this) {
+                    queue = new Queue();
+                    clock.dispatchQueue = queue;
+                }
+            }
+        }
+        
+        queue.offer(new Task<>(clock, holder, snapshot, metrics));
+    }
+    
+    private static Executor defaultExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "StarClock-Callback");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    /**
+     * What happens when a callback is due while the queue of its clock is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * The thread running the {@link ClockRunnable} waits until there is room in the queue. If it is interrupted while waiting, the callback is queued anyway and the interrupt is kept
+         */
+        BLOCK,
+        /**
+         * The oldest queued callback is dropped
+         */
+        DROP_OLDEST,
+        /**
+         * The newest queued call of the same callback is replaced by the new snapshot, which keeps its place in the queue. If that callback has nothing queued, the oldest queued callback is dropped
+         */
+        COALESCE
+    }
+    
+    private record Task<T extends ClockSnapshot>(Clock<T> clock, CallbackHolder<T> holder, T snapshot, ClockMetrics metrics) {
+        private void run() {
+            if (!holder.getStatus()) {
+                return;
+            }
+            
+            ClockCallback<T> callback = holder.getCallback();
+            boolean result = metrics != null ? metrics.timeCallback(clock, callback, snapshot) : callback.callback(snapshot);
+            if (!result) {
+                holder.setStatus(false);
+            }
+        }
+    }
+    
+    /**
+     * The queue of callbacks for a single clock
+     */
+    final class Queue implements Runnable {
+        private final ArrayDeque<Task<?>> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean rejected;
+        
+        /**
+         * @return The dispatcher this queue belongs to
+         */
+        CallbackDispatcher getDispatcher() {
+            return CallbackDispatcher.this;
+        }
+        
+        private void offer(Task<?> task) {
+            synchronized (this) {
+                if (tasks.size() >= queueCapacity) {
+                    switch (overflowPolicy) {
+                        case BLOCK -> {
+                            while (tasks.size() >= queueCapacity) {
+                                try {
+                                    wait();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                    interrupted(e);
+                                    break;
+                                }
+                            }
+                        }
+                        case DROP_OLDEST -> tasks.pollFirst();
+                        case COALESCE -> {
+                            if (!replace(task)) {
+                                tasks.pollFirst();
+                            } else {
+                                return;
+                            }
+                        }
+                    }
+                }
+                
+                tasks.addLast(task);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                rejected(e);
+            }
+        }
+        
+        /**
+         * Handles the executor rejecting this queue. The queue is no longer marked as scheduled, so the next call that is offered tries again. The rejection is reported to the logger once for each clock
+         * @param exception The rejection
+         */
+        private void rejected(RejectedExecutionException exception) {
+            boolean first;
+            synchronized (this) {
+                first = !rejected;
+                rejected = true;
+            }
+            
+            Logger logger = CallbackDispatcher.this.logger;
+            if (first && logger != null) {
+                logger.log(Level.WARNING, "The executor of a CallbackDispatcher rejected the callbacks of a clock", exception);
+            }
+            
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                run();
+                return;
+            }
+            
+            synchronized (this) {
+                scheduled = false;
+            }
+        }
+        
+        /**
+         * Handles the thread that offers a call being interrupted while it waits for room in the queue with {@link OverflowPolicy#BLOCK}. The call is queued anyway so it is not lost, and the queue stays over its capacity until it is run
+         * @param exception The interruption
+         */
+        private void interrupted(InterruptedException exception) {
+            Logger logger = CallbackDispatcher.this.logger;
+            if (logger != null) {
+                logger.log(Level.WARNING, "A thread was interrupted while waiting for room in the callback queue of a clock, the callback was queued over the capacity", exception);
+            }
+        }
+        
+        /**
+         * Replaces the newest queued call of the same callback with a task, keeping its place in the queue
+         * @param task The task
+         * @return If a call was replaced
+         */
+        private boolean replace(Task<?> task) {
+            int index = -1;
+            int i = 0;
+            for (Task<?> queued : tasks) {
+                if (queued.holder() == task.holder()) {
+                    index = i;
+                }
+                i++;
+            }
+            if (index < 0) {
+                return false;
+            }
+            
+            int size = tasks.size();
+            for (i = 0; i < size; i++) {
+                Task<?> queued = tasks.pollFirst();
+                tasks.addLast(i == index ? task : queued);
+            }
+            return true;
+        }
+        
+        @Override
+        public void run() {
+            while (true) {
+                Task<?> task;
+                synchronized (this) {
+                    task = tasks.pollFirst();
+                    if (task == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    notifyAll();
+                }
+                
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    Logger logger = CallbackDispatcher.this.logger;
+                    if (logger != null) {
+                        logger.log(Level.SEVERE, "A clock callback threw an exception", throwable);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.CallbackHolder;
+
+import java.util.Arrays;
+
+/**
+ * The callbacks of a {@link Clock} in a min-heap ordered by when they are due next, so a count only has to look at the first one. <br>
+ * The key of a callback is its target time along the direction the clock counts: the target time itself for clocks that count up, and the negated target time for clocks that count down. Callbacks that never ran have the smallest key, as they are due right away. <br>
+ * Callbacks that are taken out with {@link CallbackSchedule#pollDue(long)} are kept aside at the end of the same array until {@link CallbackSchedule#requeue(Clock)} puts them back with their new key, so every callback is taken at most once per count. <br>
+ * The arrays are only allocated once the first callback is added and grow from a single slot, so clocks without callbacks only hold the empty schedule, and clocks with a few callbacks hold arrays of about their size. <br>
+ * Callbacks with the same key are ordered by their ID, so they run in the order they were added. <br>
+ * Callbacks with a false status are not put back, {@link Clock#resetCallbackStatus()} adds them again.
+ */
+final class CallbackSchedule {
+    private static final CallbackHolder<?>[] NO_HOLDERS = new CallbackHolder<?>[0];
+    private static final long[] NO_KEYS = new long[0];
+    
+    /**
+     * The heap in the first {@link CallbackSchedule#size} slots, and the callbacks that were taken in the last {@link CallbackSchedule#takenSize} slots
+     */
+    private CallbackHolder<?>[] heap = NO_HOLDERS;
+    private long[] keys = NO_KEYS;
+    private int size;
+    private int takenSize;
+    
+    /**
+     * The key of the first callback, or {@link Long#MAX_VALUE} if there is none. This can be read without holding the lock of the schedule
+     */
+    volatile long head = Long.MAX_VALUE;
+    
+    synchronized void add(CallbackHolder<?> holder, long key) {
+        if (size + takenSize == heap.length) {
+            grow();
+        }
+        siftUp(size++, holder, key);
+        head = keys[0];
+    }
+    
+    private void grow() {
+        int length = heap.length;
+        int capacity = length == 0 ? 1 : length * 2;
+        CallbackHolder<?>[] grown = Arrays.copyOf(heap, capacity);
+        if (takenSize > 0) {
+            System.arraycopy(heap, length - takenSize, grown, capacity - takenSize, takenSize);
+            Arrays.fill(grown, length - takenSize, length, null);
+        }
+        heap = grown;
+        keys = Arrays.copyOf(keys, capacity);
+    }
+    
+    /**
+     * @param holder The callback to remove, either from the heap or from the callbacks that were taken
+     */
+    synchronized void remove(CallbackHolder<?> holder) {
+        for (int i = 0; i < size; i++) {
+            if (heap[i] == holder) {
+                removeAt(i);
+                return;
+            }
+        }
+        
+        int first = heap.length - takenSize;
+        for (int i = first; i < heap.length; i++) {
+            if (heap[i] == holder) {
+                heap[i] = heap[first];
+                heap[first] = null;
+                takenSize--;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Takes the first callback if it is due
+     * @param position The time of the clock along the direction it counts, see the key of a callback
+     * @return The callback, or null if none is due
+     */
+    synchronized CallbackHolder<?> pollDue(long position) {
+        if (size == 0 || keys[0] > position) {
+            return null;
+        }
+        
+        CallbackHolder<?> holder = heap[0];
+        removeAt(0);
+        heap[heap.length - ++takenSize] = holder;
+        return holder;
+    }
+    
+    /**
+     * Puts the taken callbacks back with their new key, except for the ones whose status is false
+     * @param clock The clock that the callbacks belong to
+     */
+    synchronized void requeue(Clock<?> clock) {
+        while (takenSize > 0) {
+            int index = heap.length - takenSize--;
+            CallbackHolder<?> holder = heap[index];
+            heap[index] = null;
+            if (holder.getStatus()) {
+                add(holder, clock.callbackKey(holder));
+            }
+        }
+    }
+    
+    /**
+     * @return The estimated heap retained by this schedule in bytes, see {@link ObjectSizes}
+     */
+    synchronized long footprint() {
+        long bytes = ObjectSizes.shallow(CallbackSchedule.class);
+        if (heap != NO_HOLDERS) {
+            bytes += ObjectSizes.array(CallbackHolder.class, heap.length) + ObjectSizes.array(long.class, keys.length);
+        }
+        return bytes;
+    }
+    
+    synchronized void clear() {
+        Arrays.fill(heap, null);
+        size = 0;
+        takenSize = 0;
+        head = Long.MAX_VALUE;
+    }
+    
+    private void removeAt(int index) {
+        int last = --size;
+        CallbackHolder<?> moved = heap[last];
+        long key = keys[last];
+        heap[last] = null;
+        if (index != last) {
+            siftDown(index, moved, key);
+            if (heap[index] == moved) {
+                siftUp(index, moved, key);
+            }
+        }
+        head = size == 0 ? Long.MAX_VALUE : keys[0];
+    }
+    
+    private void siftUp(int index, CallbackHolder<?> holder, long key) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(key, holder, keys[parent], heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            keys[index] = keys[parent];
+            index = parent;
+        }
+        heap[index] = holder;
+        keys[index] = key;
+    }
+    
+    private void siftDown(int index, CallbackHolder<?> holder, long key) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && before(keys[right], heap[right], keys[child], heap[child])) {
+                child = right;
+            }
+            if (!before(keys[child], heap[child], key, holder)) {
+                break;
+            }
+            heap[index] = heap[child];
+            keys[index] = keys[child];
+            index = child;
+        }
+        heap[index] = holder;
+        keys[index] = key;
+    }
+    
+    private static boolean before(long key, CallbackHolder<?> holder, long otherKey, CallbackHolder<?> other) {
+        return key < otherKey || (key == otherKey && holder.getCallbackId() < other.getCallbackId());
+    }
+}
\ No newline at end of file
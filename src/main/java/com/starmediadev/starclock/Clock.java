@@ -2,22 +2,94 @@ package com.starmediadev.starclock;
 
 import com.starmediadev.starclock.callback.*;
 import com.starmediadev.starclock.condition.ClockEndCondition;
+import com.starmediadev.starclock.condition.CombinedEndCondition;
+import com.starmediadev.starclock.condition.ElapsedEndCondition;
+import com.starmediadev.starclock.condition.ThresholdEndCondition;
+import com.starmediadev.starclock.metrics.ClockMetrics;
 import com.starmediadev.starclock.snapshot.ClockSnapshot;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * This is the parent class for all Clocks and provides the main functionality and definitions for this Library
  * @param <T> The type for the ClockSnapshot instance
  */
 public abstract class Clock<T extends ClockSnapshot> {
+    private static final CallbackHolder<?>[] NO_CALLBACKS = new CallbackHolder<?>[0];
+    private static final VarHandle VERSION;
+    
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(Clock.class, "version", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
     protected long time;
+    protected long elapsed;
     protected boolean paused = true;
     protected boolean cancelled;
-    protected Map<UUID, CallbackHolder<T>> callbacks = new HashMap<>();
+    /**
+     * The callbacks of this clock. This array is replaced instead of modified when callbacks are added or removed, so it can be iterated without copying <br>
+     * The order in which they run is kept separately, see {@link Clock#callback()}
+     */
+    @SuppressWarnings("unchecked")
+    protected CallbackHolder<T>[] callbacks = (CallbackHolder<T>[]) NO_CALLBACKS;
+    private final CallbackSchedule schedule = new CallbackSchedule();
+    private long lastCallbackId;
+    /**
+     * The amount of callbacks that run at the points of a {@link TriggerSchedule}, so changes to the time only look for them when there are any
+     */
+    private int triggerCallbacks;
     protected final CountOperation operation;
     private final long countAmount;
     protected ClockEndCondition<T> endCondition;
+    private boolean endConditionCompiled;
+    private volatile Priority priority = Priority.NORMAL;
+    private volatile long deferrals;
+    
+    /**
+     * Odd while the values of this clock are being changed, see {@link Clock#beginChange()}
+     */
+    private int version;
+    long id;
+    ClockEngine engine;
+    /**
+     * The shard of a {@link ShardedClockManager} this clock is registered to, which owns it instead of an engine
+     */
+    volatile ShardedClockManager.Shard shard;
+    int slot = -1;
+    int checkpointSlot = -1;
+    TagIndex.Members[] tags = TagIndex.NO_TAGS;
+    int[] tagSlots = TagIndex.NO_SLOTS;
+    volatile ExpiryIndex.Entry expiry;
+    long anchor;
+    ClockEngine.Entry entry;
+    CallbackDispatcher.Queue dispatchQueue;
+    /**
+     * The ticks this clock was deferred for and that were not counted yet, for engines that count every clock on every tick
+     */
+    long deferredTicks;
+    /**
+     * If this clock was deferred the last time it was due, so it goes first among the clocks with the same priority
+     */
+    boolean deferred;
+    /**
+     * The run of the engine in which this clock was first deferred since it was last processed, so the clocks that waited the longest go first
+     */
+    long deferredSince;
+    /**
+     * Increased every time this clock is recycled by a {@link ClockPool}, so {@link ClockHandle}'s can tell the clock was reused
+     */
+    volatile long generation;
+    /**
+     * If this clock was created by a pooled factory method of the {@link ClockManager}, so it is returned to the pool of the manager once it ends
+     */
+    boolean pooled;
     
     /**
      * Constructs a new Clock
@@ -31,6 +103,76 @@ public abstract class Clock<T extends ClockSnapshot> {
         this.countAmount = countAmount;
     }
     
+    /**
+     * @return The ID of this clock, which is assigned by the {@link ClockManager} it is first added to and kept when it is restored from a {@link ClockCheckpoint}. This is 0 if it was never added to a manager
+     */
+    public final long getClockId() {
+        return id;
+    }
+    
+    /**
+     * @return How many times this clock was recycled by a {@link ClockPool}
+     */
+    public final long getGeneration() {
+        return generation;
+    }
+    
+    /**
+     * Puts this clock back in the state a new clock is in, with a time of 0, so it can be handed out again by a {@link ClockPool}. This is only called on clocks that are not registered to a manager <br>
+     * The callbacks and end condition are removed, and the generation is increased so {@link ClockHandle}'s of the previous use stop working. Callback IDs keep counting up, so IDs of the previous use are not handed out again.
+     */
+    @SuppressWarnings("unchecked")
+    final void recycle() {
+        beginChange();
+        this.time = 0;
+        this.elapsed = 0;
+        this.paused = true;
+        this.cancelled = false;
+        endChange();
+        synchronized (this.schedule) {
+            this.schedule.clear();
+            this.callbacks = (CallbackHolder<T>[]) NO_CALLBACKS;
+            this.triggerCallbacks = 0;
+        }
+        this.endCondition = null;
+        this.endConditionCompiled = false;
+        this.priority = Priority.NORMAL;
+        this.deferrals = 0;
+        this.deferredTicks = 0;
+        this.deferred = false;
+        this.id = 0;
+        this.generation++;
+    }
+    
+    /**
+     * Estimates the heap retained by this clock, which is the clock itself, its callback storage and the bookkeeping of the manager for it. See {@link ClockManager#getFootprint()}
+     * @return The estimated bytes
+     */
+    long footprint() {
+        long bytes = ObjectSizes.shallow(getClass()) + this.schedule.footprint();
+        CallbackHolder<T>[] holders = this.callbacks;
+        if (holders.length > 0) {
+            bytes += ObjectSizes.array(CallbackHolder.class, holders.length);
+            for (CallbackHolder<T> holder : holders) {
+                bytes += ObjectSizes.shallow(holder.getClass());
+            }
+        }
+        
+        ClockEngine.Entry entry = this.entry;
+        if (entry != null) {
+            bytes += ObjectSizes.shallow(entry.getClass());
+        }
+        
+        if (this.tags.length > 0) {
+            bytes += ObjectSizes.array(TagIndex.Members.class, this.tags.length) + ObjectSizes.array(int.class, this.tagSlots.length);
+        }
+        
+        if (this.expiry != null) {
+            bytes += ExpiryIndex.entryFootprint();
+        }
+        return bytes + ObjectSizes.REFERENCE;
+    }
+    
     /**
      * @return The cached amount to count by.
      */
@@ -43,10 +185,338 @@ public abstract class Clock<T extends ClockSnapshot> {
      * This does not allow the {@code time} to go below 0
      */
     public void count() {
+        countFor(getCountAmount());
+    }
+    
+    /**
+     * Counts this clock for the provided amount of running time. Engines use this instead of {@link Clock#advance(long)} so the running time is tracked for every clock
+     * @param amount The amount of milliseconds to count for
+     */
+    final void countFor(long amount) {
+        beginChange();
+        this.elapsed += amount;
+        advance(amount);
+        endChange();
+    }
+    
+    /**
+     * Counts this clock for the provided amount of running time and moves the anchor of the engine with it, so readers see both change together
+     * @param amount The amount of milliseconds to count for
+     * @param anchor The new anchor, see {@link ClockEngine#pendingMillis(Clock)}
+     */
+    final void countFor(long amount, long anchor) {
+        beginChange();
+        this.anchor = anchor;
+        this.elapsed += amount;
+        advance(amount);
+        endChange();
+    }
+    
+    /**
+     * Moves the time forward in the direction of the {@link CountOperation} by the provided amount, as if the clock counted for that many milliseconds. <br>
+     * This does not allow the {@code time} to go below 0
+     * @param amount The amount of milliseconds to advance by
+     */
+    protected void advance(long amount) {
+        this.time = advancedTime(amount);
+    }
+    
+    /**
+     * Calculates the time this clock has after counting for the provided amount, without changing it. Implementations that limit how far they count should override this instead of {@link Clock#advance(long)}
+     * @param amount The amount of milliseconds to count for
+     * @return The time after counting
+     */
+    protected long advancedTime(long amount) {
         if (this.operation == CountOperation.UP) {
-            this.time += getCountAmount();
+            return this.time + amount;
+        }
+        
+        return Math.max(0, this.time - amount);
+    }
+    
+    /**
+     * Calculates how long this clock has to run before the time reaches the target value in the direction it counts.
+     * @param target The target time
+     * @return The milliseconds of running time until the target is reached, 0 if it already is or {@link Long#MAX_VALUE} if it never will be
+     */
+    protected long millisUntil(long target) {
+        if (this.operation == CountOperation.UP) {
+            return this.time >= target ? 0 : target - this.time;
+        }
+        
+        if (this.time <= target) {
+            return 0;
+        }
+        
+        return target < 0 ? Long.MAX_VALUE : this.time - target;
+    }
+    
+    /**
+     * Calculates how long the end condition of this clock has until it ends the clock. <br>
+     * Whether the end condition can be calculated ahead of time is decided once when it is set, see {@link Clock#conditionDelay(ClockEndCondition)}
+     * @return The milliseconds of running time until the end condition is met, {@link Long#MAX_VALUE} if there is none, or -1 if it has to be checked every count
+     */
+    protected final long endConditionDelay() {
+        ClockEndCondition<T> endCondition = this.endCondition;
+        if (endCondition == null) {
+            return Long.MAX_VALUE;
+        }
+        
+        return this.endConditionCompiled ? conditionDelay(endCondition) : -1;
+    }
+    
+    /**
+     * Calculates how long an end condition has until it is met, without creating a snapshot. <br>
+     * This recognizes the {@link ThresholdEndCondition}, the {@link ElapsedEndCondition} and combinations of them with the {@link CombinedEndCondition}. Implementations can override this to recognize end conditions that they know how to calculate ahead of time, and should call the super method for the ones they do not. <br>
+     * Whether this returns -1 must only depend on the condition itself and not on the current state of the clock, as it is only checked once when the end condition is set.
+     * @param condition The end condition, which can be part of a combination
+     * @return The milliseconds of running time until the condition is met, 0 if it is met now, {@link Long#MAX_VALUE} if it will not be met while the clock counts, or -1 if it is not recognized
+     */
+    protected long conditionDelay(ClockEndCondition<?> condition) {
+        if (condition instanceof ThresholdEndCondition<?> threshold) {
+            if (threshold.isMet(this.time)) {
+                return 0;
+            }
+            
+            return threshold.isTowards(this.operation) ? millisUntil(threshold.getThreshold()) : Long.MAX_VALUE;
+        }
+        
+        if (condition instanceof ElapsedEndCondition<?> elapsed) {
+            return Math.max(0, elapsed.getDuration() - this.elapsed);
+        }
+        
+        if (condition instanceof CombinedEndCondition<?> combined) {
+            boolean all = combined.isAll();
+            long delay = all ? 0 : Long.MAX_VALUE;
+            List<? extends ClockEndCondition<?>> parts = combined.getConditions();
+            for (int i = 0; i < parts.size(); i++) {
+                ClockEndCondition<?> part = parts.get(i);
+                if (all && recedes(part)) {
+                    return -1;
+                }
+                
+                long partDelay = conditionDelay(part);
+                if (partDelay < 0) {
+                    return -1;
+                }
+                
+                delay = all ? Math.max(delay, partDelay) : Math.min(delay, partDelay);
+            }
+            return delay;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * @param condition The end condition
+     * @return true if the condition contains a threshold that this clock counts away from, which can stop being met while the clock counts
+     */
+    private boolean recedes(ClockEndCondition<?> condition) {
+        if (condition instanceof ThresholdEndCondition<?> threshold) {
+            return !threshold.isTowards(this.operation);
+        }
+        
+        if (condition instanceof CombinedEndCondition<?> combined) {
+            List<? extends ClockEndCondition<?>> parts = combined.getConditions();
+            for (int i = 0; i < parts.size(); i++) {
+                if (recedes(parts.get(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Calculates how long this clock has to run before it ends. This is used to order clocks by when they end, see {@link ClockManager#getEndingWithin(long)} <br>
+     * By default this is when the end condition is met if that can be calculated ahead of time, and otherwise when the time reaches 0 for clocks that count down.
+     * @return The milliseconds of running time until this clock ends, or {@link Long#MAX_VALUE} if it is not known to end
+     */
+    protected long millisUntilEnd() {
+        long delay = endConditionDelay();
+        if (delay >= 0 && delay != Long.MAX_VALUE) {
+            return delay;
+        }
+        
+        return this.operation == CountOperation.DOWN ? millisUntil(0) : Long.MAX_VALUE;
+    }
+    
+    /**
+     * Calculates how long this clock can run before something has to be processed in the {@link Clock#callback()} method. <br>
+     * This is used by engines that do not visit every clock every count, see {@link ClockManager.EngineType}
+     * @return The milliseconds of running time until the next callback or end condition, {@link Long#MAX_VALUE} if nothing is pending, or -1 if it has to be checked every count
+     */
+    protected long nextEventDelay() {
+        long head = this.schedule.head;
+        if (head == Long.MIN_VALUE) {
+            return 0;
+        }
+        
+        long delay = Long.MAX_VALUE;
+        if (head != Long.MAX_VALUE) {
+            delay = millisUntil(this.operation == CountOperation.UP ? head : -head);
+        }
+        
+        long endDelay = endConditionDelay();
+        if (endDelay < 0) {
+            return -1;
+        }
+        
+        return Math.min(delay, endDelay);
+    }
+    
+    /**
+     * Brings the time of this clock up to date when the engine it is registered to only counts it when needed. <br>
+     * This is called before anything reads or changes the time. It does nothing on threads that do not own the clocks of the manager, as those only read, see {@link Clock#readSnapshot()}
+     */
+    protected void sync() {
+        ClockEngine engine = this.engine;
+        if (engine != null && engine.manager.ownsClocks()) {
+            engine.sync(this);
+        }
+    }
+    
+    /**
+     * @return If the current thread can change this clock directly, which is when it is not registered to a manager or owns the clocks of it. See {@link ClockManager} for how changes are made
+     */
+    protected final boolean canMutate() {
+        ClockEngine engine = this.engine;
+        if (engine != null) {
+            return engine.manager.ownsClocks();
+        }
+        
+        ShardedClockManager.Shard shard = this.shard;
+        return shard == null || shard.ownsClocks();
+    }
+    
+    /**
+     * Makes a change to this clock from a thread that cannot change it directly, see {@link Clock#canMutate()}. <br>
+     * Mutators call this with a call to themselves when they cannot change the clock directly, so the change is made on the thread that owns the clocks or once this thread does.
+     * @param change The change
+     */
+    protected final void mutate(Runnable change) {
+        ClockEngine engine = this.engine;
+        ShardedClockManager.Shard shard = this.shard;
+        if (engine != null) {
+            engine.manager.mutate(change);
+        } else if (shard != null) {
+            shard.mutate(change);
         } else {
-            this.time = Math.max(0, this.time - getCountAmount());
+            change.run();
+        }
+    }
+    
+    /**
+     * Marks the start of a change to the values of this clock, so threads that read it concurrently read again. Only the thread that can change the clock calls this, see {@link Clock#canMutate()} <br>
+     * The version is written without a full fence, so counting a clock stays as cheap as before
+     */
+    protected final void beginChange() {
+        VERSION.setOpaque(this, this.version + 1);
+        VarHandle.storeStoreFence();
+    }
+    
+    /**
+     * Marks the end of a change started with {@link Clock#beginChange()}
+     */
+    protected final void endChange() {
+        VERSION.setRelease(this, this.version + 1);
+    }
+    
+    /**
+     * Reads values of this clock so they are consistent with each other, from a thread that cannot change it. The reader is repeated when the clock was changed while it was reading, which only waits for a single change and never blocks the thread that changes it.
+     * @param reader The reader, which must not change anything
+     * @param <R> The type of the result
+     * @return The result of the reader
+     */
+    protected final <R> R read(Supplier<R> reader) {
+        for (int attempts = 0; ; attempts++) {
+            int version = (int) VERSION.getAcquire(this);
+            if ((version & 1) == 0) {
+                R result = reader.get();
+                VarHandle.loadLoadFence();
+                if ((int) VERSION.getOpaque(this) == version) {
+                    return result;
+                }
+            }
+            
+            if (attempts < 64) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+    
+    /**
+     * Creates a snapshot that is consistent with the changes made to this clock, from any thread. <br>
+     * Threads that can change the clock create it directly. Other threads read the clock without changing it, including the time the engine did not count yet, see {@link Clock#read(Supplier)}
+     * @return The snapshot
+     */
+    protected final T readSnapshot() {
+        if (canMutate()) {
+            sync();
+            return createSnapshot(this.time);
+        }
+        
+        ClockEngine engine = this.engine;
+        return read(() -> {
+            long pending = pendingMillis(engine);
+            return createSnapshot(pending > 0 ? advancedTime(pending) : this.time, this.elapsed + pending);
+        });
+    }
+    
+    /**
+     * @param engine The engine this clock is registered to, or null if there is none
+     * @return The running time the engine did not count yet
+     */
+    private long pendingMillis(ClockEngine engine) {
+        return this.paused || engine == null ? 0 : engine.pendingMillis(this);
+    }
+    
+    /**
+     * @param engine The engine this clock is registered to, or null if there is none
+     * @return The time of this clock including the time the engine did not count yet, without changing it
+     */
+    long currentTime(ClockEngine engine) {
+        long pending = pendingMillis(engine);
+        return pending > 0 ? advancedTime(pending) : this.time;
+    }
+    
+    /**
+     * Notifies the engine this clock is registered to that something changed which can affect when it has to be processed next.
+     */
+    protected void update() {
+        if (!canMutate()) {
+            mutate(this::update);
+            return;
+        }
+        
+        ClockEngine engine = this.engine;
+        if (engine != null) {
+            engine.update(this);
+            engine.manager.expiry.update(this);
+        }
+    }
+    
+    /**
+     * @return The journal of the manager this clock is registered to, or null if there is none
+     */
+    ClockJournal getJournal() {
+        ClockEngine engine = this.engine;
+        return engine != null ? engine.manager.journal : null;
+    }
+    
+    /**
+     * Appends a record of a change of this clock to the {@link ClockJournal} of the manager it is registered to, if it has one. <br>
+     * This is called by the mutators after the change, as the record holds the time of the clock after it
+     * @param operation The change
+     * @param value The value of the change, see {@link ClockJournal.Operation}
+     */
+    protected final void journal(ClockJournal.Operation operation, long value) {
+        ClockJournal journal = getJournal();
+        if (journal != null) {
+            journal.append(this, operation, value, 0, 0);
         }
     }
     
@@ -56,55 +526,291 @@ public abstract class Clock<T extends ClockSnapshot> {
      */
     public abstract T createSnapshot();
     
+    /**
+     * Creates a ClockSnapshot for this Clock instance as if the time was the provided value. This is used for the callbacks of missed intervals, see {@link MissedCallbackPolicy#FIRE_ALL}
+     * @param time The time for the snapshot
+     * @return The snapshot instance
+     */
+    protected T createSnapshot(long time) {
+        return createSnapshot(time, this.elapsed);
+    }
+    
+    /**
+     * Creates a ClockSnapshot for this Clock instance as if the time and running time were the provided values. <br>
+     * This is used for snapshots read from other threads, see {@link Clock#readSnapshot()}, so it must only read the fields of this clock and never change them
+     * @param time The time for the snapshot
+     * @param elapsed The running time for the snapshot
+     * @return The snapshot instance
+     */
+    protected abstract T createSnapshot(long time, long elapsed);
+    
+    /**
+     * @return The missed callback policy of the manager this clock is registered to, or {@link MissedCallbackPolicy#COALESCE} if there is none
+     */
+    protected MissedCallbackPolicy getDefaultMissedCallbackPolicy() {
+        ClockEngine engine = this.engine;
+        return engine != null ? engine.manager.getMissedCallbackPolicy() : MissedCallbackPolicy.COALESCE;
+    }
+    
+    /**
+     * @param holder The holder of the callback, which must be due
+     * @return The amount of intervals of the callback that the time has passed since it last ran
+     */
+    protected long passedIntervals(CallbackHolder<T> holder) {
+        if (holder.getLastRun() == 0) {
+            return 1;
+        }
+        
+        long passed = this.operation == CountOperation.UP ? this.time - holder.getLastRun() : holder.getLastRun() - this.time;
+        return Math.max(1, passed / holder.getInterval());
+    }
+    
+    /**
+     * Calculates the key that orders a callback by when it is due next, see {@link CallbackSchedule}
+     * @param holder The holder of the callback
+     * @return The target time of the callback along the direction this clock counts, or {@link Long#MIN_VALUE} if it never ran
+     */
+    final long callbackKey(CallbackHolder<?> holder) {
+        if (holder instanceof TriggerCallbackHolder<?> trigger) {
+            long next = trigger.getNextTrigger();
+            if (next == TriggerSchedule.NONE) {
+                return Long.MAX_VALUE;
+            }
+            return this.operation == CountOperation.UP ? next : -next;
+        }
+        
+        if (holder.getLastRun() == 0) {
+            return Long.MIN_VALUE;
+        }
+        
+        if (this.operation == CountOperation.UP) {
+            return holder.getLastRun() + holder.getInterval();
+        }
+        return holder.getInterval() - holder.getLastRun();
+    }
+    
+    /**
+     * @param holder The holder of the callback
+     * @return true if the callback can be scheduled to run
+     */
+    private static boolean isSchedulable(CallbackHolder<?> holder) {
+        return holder.getCallback() != null && holder.getStatus() && (holder.getInterval() > 0 || holder instanceof TriggerCallbackHolder);
+    }
+    
     protected boolean shouldCallback(CallbackHolder<T> holder) {
+        if (holder instanceof TriggerCallbackHolder<T> trigger) {
+            long next = trigger.getNextTrigger();
+            return next != TriggerSchedule.NONE && reached(next);
+        }
+        
         if (holder.getLastRun() == 0) {
             return true;
         }
         
         if (this.operation == CountOperation.UP) {
-            return this.time >= holder.getLastRun() - holder.getInterval();
+            return this.time >= holder.getLastRun() + holder.getInterval();
         } else {
             return this.time <= holder.getLastRun() - holder.getInterval();
         }
     }
     
     /**
-     * Contains logic for processing the {@link ClockCallback}'s. Please see the ClockCallback and the {@link CallbackHolder} classes for how this is processed
+     * Contains logic for processing the {@link ClockCallback}'s. Please see the ClockCallback and the {@link CallbackHolder} classes for how this is processed <br>
+     * The callbacks are kept in a heap ordered by when they are due next, so only the ones that are due are looked at. Callbacks that are due at the same time run in the order they were added. <br>
+     * The snapshot is only created once a callback or the end condition needs it, and is shared between them. End conditions that are recognized when they are set do not need one, see {@link Clock#conditionDelay(ClockEndCondition)}
      */
+    @SuppressWarnings("unchecked")
     public void callback() {
-        if (this.callbacks.isEmpty()) {
-            return;
+        T snapshot = null;
+        CallbackSchedule schedule = this.schedule;
+        long position = this.operation == CountOperation.UP ? this.time : -this.time;
+        if (schedule.head <= position) {
+            try {
+                CallbackHolder<T> holder;
+                while ((holder = (CallbackHolder<T>) schedule.pollDue(position)) != null) {
+                    if (!holder.getStatus() || !shouldCallback(holder)) {
+                        continue;
+                    }
+                    
+                    snapshot = runDue(holder, snapshot);
+                }
+            } finally {
+                schedule.requeue(this);
+            }
         }
         
-        T snapshot = createSnapshot();
-        for (CallbackHolder<T> holder : this.callbacks.values()) {
-            ClockCallback<T> callback = holder.getCallback();
-            if (callback == null) {
-                continue;
+        if (endCondition != null) {
+            long endDelay = endConditionDelay();
+            if (endDelay == 0 || (endDelay < 0 && endCondition.shouldEnd(snapshot != null ? snapshot : createSnapshot()))) {
+                cancel();
             }
-            
-            if (!holder.getStatus()) {
-                continue;
+        }
+    }
+    
+    /**
+     * Runs a callback that is due, applying its {@link MissedCallbackPolicy} if it passed more than one interval. <br>
+     * The last run is moved by whole intervals, so a callback that runs late stays on the interval it was first run at
+     * @param holder The holder of the callback
+     * @param snapshot The snapshot of the current time, or null if it was not created yet
+     * @return The snapshot of the current time if it was created
+     */
+    private T runDue(CallbackHolder<T> holder, T snapshot) {
+        if (holder instanceof TriggerCallbackHolder<T> trigger) {
+            return runTriggers(trigger, snapshot);
+        }
+        
+        long passed = passedIntervals(holder);
+        long step = this.operation == CountOperation.UP ? holder.getInterval() : -holder.getInterval();
+        long boundary = holder.getLastRun() == 0 ? this.time : holder.getLastRun() + passed * step;
+        if (passed > 1) {
+            MissedCallbackPolicy policy = holder.getMissedCallbackPolicy();
+            if (policy == null) {
+                policy = getDefaultMissedCallbackPolicy();
             }
             
-            if (holder.getInterval() <= 0) {
-                continue;
+            if (policy == MissedCallbackPolicy.SKIP) {
+                holder.setLastRun(boundary);
+                return snapshot;
+            } else if (policy == MissedCallbackPolicy.FIRE_ALL) {
+                for (long i = 0; i < passed && holder.getStatus(); i++) {
+                    long intervalTime = holder.getLastRun() + step;
+                    holder.setLastRun(intervalTime);
+                    invoke(holder, createSnapshot(intervalTime));
+                }
+                return snapshot;
             }
-            
-            if (!shouldCallback(holder)) {
-                continue;
+        }
+        
+        if (snapshot == null) {
+            snapshot = createSnapshot();
+        }
+        
+        holder.setLastRun(boundary);
+        invoke(holder, snapshot);
+        return snapshot;
+    }
+    
+    /**
+     * Runs a callback with a {@link TriggerSchedule} whose next point is due, applying its {@link MissedCallbackPolicy} if the time passed more than one point. The next point is calculated before the callback runs, so the callback can change the time
+     * @param trigger The holder of the callback
+     * @param snapshot The snapshot of the current time, or null if it was not created yet
+     * @return The snapshot of the current time if it was created
+     */
+    private T runTriggers(TriggerCallbackHolder<T> trigger, T snapshot) {
+        TriggerSchedule triggers = trigger.getTriggers();
+        long point = trigger.getNextTrigger();
+        long following = triggers.next(point, false, this.operation);
+        if (following != TriggerSchedule.NONE && reached(following)) {
+            MissedCallbackPolicy policy = trigger.getMissedCallbackPolicy();
+            if (policy == null) {
+                policy = getDefaultMissedCallbackPolicy();
             }
             
-            holder.setLastRun(time);
-            boolean callbackResult = callback.callback(snapshot);
-            holder.setStatus(callbackResult);
+            if (policy == MissedCallbackPolicy.SKIP) {
+                trigger.setLastTrigger(triggers.next(this.time, true, this.operation == CountOperation.UP ? CountOperation.DOWN : CountOperation.UP));
+                trigger.setNextTrigger(triggers.next(this.time, false, this.operation));
+                trigger.setLastRun(this.time);
+                return snapshot;
+            } else if (policy == MissedCallbackPolicy.FIRE_ALL) {
+                while (point != TriggerSchedule.NONE && reached(point) && trigger.getStatus()) {
+                    trigger.setLastTrigger(point);
+                    trigger.setNextTrigger(triggers.next(point, false, this.operation));
+                    trigger.setLastRun(point);
+                    invoke(trigger, createSnapshot(point));
+                    point = trigger.getNextTrigger();
+                }
+                return snapshot;
+            }
+            point = triggers.next(this.time, true, this.operation == CountOperation.UP ? CountOperation.DOWN : CountOperation.UP);
         }
         
-        if (endCondition != null) {
-            if (endCondition.shouldEnd(snapshot)) {
-                cancel();
+        if (snapshot == null) {
+            snapshot = createSnapshot();
+        }
+        
+        trigger.setLastTrigger(point);
+        trigger.setNextTrigger(triggers.next(this.time, false, this.operation));
+        trigger.setLastRun(this.time);
+        invoke(trigger, snapshot);
+        return snapshot;
+    }
+    
+    /**
+     * @param point A point in clock time
+     * @return If this clock counted up to or past the point
+     */
+    private boolean reached(long point) {
+        return this.operation == CountOperation.UP ? this.time >= point : this.time <= point;
+    }
+    
+    /**
+     * Called by the mutators that change the time of this clock, instead of counting it, before they call {@link Clock#update()}. <br>
+     * When the time moved back, the next point of every callback with a {@link TriggerSchedule} is calculated again from the new time. A point that was already reached is only run again once the time moved back before it. <br>
+     * When the time moved ahead, the pending points are kept, so the points that were passed are run based on the {@link MissedCallbackPolicy} of the callback like when the clock counted past them.
+     * @param previous The time before the change
+     */
+    protected final void timeChanged(long previous) {
+        long time = this.time;
+        if (this.triggerCallbacks == 0 || (this.operation == CountOperation.UP ? time >= previous : time <= previous)) {
+            return;
+        }
+        
+        synchronized (this.schedule) {
+            for (CallbackHolder<T> holder : this.callbacks) {
+                if (!(holder instanceof TriggerCallbackHolder<T> trigger)) {
+                    continue;
+                }
+                
+                TriggerSchedule triggers = trigger.getTriggers();
+                long last = trigger.getLastTrigger();
+                if (last != TriggerSchedule.NONE && (this.operation == CountOperation.UP ? time < last : time > last)) {
+                    last = TriggerSchedule.NONE;
+                    trigger.setLastTrigger(last);
+                }
+                
+                long next = triggers.next(time, true, this.operation);
+                if (next != TriggerSchedule.NONE && next == last) {
+                    next = triggers.next(time, false, this.operation);
+                }
+                if (next == trigger.getNextTrigger()) {
+                    continue;
+                }
+                
+                this.schedule.remove(trigger);
+                trigger.setNextTrigger(next);
+                if (isSchedulable(trigger)) {
+                    this.schedule.add(trigger, callbackKey(trigger));
+                }
             }
-        } 
+        }
+    }
+    
+    /**
+     * Calls a callback, or hands it to the {@link CallbackDispatcher} of the manager this clock is registered to if it has one
+     * @param holder The holder of the callback
+     * @param snapshot The snapshot for the callback
+     */
+    private void invoke(CallbackHolder<T> holder, T snapshot) {
+        ClockEngine engine = this.engine;
+        if (engine == null) {
+            holder.setStatus(holder.getCallback().callback(snapshot));
+            return;
+        }
+        
+        ClockMetrics metrics = engine.manager.getMetrics();
+        boolean recording = metrics.isRecording();
+        if (recording) {
+            metrics.countCallback();
+        }
+        
+        CallbackDispatcher dispatcher = engine.manager.getCallbackDispatcher();
+        if (dispatcher != null) {
+            dispatcher.dispatch(this, holder, snapshot, recording ? metrics : null);
+        } else if (recording) {
+            holder.setStatus(metrics.timeCallback(this, holder.getCallback(), snapshot));
+        } else {
+            holder.setStatus(holder.getCallback().callback(snapshot));
+        }
     }
     
     /**
@@ -120,14 +826,34 @@ public abstract class Clock<T extends ClockSnapshot> {
      * Pauses the clock
      */
     public void pause() {
+        if (!canMutate()) {
+            mutate(() -> pause());
+            return;
+        }
+        
+        sync();
+        beginChange();
         this.paused = true;
+        endChange();
+        update();
+        journal(ClockJournal.Operation.PAUSE, 0);
     }
     
     /**
      * Resumes the clock
      */
     public void unpause() {
+        if (!canMutate()) {
+            mutate(() -> unpause());
+            return;
+        }
+        
+        sync();
+        beginChange();
         this.paused = false;
+        endChange();
+        update();
+        journal(ClockJournal.Operation.UNPAUSE, 0);
     }
     
     /**
@@ -135,14 +861,32 @@ public abstract class Clock<T extends ClockSnapshot> {
      * Between calling this method and until it processes it again, it can be uncancelled
      */
     public void cancel() {
+        if (!canMutate()) {
+            mutate(() -> cancel());
+            return;
+        }
+        
+        beginChange();
         this.cancelled = true;
+        endChange();
+        update();
+        journal(ClockJournal.Operation.CANCEL, 0);
     }
     
     /**
      * Removes the mark for cancellation. See the cancel() method
      */
     public void uncancel() {
+        if (!canMutate()) {
+            mutate(() -> uncancel());
+            return;
+        }
+        
+        beginChange();
         this.cancelled = false;
+        endChange();
+        update();
+        journal(ClockJournal.Operation.UNCANCEL, 0);
     }
     
     /**
@@ -158,7 +902,26 @@ public abstract class Clock<T extends ClockSnapshot> {
      * @return The current time for the clock
      */
     public long getTime() {
-        return time;
+        if (canMutate()) {
+            sync();
+            return time;
+        }
+        
+        ClockEngine engine = this.engine;
+        return read(() -> currentTime(engine));
+    }
+    
+    /**
+     * @return The amount of milliseconds this clock ran for since it was created. Pauses and changes to the time are not included
+     */
+    public long getElapsed() {
+        if (canMutate()) {
+            sync();
+            return elapsed;
+        }
+        
+        ClockEngine engine = this.engine;
+        return read(() -> this.elapsed + pendingMillis(engine));
     }
     
     /**
@@ -173,7 +936,19 @@ public abstract class Clock<T extends ClockSnapshot> {
      * @param time The time to add
      */
     public void addTime(long time) {
+        if (!canMutate()) {
+            mutate(() -> addTime(time));
+            return;
+        }
+        
+        sync();
+        long previous = this.time;
+        beginChange();
         this.time += time;
+        endChange();
+        timeChanged(previous);
+        update();
+        journal(ClockJournal.Operation.TIME, 0);
     }
     
     /**
@@ -181,7 +956,19 @@ public abstract class Clock<T extends ClockSnapshot> {
      * @param time The time to remove
      */
     public void removeTime(long time) {
+        if (!canMutate()) {
+            mutate(() -> removeTime(time));
+            return;
+        }
+        
+        sync();
+        long previous = this.time;
+        beginChange();
         this.time -= time;
+        endChange();
+        timeChanged(previous);
+        update();
+        journal(ClockJournal.Operation.TIME, 0);
     }
     
     /**
@@ -189,43 +976,230 @@ public abstract class Clock<T extends ClockSnapshot> {
      * @param time The time to set
      */
     public void setTime(long time) {
+        if (!canMutate()) {
+            mutate(() -> setTime(time));
+            return;
+        }
+        
+        sync();
+        long previous = this.time;
+        beginChange();
         this.time = time;
+        endChange();
+        timeChanged(previous);
+        update();
+        journal(ClockJournal.Operation.TIME, 0);
+    }
+    
+    /**
+     * Adds a callback to this clock
+     * @param callback The callback
+     * @param interval The interval to run the callback at.
+     * @return The ID for the callback, used for removing it, or 0 if the callback is null. IDs are only unique within this clock
+     */
+    public long addCallback(ClockCallback<T> callback, long interval) {
+        return addCallback(callback, interval, null);
     }
     
     /**
      * Adds a callback to this clock
      * @param callback The callback
      * @param interval The interval to run the callback at.
-     * @return The UUID for the callback (Mostly internal) and for removing a callback
+     * @param missedCallbackPolicy The policy for intervals that were passed before the callback could run, or null to use the one of the {@link ClockManager}
+     * @return The ID for the callback, used for removing it, or 0 if the callback is null. IDs are only unique within this clock. From a thread that cannot change this clock, the ID is returned right away and the callback is added in order with the other changes, see {@link Clock#canMutate()}
      */
-    public UUID addCallback(ClockCallback<T> callback, long interval) {
+    public long addCallback(ClockCallback<T> callback, long interval, MissedCallbackPolicy missedCallbackPolicy) {
         if (callback == null) {
-            return null;
+            return 0;
         }
-        UUID uuid;
-        do {
-            uuid = UUID.randomUUID();
-        } while (this.callbacks.containsKey(uuid));
         
-        this.callbacks.put(uuid, new CallbackHolder<>(callback, uuid, interval));
-        return uuid;
+        CallbackHolder<T> holder;
+        synchronized (this.schedule) {
+            holder = new CallbackHolder<>(callback, ++this.lastCallbackId, interval);
+        }
+        holder.setMissedCallbackPolicy(missedCallbackPolicy);
+        attachCallback(holder, true);
+        return holder.getCallbackId();
     }
     
     /**
      * Adds a callback to this clock
      * @param callback The callback
-     * @return The UUID for the callback (Mostly internal) and for removing a callback
+     * @return The ID for the callback, used for removing it, or 0 if the callback is null. IDs are only unique within this clock
+     */
+    public long addCallback(ClockCallback<T> callback) {
+        TriggerSchedule triggers = callback.getTriggers();
+        return triggers != null ? addCallback(callback, triggers) : addCallback(callback, callback.getInterval());
+    }
+    
+    /**
+     * Adds a callback that runs at the points of a schedule instead of at an interval. See {@link TriggerSchedule}
+     * @param callback The callback
+     * @param triggers The points to run the callback at
+     * @return The ID for the callback, used for removing it, or 0 if the callback is null. IDs are only unique within this clock
+     */
+    public long addCallback(ClockCallback<T> callback, TriggerSchedule triggers) {
+        return addCallback(callback, triggers, null);
+    }
+    
+    /**
+     * Adds a callback that runs at the points of a schedule instead of at an interval. See {@link TriggerSchedule} <br>
+     * Points that the time is already at when the callback is added are run on the next count.
+     * @param callback The callback
+     * @param triggers The points to run the callback at
+     * @param missedCallbackPolicy The policy for points that were passed before the callback could run, or null to use the one of the {@link ClockManager}
+     * @return The ID for the callback, used for removing it, or 0 if the callback is null. IDs are only unique within this clock. From a thread that cannot change this clock, the ID is returned right away and the callback is added in order with the other changes, see {@link Clock#canMutate()}
+     */
+    public long addCallback(ClockCallback<T> callback, TriggerSchedule triggers, MissedCallbackPolicy missedCallbackPolicy) {
+        if (callback == null) {
+            return 0;
+        }
+        
+        Objects.requireNonNull(triggers);
+        TriggerCallbackHolder<T> holder;
+        synchronized (this.schedule) {
+            holder = new TriggerCallbackHolder<>(callback, ++this.lastCallbackId, triggers);
+        }
+        holder.setMissedCallbackPolicy(missedCallbackPolicy);
+        attachCallback(holder, true);
+        return holder.getCallbackId();
+    }
+    
+    /**
+     * Adds a holder to this clock on the thread that can change it. The ID of the holder is handed out before, so the callback can be added from any thread, see {@link Clock#mutate(Runnable)}
+     * @param holder The holder
+     * @param journaled If adding it is appended to the {@link ClockJournal}
      */
-    public UUID addCallback(ClockCallback<T> callback) {
-        return addCallback(callback, callback.getInterval());
+    private void attachCallback(CallbackHolder<T> holder, boolean journaled) {
+        if (!canMutate()) {
+            mutate(() -> attachCallback(holder, journaled));
+            return;
+        }
+        
+        if (holder instanceof TriggerCallbackHolder<T> trigger) {
+            long time = getTime();
+            long next = trigger.getTriggers().next(time, true, this.operation);
+            if (next != TriggerSchedule.NONE && next == trigger.getLastTrigger()) {
+                next = trigger.getTriggers().next(time, false, this.operation);
+            }
+            trigger.setNextTrigger(next);
+        }
+        synchronized (this.schedule) {
+            addHolder(holder);
+        }
+        update();
+        ClockJournal journal = getJournal();
+        if (journaled && journal != null) {
+            journal.appendCallback(this, holder);
+        }
+    }
+    
+    /**
+     * Adds a holder to the callbacks and the schedule, while holding the lock of the schedule
+     * @param holder The holder
+     */
+    private void addHolder(CallbackHolder<T> holder) {
+        CallbackHolder<T>[] holders = Arrays.copyOf(this.callbacks, this.callbacks.length + 1);
+        holders[holders.length - 1] = holder;
+        this.callbacks = holders;
+        if (holder instanceof TriggerCallbackHolder) {
+            this.triggerCallbacks++;
+        }
+        if (isSchedulable(holder)) {
+            this.schedule.add(holder, callbackKey(holder));
+        }
     }
     
     /**
      * Removes the callback from this Clock 
-     * @param uuid The uuid of the callback
+     * @param callbackId The ID of the callback
      */
-    public void removeCallback(UUID uuid) {
-        this.callbacks.remove(uuid);
+    public void removeCallback(long callbackId) {
+        if (!canMutate()) {
+            mutate(() -> removeCallback(callbackId));
+            return;
+        }
+        
+        synchronized (this.schedule) {
+            CallbackHolder<T>[] holders = this.callbacks;
+            for (int i = 0; i < holders.length; i++) {
+                if (holders[i].getCallbackId() == callbackId) {
+                    CallbackHolder<T>[] removed = Arrays.copyOf(holders, holders.length - 1);
+                    System.arraycopy(holders, i + 1, removed, i, holders.length - i - 1);
+                    this.callbacks = removed;
+                    this.schedule.remove(holders[i]);
+                    if (holders[i] instanceof TriggerCallbackHolder) {
+                        this.triggerCallbacks--;
+                    }
+                    break;
+                }
+            }
+        }
+        update();
+        journal(ClockJournal.Operation.REMOVE_CALLBACK, callbackId);
+    }
+    
+    /**
+     * Adds a callback with the state it had when it was saved. This is used by the {@link ClockCheckpoint} to reattach callbacks under their original ID. Callbacks that provide a {@link TriggerSchedule} run at its points again after the last point that ran, see {@link ClockCallback#getTriggers()}
+     * @param callbackId The ID of the callback
+     * @param callback The callback
+     * @param interval The interval to run the callback at.
+     * @param missedCallbackPolicy The policy for missed intervals, or null to use the one of the {@link ClockManager}
+     * @param lastRun The last time that the callback ran
+     * @param status The status of the callback
+     * @param lastTrigger The last point of the schedule the callback ran for, or {@link TriggerSchedule#NONE}
+     */
+    void restoreCallback(long callbackId, ClockCallback<T> callback, long interval, MissedCallbackPolicy missedCallbackPolicy, long lastRun, boolean status, long lastTrigger) {
+        TriggerSchedule triggers = callback.getTriggers();
+        CallbackHolder<T> holder;
+        if (triggers != null) {
+            TriggerCallbackHolder<T> trigger = new TriggerCallbackHolder<>(callback, callbackId, triggers);
+            trigger.setLastTrigger(lastTrigger);
+            holder = trigger;
+        } else {
+            holder = new CallbackHolder<>(callback, callbackId, interval);
+        }
+        holder.setMissedCallbackPolicy(missedCallbackPolicy);
+        holder.setLastRun(lastRun);
+        holder.setStatus(status);
+        reserveCallbackIds(callbackId);
+        attachCallback(holder, false);
+    }
+    
+    /**
+     * @return The last callback ID that was handed out by this clock
+     */
+    long getLastCallbackId() {
+        synchronized (this.schedule) {
+            return this.lastCallbackId;
+        }
+    }
+    
+    /**
+     * Sets the running time of this clock to the one it had when it was saved. This is used by the {@link ClockJournal}, see {@link Clock#getElapsed()}
+     * @param elapsed The running time in milliseconds
+     */
+    void restoreElapsed(long elapsed) {
+        if (!canMutate()) {
+            mutate(() -> restoreElapsed(elapsed));
+            return;
+        }
+        
+        sync();
+        beginChange();
+        this.elapsed = elapsed;
+        endChange();
+        update();
+    }
+    
+    /**
+     * Makes sure that callback IDs up to the provided one are not handed out again
+     * @param lastCallbackId The last callback ID that was handed out
+     */
+    void reserveCallbackIds(long lastCallbackId) {
+        synchronized (this.schedule) {
+            this.lastCallbackId = Math.max(this.lastCallbackId, lastCallbackId);
+        }
     }
     
     /**
@@ -233,7 +1207,18 @@ public abstract class Clock<T extends ClockSnapshot> {
      * @param endCondition The end condition
      */
     public void setEndCondition(ClockEndCondition<T> endCondition) {
+        if (!canMutate()) {
+            mutate(() -> setEndCondition(endCondition));
+            return;
+        }
+        
+        this.endConditionCompiled = endCondition != null && conditionDelay(endCondition) >= 0;
         this.endCondition = endCondition;
+        update();
+        ClockJournal journal = getJournal();
+        if (journal != null) {
+            journal.appendEndCondition(this);
+        }
     }
     
     /**
@@ -244,11 +1229,11 @@ public abstract class Clock<T extends ClockSnapshot> {
     }
     
     /**
-     * @param uuid The UUID of the callback
+     * @param callbackId The ID of the callback
      * @return The callback instance
      */
-    public ClockCallback<T> getCallback(UUID uuid) {
-        CallbackHolder<T> holder = this.callbacks.get(uuid);
+    public ClockCallback<T> getCallback(long callbackId) {
+        CallbackHolder<T> holder = getHolder(callbackId);
         if (holder != null) {
             return holder.getCallback();
         }
@@ -256,15 +1241,98 @@ public abstract class Clock<T extends ClockSnapshot> {
         return null;
     }
     
+    private CallbackHolder<T> getHolder(long callbackId) {
+        for (CallbackHolder<T> holder : this.callbacks) {
+            if (holder.getCallbackId() == callbackId) {
+                return holder;
+            }
+        }
+        
+        return null;
+    }
+    
     /**
      * This resets the CallbackHolder status flag to true to allow them to run again. <br>
      * See {@link CallbackHolder#getStatus()} for more information
      */
     public void resetCallbackStatus() {
-        this.callbacks.values().forEach(holder -> holder.setStatus(true));
+        if (!canMutate()) {
+            mutate(this::resetCallbackStatus);
+            return;
+        }
+        
+        synchronized (this.schedule) {
+            this.schedule.clear();
+            for (CallbackHolder<T> holder : this.callbacks) {
+                holder.setStatus(true);
+                if (isSchedulable(holder)) {
+                    this.schedule.add(holder, callbackKey(holder));
+                }
+            }
+        }
+        update();
+    }
+    
+    /**
+     * @return The priority of this clock, see {@link Priority}
+     */
+    public Priority getPriority() {
+        return priority;
+    }
+    
+    /**
+     * Sets the priority of this clock, which decides whether it is processed when a run of the {@link ClockRunnable} runs out of time. See {@link ClockManager#setTickBudget(long)}
+     * @param priority The priority
+     */
+    public void setPriority(Priority priority) {
+        Objects.requireNonNull(priority);
+        if (!canMutate()) {
+            mutate(() -> setPriority(priority));
+            return;
+        }
+        
+        this.priority = priority;
+    }
+    
+    /**
+     * @return How many times this clock was deferred to the next run because the budget of a run was used up. See {@link ClockManager#setTickBudget(long)}
+     */
+    public long getDeferrals() {
+        return deferrals;
+    }
+    
+    /**
+     * Counts a deferral of this clock. This is called by the engine on the thread that owns the clocks
+     * @param run The run of the engine, see {@link Clock#deferredSince}
+     */
+    final void countDeferral(long run) {
+        if (!this.deferred) {
+            this.deferred = true;
+            this.deferredSince = run;
+        }
+        this.deferrals++;
     }
     
     public enum CountOperation {
         UP, DOWN
     }
+    
+    /**
+     * The priority of a clock when a run of the {@link ClockRunnable} has a time budget, see {@link ClockManager#setTickBudget(long)} <br>
+     * Clocks are processed by priority, and within a priority the ones that were deferred before go first.
+     */
+    public enum Priority {
+        /**
+         * Always processed, before any other clock, even once the budget is used up
+         */
+        CRITICAL,
+        /**
+         * The default priority. Processed after the critical clocks while the budget lasts
+         */
+        NORMAL,
+        /**
+         * Processed last, while the budget lasts. Meant for clocks where being late is not noticeable
+         */
+        BEST_EFFORT
+    }
 }
\ No newline at end of file
@@ -0,0 +1,716 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.CallbackHolder;
+import com.starmediadev.starclock.callback.ClockCallback;
+import com.starmediadev.starclock.callback.MissedCallbackPolicy;
+import com.starmediadev.starclock.callback.TriggerCallbackHolder;
+import com.starmediadev.starclock.callback.TriggerSchedule;
+import com.starmediadev.starclock.condition.ClockEndCondition;
+import com.starmediadev.starclock.condition.CombinedEndCondition;
+import com.starmediadev.starclock.condition.ElapsedEndCondition;
+import com.starmediadev.starclock.condition.ThresholdEndCondition;
+import com.starmediadev.starclock.condition.defaults.StopwatchEndCondition;
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Saves the state of the clocks of a {@link ClockManager} to a binary file, so they can be restored after a restart. <br>
+ * The file is memory mapped and holds a fixed size record for every clock. A clock keeps its record between checkpoints and only the parts of a record that changed are written, so only the pages of the file that actually changed have to be written to disk. <br>
+ * The time, running time (see {@link Clock#getElapsed()}), length or end time, count amount, paused and cancelled state, priority, and the ID, interval, last run, status and missed callback policy of every callback are saved. For callbacks with a {@link TriggerSchedule} the last point that ran is saved as well, so a point is not run again after restoring. <br>
+ * The default end condition of a clock, a {@link ThresholdEndCondition}, an {@link ElapsedEndCondition}, and a {@link CombinedEndCondition} of at most one of each of those are saved. Callbacks and other end conditions can not be saved, they are reattached by ID with a {@link Resolver} when restoring. A callback that ran at the points of a schedule has to be resolved to a callback that provides the schedule, see {@link ClockCallback#getTriggers()}. Tags are not saved either, restored clocks have to be tagged again with {@link ClockManager#tag(Clock, String)}. <br>
+ * Only {@link Timer} and {@link Stopwatch} clocks are saved, subclasses of them and other clock types are skipped. <br>
+ * Every record has two copies with a checksum and the checkpoint that wrote them, and a record that changed is written over the older copy. A record that was only partially written when the process stopped during a checkpoint restores the copy of the previous checkpoint instead. A record that has no valid copy fails the restore, unless the last checkpoint did not finish and the clock was new in it. <br>
+ * When a clock has more callbacks than the records have room for, or the records have to grow while they are not at the end of the file, every record is written again in a new region of the file. The header only points to the new region once it is written and forced to disk, so a crash while it is written restores the previous checkpoint. The region before the current one is reused once it is large enough, so the file stays within about twice the size of its records. <br>
+ * A file should only be used by one ClockManager at a time. The methods of this class are synchronized.
+ */
+public final class ClockCheckpoint implements Closeable {
+    /**
+     * The version of the file format. Files with another version can not be opened
+     */
+    public static final int VERSION = 4;
+    
+    private static final int MAGIC = 0x53434B50;
+    private static final int HEADER_BYTES = 64;
+    private static final int CLOCK_WORDS = 10;
+    private static final int CALLBACK_WORDS = 5;
+    /**
+     * The words after the callbacks of a record, which are the checkpoint that wrote it and the checksum
+     */
+    private static final int TRAILER_WORDS = 2;
+    private static final int COPIES = 2;
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int EMPTY = -1;
+    private static final int DAMAGED = -2;
+    
+    private static final int TYPE_TIMER = 1;
+    private static final int TYPE_STOPWATCH = 2;
+    private static final long FLAG_PAUSED = 1L << 8;
+    private static final long FLAG_CANCELLED = 1L << 9;
+    private static final long FLAG_COUNT_UP = 1L << 10;
+    private static final int PRIORITY_SHIFT = 12;
+    private static final long FLAG_CALLBACK_STATUS = 1L;
+    private static final long FLAG_CALLBACK_TRIGGERS = 1L << 1;
+    
+    private static final long END_DEFAULT = 1L;
+    private static final long END_THRESHOLD = 1L << 1;
+    private static final long END_AT_LEAST = 1L << 2;
+    private static final long END_ELAPSED = 1L << 3;
+    private static final long END_COMBINED = 1L << 4;
+    private static final long END_ALL = 1L << 5;
+    private static final long END_CUSTOM = 1L << 6;
+    
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int maxCallbacks;
+    private int recordWords;
+    private int capacity;
+    /**
+     * The position of the first record in the file
+     */
+    private long base;
+    /**
+     * If the records were laid out in a new region that the header does not point to yet, see {@link ClockCheckpoint#relayout(int, int)}
+     */
+    private boolean relayout;
+    private long sequence;
+    private Clock<?>[] owners = new Clock<?>[0];
+    private int[] marks = new int[0];
+    private int generation;
+    private long[] words;
+    private long[] stored;
+    
+    private ClockCheckpoint(FileChannel channel) {
+        this.channel = channel;
+    }
+    
+    /**
+     * Opens a checkpoint file, creating it if it does not exist yet. Records have room for 4 callbacks until a clock has more
+     * @param path The path of the file
+     * @return The checkpoint
+     * @throws IOException If the file could not be opened, or it is not a checkpoint file of the current {@link ClockCheckpoint#VERSION}
+     */
+    public static ClockCheckpoint open(Path path) throws IOException {
+        return open(path, 4);
+    }
+    
+    /**
+     * Opens a checkpoint file, creating it if it does not exist yet.
+     * @param path The path of the file
+     * @param maxCallbacks The amount of callbacks that records have room for when the file is created. The file is laid out again with more room when a clock has more callbacks
+     * @return The checkpoint
+     * @throws IOException If the file could not be opened, or it is not a checkpoint file of the current {@link ClockCheckpoint#VERSION}
+     */
+    public static ClockCheckpoint open(Path path, int maxCallbacks) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ClockCheckpoint checkpoint = new ClockCheckpoint(channel);
+        try {
+            if (channel.size() == 0) {
+                checkpoint.create(Math.max(0, maxCallbacks));
+            } else {
+                checkpoint.load();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return checkpoint;
+    }
+    
+    /**
+     * Saves the state of every clock registered to the manager. <br>
+     * Clocks that are running are saved with the time they have when they are reached, so for an exact state this should be called on the thread of the {@link ClockRunnable}
+     * @param manager The manager
+     * @return The amount of records that changed
+     * @throws IOException If the file could not be written
+     */
+    public synchronized int checkpoint(ClockManager manager) throws IOException {
+        List<Clock<? extends ClockSnapshot>> clocks = manager.getClocks();
+        int needed = this.maxCallbacks;
+        int count = 0;
+        for (Clock<? extends ClockSnapshot> clock : clocks) {
+            if (isSupported(clock)) {
+                needed = Math.max(needed, clock.callbacks.length);
+                count++;
+            }
+        }
+        
+        int capacity = count > this.capacity ? Math.max(this.capacity * 2, count) : this.capacity;
+        try {
+            if (needed > this.maxCallbacks) {
+                relayout(Math.max(needed, this.maxCallbacks * 2), capacity);
+            } else if (capacity > this.capacity) {
+                if (this.base + regionBytes(this.capacity, this.recordWords) < this.channel.size()) {
+                    relayout(this.maxCallbacks, capacity);
+                } else {
+                    grow(capacity);
+                }
+            }
+            return writeRecords(manager, clocks);
+        } catch (IOException | RuntimeException e) {
+            if (this.relayout) {
+                load();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Writes the records of a checkpoint, after the records were given room for every clock. The header is written last, see {@link ClockCheckpoint#isComplete()}
+     */
+    private int writeRecords(ClockManager manager, List<Clock<? extends ClockSnapshot>> clocks) {
+        int generation = ++this.generation;
+        Clock<?>[] pending = new Clock<?>[16];
+        int pendingSize = 0;
+        for (Clock<? extends ClockSnapshot> clock : clocks) {
+            if (!isSupported(clock)) {
+                continue;
+            }
+            
+            int slot = clock.checkpointSlot;
+            if (slot >= 0 && slot < this.capacity && this.owners[slot] == clock) {
+                this.marks[slot] = generation;
+            } else {
+                if (pendingSize == pending.length) {
+                    pending = Arrays.copyOf(pending, pendingSize * 2);
+                }
+                pending[pendingSize++] = clock;
+            }
+        }
+        
+        if (!this.relayout) {
+            this.buffer.putInt(48, 1);
+        }
+        int changed = 0;
+        int[] free = new int[16];
+        int freeSize = 0;
+        for (int slot = this.capacity - 1; slot >= 0; slot--) {
+            if (this.marks[slot] == generation) {
+                continue;
+            }
+            
+            Clock<?> owner = this.owners[slot];
+            if (owner != null) {
+                if (owner.checkpointSlot == slot) {
+                    owner.checkpointSlot = -1;
+                }
+                this.owners[slot] = null;
+            }
+            
+            boolean cleared = false;
+            for (int copy = 0; copy < COPIES; copy++) {
+                int offset = offset(slot, copy);
+                if (this.buffer.getLong(offset) != 0) {
+                    this.buffer.putLong(offset, 0);
+                    cleared = true;
+                }
+            }
+            if (cleared) {
+                changed++;
+            }
+            
+            if (freeSize == free.length) {
+                free = Arrays.copyOf(free, freeSize * 2);
+            }
+            free[freeSize++] = slot;
+        }
+        
+        for (int i = 0; i < pendingSize; i++) {
+            int slot = free[--freeSize];
+            Clock<?> clock = pending[i];
+            clock.checkpointSlot = slot;
+            this.owners[slot] = clock;
+            this.marks[slot] = generation;
+        }
+        
+        for (Clock<? extends ClockSnapshot> clock : clocks) {
+            int slot = clock.checkpointSlot;
+            if (slot >= 0 && slot < this.capacity && this.owners[slot] == clock && write(slot, clock)) {
+                changed++;
+            }
+        }
+        this.buffer.force();
+        
+        this.sequence++;
+        if (this.relayout) {
+            this.buffer.putInt(8, this.maxCallbacks);
+            this.buffer.putInt(12, this.capacity);
+            this.buffer.putLong(56, this.base);
+            this.relayout = false;
+        }
+        this.buffer.putLong(16, this.sequence);
+        this.buffer.putLong(24, manager.getCountAmount());
+        this.buffer.putLong(32, manager.lastClockId.get());
+        this.buffer.putLong(40, System.currentTimeMillis());
+        this.buffer.putInt(48, 0);
+        this.buffer.force();
+        return changed;
+    }
+    
+    /**
+     * Restores the clocks that were saved in this file and adds them to the manager. <br>
+     * The clocks keep their ID and the time they had when they were saved. Clocks that were cancelled are not restored. <br>
+     * The restored clocks keep their record, so the next checkpoint only writes what changed since.
+     * @param manager The manager to add the clocks to
+     * @param resolver Provides the callbacks and custom end conditions for the restored clocks
+     * @return The restored clocks
+     * @throws IOException If a record has no copy with a valid checksum while the last checkpoint finished. No clock is added to the manager then
+     * @throws IllegalStateException If a callback that ran at the points of a {@link TriggerSchedule} was resolved to a callback that does not provide one
+     */
+    public synchronized List<Clock<? extends ClockSnapshot>> restore(ClockManager manager, Resolver resolver) throws IOException {
+        List<Clock<? extends ClockSnapshot>> restored = new ArrayList<>();
+        for (int slot = 0; slot < this.capacity; slot++) {
+            int copy = read(slot, this.words);
+            if (copy == DAMAGED && isComplete()) {
+                throw new IOException("The record in slot " + slot + " of the clock checkpoint is damaged");
+            }
+            if (copy < 0) {
+                continue;
+            }
+            
+            long flags = this.words[0];
+            if ((flags & FLAG_CANCELLED) != 0) {
+                continue;
+            }
+            
+            Clock<? extends ClockSnapshot> clock = switch ((int) (flags & 0xFF)) {
+                case TYPE_TIMER -> restoreClock(new Timer(this.words[3], this.words[4]), new TimerEndCondition(), flags, resolver);
+                case TYPE_STOPWATCH -> restoreClock(new Stopwatch(this.words[3], this.words[4]), new StopwatchEndCondition(), flags, resolver);
+                default -> null;
+            };
+            if (clock != null) {
+                clock.checkpointSlot = slot;
+                restored.add(clock);
+            }
+        }
+        
+        for (Clock<? extends ClockSnapshot> clock : restored) {
+            int slot = clock.checkpointSlot;
+            Clock<?> owner = this.owners[slot];
+            if (owner != null && owner.checkpointSlot == slot) {
+                owner.checkpointSlot = -1;
+            }
+            this.owners[slot] = clock;
+        }
+        manager.lastClockId.accumulateAndGet(this.buffer.getLong(32), Math::max);
+        manager.addClocks(restored);
+        return restored;
+    }
+    
+    /**
+     * @return The amount of checkpoints that were written to this file
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * @return The time in epoch milliseconds at which the last checkpoint finished, or 0 if none did
+     */
+    public synchronized long getCheckpointTime() {
+        return this.buffer.getLong(40);
+    }
+    
+    /**
+     * @return false if the process stopped while the last checkpoint was being written. Restoring still works, but clocks can have the state of either checkpoint
+     */
+    public synchronized boolean isComplete() {
+        return this.buffer.getInt(48) == 0;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        this.buffer.force();
+        this.channel.close();
+    }
+    
+    private <T extends ClockSnapshot> Clock<T> restoreClock(Clock<T> clock, ClockEndCondition<?> defaultEndCondition, long flags, Resolver resolver) {
+        clock.id = this.words[1];
+        clock.time = this.words[2];
+        clock.elapsed = this.words[6];
+        long end = this.words[7];
+        if ((end & END_CUSTOM) != 0) {
+            clock.setEndCondition(cast(resolver.resolveEndCondition(clock)));
+        } else {
+            clock.setEndCondition(cast(decodeEndCondition(end, this.words[8], this.words[9], defaultEndCondition)));
+        }
+        
+        clock.setPriority(Clock.Priority.values()[(int) (flags >>> PRIORITY_SHIFT) & 0x3]);
+        int callbacks = (int) (flags >>> 32);
+        for (int i = 0; i < callbacks; i++) {
+            int word = CLOCK_WORDS + i * CALLBACK_WORDS;
+            long callbackId = this.words[word];
+            ClockCallback<? extends ClockSnapshot> callback = resolver.resolveCallback(clock, callbackId);
+            if (callback == null) {
+                continue;
+            }
+            
+            long callbackFlags = this.words[word + 3];
+            if ((callbackFlags & FLAG_CALLBACK_TRIGGERS) != 0 && callback.getTriggers() == null) {
+                throw new IllegalStateException("Callback " + callbackId + " of clock " + clock.id + " ran at the points of a TriggerSchedule, but the resolved callback does not provide one");
+            }
+            
+            int policy = (int) (callbackFlags >>> 8) & 0xFF;
+            clock.restoreCallback(callbackId, cast(callback), this.words[word + 1], policy == 0 ? null : MissedCallbackPolicy.values()[policy - 1], this.words[word + 2], (callbackFlags & FLAG_CALLBACK_STATUS) != 0, this.words[word + 4]);
+        }
+        clock.reserveCallbackIds(this.words[5]);
+        
+        if ((flags & FLAG_PAUSED) == 0) {
+            clock.unpause();
+        }
+        return clock;
+    }
+    
+    @SuppressWarnings("unchecked")
+    static <C> C cast(Object object) {
+        return (C) object;
+    }
+    
+    static boolean isSupported(Clock<?> clock) {
+        return clock.getClass() == Timer.class || clock.getClass() == Stopwatch.class;
+    }
+    
+    /**
+     * Encodes an end condition into the end condition words of a record, see {@link ClockCheckpoint#decodeEndCondition(long, long, long, ClockEndCondition)}
+     * @return false if the condition can not be saved and has to be resolved when restoring
+     */
+    private static boolean encodeEndCondition(ClockEndCondition<?> condition, Class<?> defaultType, long[] words) {
+        if (condition instanceof CombinedEndCondition<?> combined) {
+            words[7] = END_COMBINED | (combined.isAll() ? END_ALL : 0);
+            for (ClockEndCondition<?> part : combined.getConditions()) {
+                if (!encodePart(part, defaultType, words)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return condition == null || encodePart(condition, defaultType, words);
+    }
+    
+    /**
+     * Encodes a single end condition, which has to be of a kind that was not encoded for the record yet
+     * @return false if the condition can not be saved
+     */
+    private static boolean encodePart(ClockEndCondition<?> condition, Class<?> defaultType, long[] words) {
+        if (condition.getClass() == defaultType && (words[7] & END_DEFAULT) == 0) {
+            words[7] |= END_DEFAULT;
+        } else if (condition instanceof ThresholdEndCondition<?> threshold && (words[7] & END_THRESHOLD) == 0) {
+            words[7] |= END_THRESHOLD | (threshold.isAtLeast() ? END_AT_LEAST : 0);
+            words[8] = threshold.getThreshold();
+        } else if (condition instanceof ElapsedEndCondition<?> elapsed && (words[7] & END_ELAPSED) == 0) {
+            words[7] |= END_ELAPSED;
+            words[9] = elapsed.getDuration();
+        } else {
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Creates the end condition that was saved with {@link ClockCheckpoint#encodeEndCondition(ClockEndCondition, Class, long[])}
+     * @return The end condition, or null if the clock had none
+     */
+    private static ClockEndCondition<?> decodeEndCondition(long end, long threshold, long duration, ClockEndCondition<?> defaultEndCondition) {
+        List<ClockEndCondition<ClockSnapshot>> conditions = new ArrayList<>();
+        if ((end & END_DEFAULT) != 0) {
+            conditions.add(cast(defaultEndCondition));
+        }
+        if ((end & END_THRESHOLD) != 0) {
+            conditions.add((end & END_AT_LEAST) != 0 ? ThresholdEndCondition.atLeast(threshold) : ThresholdEndCondition.atMost(threshold));
+        }
+        if ((end & END_ELAPSED) != 0) {
+            conditions.add(ElapsedEndCondition.after(duration));
+        }
+        
+        if ((end & END_COMBINED) != 0) {
+            ClockEndCondition<ClockSnapshot>[] array = cast(conditions.toArray(new ClockEndCondition<?>[0]));
+            return (end & END_ALL) != 0 ? CombinedEndCondition.all(array) : CombinedEndCondition.any(array);
+        }
+        return conditions.isEmpty() ? null : conditions.get(0);
+    }
+    
+    /**
+     * Encodes the clock into its record, writing only the words that changed
+     * @return true if the record changed
+     */
+    private boolean write(int slot, Clock<?> clock) {
+        long[] words = this.words;
+        Arrays.fill(words, 0);
+        long flags;
+        long extent;
+        Class<?> defaultType;
+        if (clock instanceof Timer timer) {
+            flags = TYPE_TIMER;
+            extent = timer.getLength();
+            defaultType = TimerEndCondition.class;
+        } else {
+            flags = TYPE_STOPWATCH;
+            extent = ((Stopwatch) clock).getEndTime();
+            defaultType = StopwatchEndCondition.class;
+        }
+        if (!encodeEndCondition(clock.getEndCondition(), defaultType, words)) {
+            words[7] = END_CUSTOM;
+            words[8] = 0;
+            words[9] = 0;
+        }
+        
+        CallbackHolder<?>[] holders = clock.callbacks;
+        if (clock.isPaused()) {
+            flags |= FLAG_PAUSED;
+        }
+        if (clock.isCancelled()) {
+            flags |= FLAG_CANCELLED;
+        }
+        if (clock.operation == Clock.CountOperation.UP) {
+            flags |= FLAG_COUNT_UP;
+        }
+        flags |= (long) clock.getPriority().ordinal() << PRIORITY_SHIFT;
+        flags |= (long) holders.length << 32;
+        
+        words[0] = flags;
+        words[1] = clock.id;
+        words[2] = clock.getTime();
+        words[3] = extent;
+        words[4] = clock.getCountAmount();
+        words[5] = clock.getLastCallbackId();
+        words[6] = clock.getElapsed();
+        for (int i = 0; i < holders.length; i++) {
+            CallbackHolder<?> holder = holders[i];
+            int word = CLOCK_WORDS + i * CALLBACK_WORDS;
+            MissedCallbackPolicy policy = holder.getMissedCallbackPolicy();
+            words[word] = holder.getCallbackId();
+            words[word + 1] = holder.getInterval();
+            words[word + 2] = holder.getLastRun();
+            words[word + 3] = (holder.getStatus() ? FLAG_CALLBACK_STATUS : 0) | (long) (policy == null ? 0 : policy.ordinal() + 1) << 8;
+            words[word + 4] = TriggerSchedule.NONE;
+            if (holder instanceof TriggerCallbackHolder<?> trigger) {
+                words[word + 3] |= FLAG_CALLBACK_TRIGGERS;
+                words[word + 4] = trigger.getLastTrigger();
+            }
+        }
+        
+        int current = read(slot, this.stored);
+        if (current >= 0 && Arrays.equals(words, 0, this.recordWords - TRAILER_WORDS, this.stored, 0, this.recordWords - TRAILER_WORDS)) {
+            return false;
+        }
+        
+        words[this.recordWords - 2] = this.sequence + 1;
+        words[this.recordWords - 1] = checksum(words);
+        int offset = offset(slot, current == 0 ? 1 : 0);
+        for (int i = 0; i < this.recordWords; i++) {
+            int position = offset + i * 8;
+            if (this.buffer.getLong(position) != words[i]) {
+                this.buffer.putLong(position, words[i]);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Reads the newest copy of a record that has a valid checksum
+     * @param slot The slot of the record
+     * @param words The array to read the record into
+     * @return The copy that was read, {@link ClockCheckpoint#EMPTY} if the slot holds no record, or {@link ClockCheckpoint#DAMAGED} if it holds no copy with a valid checksum
+     */
+    private int read(int slot, long[] words) {
+        int newest = EMPTY;
+        long newestSequence = Long.MIN_VALUE;
+        for (int copy = 0; copy < COPIES; copy++) {
+            int offset = offset(slot, copy);
+            if (this.buffer.getLong(offset) == 0) {
+                continue;
+            }
+            
+            long sequence = this.buffer.getLong(offset + (this.recordWords - 2) * 8);
+            if (newest >= 0 && sequence <= newestSequence) {
+                continue;
+            }
+            
+            if (valid(offset)) {
+                newest = copy;
+                newestSequence = sequence;
+            } else if (newest == EMPTY) {
+                newest = DAMAGED;
+            }
+        }
+        
+        if (newest >= 0) {
+            int offset = offset(slot, newest);
+            for (int i = 0; i < this.recordWords; i++) {
+                words[i] = this.buffer.getLong(offset + i * 8);
+            }
+        }
+        return newest;
+    }
+    
+    /**
+     * @param offset The offset of a copy of a record
+     * @return true if the copy has a valid checksum
+     */
+    private boolean valid(int offset) {
+        long[] words = this.stored;
+        for (int i = 0; i < this.recordWords; i++) {
+            words[i] = this.buffer.getLong(offset + i * 8);
+        }
+        int callbacks = (int) (words[0] >>> 32);
+        return callbacks <= this.maxCallbacks && words[this.recordWords - 1] == checksum(words);
+    }
+    
+    private long checksum(long[] words) {
+        long hash = 0x5343434B5F763031L;
+        for (int i = 0; i < this.recordWords - 1; i++) {
+            hash = (hash ^ words[i]) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 31;
+        }
+        return hash;
+    }
+    
+    private int offset(int slot, int copy) {
+        return (int) this.base + (slot * COPIES + copy) * this.recordWords * 8;
+    }
+    
+    private static long regionBytes(int capacity, int recordWords) {
+        return (long) capacity * COPIES * recordWords * 8;
+    }
+    
+    /**
+     * Reads the header of an existing file and maps it. This also drops a new region of records that was not finished, see {@link ClockCheckpoint#relayout(int, int)}
+     */
+    private void load() throws IOException {
+        MappedByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(this.channel.size(), HEADER_BYTES));
+        if (header.limit() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException("The file is not a clock checkpoint");
+        }
+        
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported clock checkpoint version " + header.getInt(4) + ", expected " + VERSION);
+        }
+        
+        release();
+        this.relayout = false;
+        this.maxCallbacks = header.getInt(8);
+        this.recordWords = CLOCK_WORDS + this.maxCallbacks * CALLBACK_WORDS + TRAILER_WORDS;
+        this.capacity = header.getInt(12);
+        this.base = header.getLong(56);
+        this.words = new long[this.recordWords];
+        this.stored = new long[this.recordWords];
+        if (this.base < HEADER_BYTES) {
+            throw new IOException("The clock checkpoint has an invalid header");
+        }
+        map();
+        this.sequence = this.buffer.getLong(16);
+    }
+    
+    /**
+     * Lays out a new, empty file for records with room for the provided amount of callbacks
+     */
+    private void create(int maxCallbacks) throws IOException {
+        this.maxCallbacks = maxCallbacks;
+        this.recordWords = CLOCK_WORDS + maxCallbacks * CALLBACK_WORDS + TRAILER_WORDS;
+        this.capacity = DEFAULT_CAPACITY;
+        this.base = HEADER_BYTES;
+        this.words = new long[this.recordWords];
+        this.stored = new long[this.recordWords];
+        map();
+        this.buffer.putInt(0, MAGIC);
+        this.buffer.putInt(4, VERSION);
+        this.buffer.putInt(8, maxCallbacks);
+        this.buffer.putInt(12, this.capacity);
+        this.buffer.putLong(16, this.sequence);
+        this.buffer.putLong(56, this.base);
+        this.buffer.force();
+    }
+    
+    /**
+     * Lays out the records in a new region of the file, with room for the provided amount of callbacks and clocks. Every clock gets a new record in this checkpoint <br>
+     * The region of the current records is left as it is, and the header keeps pointing to it until the checkpoint finished, so the previous checkpoint can still be restored if the process stops before that. The new region goes before the current one if it fits there, and after it otherwise
+     */
+    private void relayout(int maxCallbacks, int capacity) throws IOException {
+        int recordWords = CLOCK_WORDS + maxCallbacks * CALLBACK_WORDS + TRAILER_WORDS;
+        long bytes = regionBytes(capacity, recordWords);
+        long base = HEADER_BYTES + bytes <= this.base ? HEADER_BYTES : this.base + regionBytes(this.capacity, this.recordWords);
+        long size = this.channel.size();
+        
+        release();
+        this.relayout = true;
+        this.maxCallbacks = maxCallbacks;
+        this.recordWords = recordWords;
+        this.capacity = capacity;
+        this.base = base;
+        this.words = new long[recordWords];
+        this.stored = new long[recordWords];
+        map();
+        for (long position = base; position < Math.min(size, base + bytes); position += 8) {
+            this.buffer.putLong((int) position, 0);
+        }
+    }
+    
+    /**
+     * Gives up the records of every clock, so they get a new one on the next checkpoint
+     */
+    private void release() {
+        for (int slot = 0; slot < this.owners.length; slot++) {
+            Clock<?> owner = this.owners[slot];
+            if (owner != null && owner.checkpointSlot == slot) {
+                owner.checkpointSlot = -1;
+            }
+        }
+        this.owners = new Clock<?>[0];
+        this.marks = new int[0];
+    }
+    
+    /**
+     * Adds room for more records at the end of the current region, which has to be at the end of the file
+     */
+    private void grow(int capacity) throws IOException {
+        this.capacity = capacity;
+        map();
+        this.buffer.putInt(12, capacity);
+    }
+    
+    private void map() throws IOException {
+        long size = this.base + regionBytes(this.capacity, this.recordWords);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("A clock checkpoint can not be larger than 2 GB");
+        }
+        
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, HEADER_BYTES));
+        if (this.owners.length < this.capacity) {
+            this.owners = Arrays.copyOf(this.owners, this.capacity);
+            this.marks = Arrays.copyOf(this.marks, this.capacity);
+        }
+    }
+    
+    /**
+     * Provides the parts of a restored clock that can not be saved
+     */
+    @FunctionalInterface
+    public interface Resolver {
+        /**
+         * @param clock The restored clock. Its ID and state are already restored
+         * @param callbackId The ID the callback had when it was saved
+         * @return The callback to reattach under that ID, or null to drop it
+         */
+        ClockCallback<? extends ClockSnapshot> resolveCallback(Clock<? extends ClockSnapshot> clock, long callbackId);
+        
+        /**
+         * This is only called for clocks that did not use the default end condition of their type
+         * @param clock The restored clock
+         * @return The end condition for the clock, or null for none
+         */
+        default ClockEndCondition<? extends ClockSnapshot> resolveEndCondition(Clock<? extends ClockSnapshot> clock) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,285 @@
+package com.starmediadev.starclock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The strategy a {@link ClockManager} uses to decide which clocks get processed on each run of the {@link ClockRunnable} <br>
+ * Engines are created by the ClockManager based on the {@link ClockManager.EngineType} and are not meant to be used directly.
+ */
+abstract class ClockEngine {
+    
+    static final Clock.Priority[] PRIORITIES = Clock.Priority.values();
+    private static final Comparator<Entry> WAITING = Comparator.comparingLong(entry -> entry.clock.deferredSince);
+    private static final int BUDGET_CHECK_INTERVAL = 16;
+    static final long NANOS_PER_MILLI = 1_000_000L;
+    
+    protected final ClockManager manager;
+    /**
+     * The amount of ticks that were counted, see {@link ClockEngine#position()}
+     */
+    volatile long ticks;
+    private long budgetEnd;
+    private int budgetChecks;
+    private boolean overBudget;
+    private long budgetRuns;
+    private final List<Entry> ordered = new ArrayList<>();
+    
+    ClockEngine(ClockManager manager) {
+        this.manager = manager;
+    }
+    
+    /**
+     * Called when a clock is added to the manager
+     * @param clock The clock
+     */
+    abstract void register(Clock<?> clock);
+    
+    /**
+     * Called when a clock is removed from the manager
+     * @param clock The clock
+     */
+    abstract void unregister(Clock<?> clock);
+    
+    /**
+     * Processes the counts for the clocks of the manager
+     * @param ticks The amount of counts to process. This is more than 1 when drift correction is catching up with missed runs, see {@link ClockManager#setDriftCorrection(boolean)}
+     */
+    abstract void tick(int ticks);
+    
+    /**
+     * Brings the time of a clock up to date for engines that do not count every clock on every tick. <br>
+     * This only changes the clock on the thread that owns the clocks of the manager, on other threads it does nothing so readers never see a change half made, see {@link ClockManager#ownsClocks()}
+     * @param clock The clock
+     */
+    void sync(Clock<?> clock) {
+    }
+    
+    /**
+     * Calculates how far {@link ClockEngine#sync(Clock)} would count a running clock, without changing it. This is used by threads that only read the clock, see {@link Clock#read(java.util.function.Supplier)}
+     * @param clock The clock
+     * @return The milliseconds of running time that were not counted yet
+     */
+    long pendingMillis(Clock<?> clock) {
+        return 0;
+    }
+    
+    /**
+     * Called when a clock changed in a way that can affect when it has to be processed next
+     * @param clock The clock
+     */
+    void update(Clock<?> clock) {
+    }
+    
+    /**
+     * Wakes up a thread that waits in {@link ClockEngine#awaitNextTick()} because work was queued for the next run
+     */
+    void wake() {
+    }
+    
+    /**
+     * Blocks the thread of the driver until the next tick should be processed. See {@link ClockManager#startDriver()} <br>
+     * By default this waits for the count amount of the manager.
+     * @throws InterruptedException If the driver was stopped while waiting
+     */
+    void awaitNextTick() throws InterruptedException {
+        Thread.sleep(manager.getCountAmount());
+    }
+    
+    /**
+     * @return If this engine counts on every run of the {@link ClockRunnable}, instead of based on the actual time that passed
+     */
+    boolean isTickBased() {
+        return true;
+    }
+    
+    /**
+     * The position of this engine, which advances as the clocks are counted. For engines that count in ticks this is the amount of ticks counted so far
+     * @return The current position
+     */
+    long position() {
+        return this.ticks;
+    }
+    
+    /**
+     * @param clock A running clock
+     * @param millis An amount of running time of the clock in milliseconds
+     * @return The position of this engine once the clock ran for that amount of time
+     */
+    long positionAfter(Clock<?> clock, long millis) {
+        long countAmount = Math.max(1, clock.getCountAmount());
+        long ticks = millis / countAmount + (millis % countAmount == 0 ? 0 : 1);
+        long position = this.ticks + ticks;
+        return position < ticks ? Long.MAX_VALUE : position;
+    }
+    
+    /**
+     * @param millis An amount of milliseconds
+     * @return How far the position of this engine advances in that time
+     */
+    long positionsIn(long millis) {
+        return millis / Math.max(1, manager.getCountAmount());
+    }
+    
+    /**
+     * @param positions An amount of positions
+     * @return How long it takes for the position of this engine to advance by that amount in milliseconds
+     */
+    long millisUntil(long positions) {
+        long countAmount = Math.max(1, manager.getCountAmount());
+        return positions > Long.MAX_VALUE / countAmount ? Long.MAX_VALUE : positions * countAmount;
+    }
+    
+    /**
+     * Calculates how many ticks pass until a tick has something to process, for managers with a {@link VirtualClockSource}. <br>
+     * By default this brings every running clock up to date and finds the nearest callback or end condition in whole ticks. It is called while owning the clocks, see {@link ClockManager#advance(long)}
+     * @return The amount of ticks after the next tick that was not run yet, so 0 if the next tick has something to process, or {@link Long#MAX_VALUE} if nothing is pending
+     */
+    long ticksUntilNextRun() {
+        long ticks = Long.MAX_VALUE;
+        ClockRegistry registry = manager.registry;
+        synchronized (registry) {
+            Clock<?>[] clocks = registry.array();
+            for (int i = 0; i < registry.size(); i++) {
+                Clock<?> clock = clocks[i];
+                if (clock == null || clock.paused) {
+                    continue;
+                }
+                
+                sync(clock);
+                long delay = clock.cancelled ? 0 : clock.nextEventDelay();
+                if (delay == Long.MAX_VALUE) {
+                    continue;
+                }
+                
+                long countAmount = Math.max(1, clock.getCountAmount());
+                ticks = Math.min(ticks, delay <= 0 ? 0 : delay / countAmount + (delay % countAmount == 0 ? 0 : 1));
+            }
+        }
+        return ticks;
+    }
+    
+    /**
+     * Calculates how long until a run of the {@link ClockRunnable} has something to process, for managers with a {@link VirtualClockSource} and an engine that does not count in ticks, see {@link ClockEngine#isTickBased()}
+     * @return The nanoseconds until the run, or {@link Long#MAX_VALUE} if nothing is pending
+     */
+    long nanosUntilNextRun() {
+        return Long.MAX_VALUE;
+    }
+    
+    /**
+     * Starts the time budget of a tick, see {@link ClockManager#setTickBudget(long)}
+     * @return false if the manager has no budget
+     */
+    boolean startBudget() {
+        long budget = manager.tickBudget;
+        if (budget <= 0) {
+            return false;
+        }
+        
+        this.budgetRuns++;
+        this.budgetEnd = System.nanoTime() + budget;
+        this.budgetChecks = 0;
+        this.overBudget = false;
+        return true;
+    }
+    
+    /**
+     * Checks if the budget started with {@link ClockEngine#startBudget()} is used up. The time is only looked at every few calls, and once it is used up it stays that way for the tick
+     * @return If the budget is used up
+     */
+    boolean overBudget() {
+        if (!this.overBudget && --this.budgetChecks <= 0) {
+            this.budgetChecks = BUDGET_CHECK_INTERVAL;
+            this.overBudget = System.nanoTime() - this.budgetEnd >= 0;
+        }
+        return this.overBudget;
+    }
+    
+    /**
+     * Counts a deferral of a clock in the current tick
+     * @param clock The clock
+     */
+    void countDeferral(Clock<?> clock) {
+        clock.countDeferral(this.budgetRuns);
+    }
+    
+    /**
+     * Fires the entries that are due in a tick, for engines that collect them first. <br>
+     * Without a tick budget they are fired in order. With one, they are fired by priority with the ones that were deferred before first, longest waiting first, and the ones that do not fit in the budget are deferred. See {@link ClockManager#setTickBudget(long)}
+     * @param due The entries that are due
+     */
+    void fireDue(List<? extends Entry> due) {
+        if (!startBudget()) {
+            for (int i = 0; i < due.size(); i++) {
+                fire(due.get(i));
+            }
+            return;
+        }
+        
+        List<Entry> ordered = this.ordered;
+        for (Clock.Priority priority : PRIORITIES) {
+            int waiting = ordered.size();
+            for (int i = 0; i < due.size(); i++) {
+                Clock<?> clock = due.get(i).clock;
+                if (clock.getPriority() == priority && clock.deferred) {
+                    ordered.add(due.get(i));
+                }
+            }
+            if (ordered.size() - waiting > 1) {
+                ordered.subList(waiting, ordered.size()).sort(WAITING);
+            }
+            for (int i = 0; i < due.size(); i++) {
+                Clock<?> clock = due.get(i).clock;
+                if (clock.getPriority() == priority && !clock.deferred) {
+                    ordered.add(due.get(i));
+                }
+            }
+        }
+        
+        int deferred = 0;
+        try {
+            for (int i = 0; i < ordered.size(); i++) {
+                Entry entry = ordered.get(i);
+                Clock<?> clock = entry.clock;
+                if (clock.getPriority() != Clock.Priority.CRITICAL && overBudget()) {
+                    countDeferral(clock);
+                    defer(entry);
+                    deferred++;
+                } else {
+                    clock.deferred = false;
+                    fire(entry);
+                }
+            }
+        } finally {
+            ordered.clear();
+            manager.metrics.countDeferred(deferred);
+        }
+    }
+    
+    /**
+     * Processes an entry that is due, see {@link ClockEngine#fireDue(List)}
+     * @param entry The entry
+     */
+    void fire(Entry entry) {
+    }
+    
+    /**
+     * Schedules an entry that was due for the next tick instead, see {@link ClockEngine#fireDue(List)}
+     * @param entry The entry
+     */
+    void defer(Entry entry) {
+    }
+    
+    /**
+     * The bookkeeping that an engine attaches to a registered clock
+     */
+    static class Entry {
+        final Clock<?> clock;
+        
+        Entry(Clock<?> clock) {
+            this.clock = clock;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the state of the clocks of a {@link ClockManager} to a memory mapped file every few runs of the {@link ClockRunnable}, so other processes on the same host can follow the clocks without asking the manager for them. See {@link ClockManager#setExport(ClockExport)} <br>
+ * The file is a ring of frames. Every export writes the next frame, overwriting the oldest one, with a fixed size record for every clock: its ID, type, time, length or end time, paused state and count operation. <br>
+ * Records are written straight into the mapped file on the thread running the clocks, so an export only costs a few stores per clock and does not allocate. Frames have room for a fixed amount of clocks, the clocks that do not fit are left out of the frame. <br>
+ * The file is read with a {@link Reader}, which reads the records straight from the mapped file. Frames carry their sequence number, which is cleared while the frame is written, so a reader can tell when a frame was overwritten while it read it.
+ */
+public final class ClockExport implements Closeable {
+    /**
+     * The version of the file format. Files with another version can not be read
+     */
+    public static final int VERSION = 1;
+    /**
+     * The type of clocks that are not a {@link Timer} or {@link Stopwatch}
+     */
+    public static final int TYPE_OTHER = 0;
+    /**
+     * The type of {@link Timer}'s, including subclasses
+     */
+    public static final int TYPE_TIMER = 1;
+    /**
+     * The type of {@link Stopwatch}'s, including subclasses
+     */
+    public static final int TYPE_STOPWATCH = 2;
+    
+    private static final int MAGIC = 0x53434558;
+    private static final int HEADER_BYTES = 64;
+    private static final int FRAME_HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 32;
+    private static final int FLAG_PAUSED = 1 << 8;
+    private static final int FLAG_COUNT_UP = 1 << 9;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int frames;
+    private final int capacity;
+    private final int interval;
+    private long sequence;
+    private int runs;
+    
+    private ClockExport(FileChannel channel, MappedByteBuffer buffer, int frames, int capacity, int interval) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.frames = frames;
+        this.capacity = capacity;
+        this.interval = interval;
+    }
+    
+    /**
+     * Creates an export file, replacing the file if it exists
+     * @param path The path of the file
+     * @param capacity The amount of clocks a frame has room for
+     * @param frames The amount of frames in the ring. Readers that fall behind by more than this lose frames
+     * @param interval The amount of runs of the {@link ClockRunnable} between exports, 1 to export on every run
+     * @return The export
+     * @throws IOException If the file could not be created
+     */
+    public static ClockExport open(Path path, int capacity, int frames, int interval) throws IOException {
+        if (capacity < 1 || frames < 1 || interval < 1) {
+            throw new IllegalArgumentException("The capacity, frames and interval must be at least 1");
+        }
+        
+        long size = HEADER_BYTES + (long) frames * frameBytes(capacity);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("An export file can not be larger than 2 GB");
+        }
+        
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, frames);
+            buffer.putInt(12, capacity);
+            buffer.putInt(16, interval);
+            LONGS.setRelease(buffer, 24, 0L);
+            return new ClockExport(channel, buffer, frames, capacity, interval);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Counts a run of the {@link ClockRunnable}, and exports the clocks when the interval passed. This is called on the thread running the clocks
+     * @param manager The manager
+     */
+    synchronized void tickFinished(ClockManager manager) {
+        if (++this.runs < this.interval) {
+            return;
+        }
+        this.runs = 0;
+        
+        long sequence = ++this.sequence;
+        ByteBuffer buffer = this.buffer;
+        int frame = frameOffset(sequence, this.frames, this.capacity);
+        LONGS.setOpaque(buffer, frame, 0L);
+        VarHandle.storeStoreFence();
+        
+        int records = 0;
+        int clocks = 0;
+        ClockRegistry registry = manager.registry;
+        synchronized (registry) {
+            Clock<?>[] array = registry.array();
+            int size = registry.size();
+            for (int i = 0; i < size; i++) {
+                Clock<?> clock = array[i];
+                if (clock == null) {
+                    continue;
+                }
+                
+                clocks++;
+                if (records == this.capacity) {
+                    continue;
+                }
+                
+                int type = TYPE_OTHER;
+                long extent = 0;
+                if (clock instanceof Timer timer) {
+                    type = TYPE_TIMER;
+                    extent = timer.getLength();
+                } else if (clock instanceof Stopwatch stopwatch) {
+                    type = TYPE_STOPWATCH;
+                    extent = stopwatch.getEndTime();
+                }
+                if (clock.paused) {
+                    type |= FLAG_PAUSED;
+                }
+                if (clock.operation == Clock.CountOperation.UP) {
+                    type |= FLAG_COUNT_UP;
+                }
+                
+                ClockEngine engine = clock.engine;
+                int record = frame + FRAME_HEADER_BYTES + records * RECORD_BYTES;
+                buffer.putLong(record, clock.id);
+                buffer.putLong(record + 8, engine != null ? clock.currentTime(engine) : clock.time);
+                buffer.putLong(record + 16, extent);
+                buffer.putInt(record + 24, type);
+                records++;
+            }
+        }
+        
+        buffer.putLong(frame + 8, System.currentTimeMillis());
+        buffer.putInt(frame + 16, records);
+        buffer.putInt(frame + 20, clocks);
+        LONGS.setRelease(buffer, frame, sequence);
+        LONGS.setRelease(buffer, 24, sequence);
+    }
+    
+    /**
+     * @return The amount of frames that were exported
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * @return The amount of clocks a frame has room for
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * @return The amount of frames in the ring
+     */
+    public int getFrames() {
+        return frames;
+    }
+    
+    /**
+     * @return The amount of runs of the {@link ClockRunnable} between exports
+     */
+    public int getInterval() {
+        return interval;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        this.channel.close();
+    }
+    
+    private static int frameBytes(int capacity) {
+        return FRAME_HEADER_BYTES + capacity * RECORD_BYTES;
+    }
+    
+    private static int frameOffset(long sequence, int frames, int capacity) {
+        return HEADER_BYTES + (int) ((sequence - 1) % frames) * frameBytes(capacity);
+    }
+    
+    /**
+     * Receives the records of a frame, see {@link Reader#read(long, Visitor)}
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param clockId The ID of the clock, see {@link Clock#getClockId()}
+         * @param type The type of the clock, {@link ClockExport#TYPE_TIMER}, {@link ClockExport#TYPE_STOPWATCH} or {@link ClockExport#TYPE_OTHER}
+         * @param time The time of the clock
+         * @param extent The length of a timer or the end time of a stopwatch, or 0 for other clocks
+         * @param paused If the clock is paused
+         * @param operation The direction the clock counts in
+         */
+        void visit(long clockId, int type, long time, long extent, boolean paused, Clock.CountOperation operation);
+    }
+    
+    /**
+     * Reads an export file, which can be done from another process while it is written. <br>
+     * The records are read straight from the mapped file without copying the frame. A frame can be overwritten by the writer while it is read, which is reported after the records were visited, so the records a visitor received should only be used once the read reported success.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int frames;
+        private final int capacity;
+        private final int interval;
+        
+        private Reader(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.frames = buffer.getInt(8);
+            this.capacity = buffer.getInt(12);
+            this.interval = buffer.getInt(16);
+        }
+        
+        /**
+         * Opens an export file for reading
+         * @param path The path of the file
+         * @return The reader
+         * @throws IOException If the file could not be opened, or it is not an export file of the current {@link ClockExport#VERSION}
+         */
+        public static Reader open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                if (channel.size() < HEADER_BYTES) {
+                    throw new IOException("The file is not a clock export");
+                }
+                
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt(0) != MAGIC) {
+                    throw new IOException("The file is not a clock export");
+                }
+                
+                if (buffer.getInt(4) != VERSION) {
+                    throw new IOException("Unsupported clock export version " + buffer.getInt(4) + ", expected " + VERSION);
+                }
+                
+                if (channel.size() < HEADER_BYTES + (long) buffer.getInt(8) * frameBytes(buffer.getInt(12))) {
+                    throw new IOException("The clock export is truncated");
+                }
+                return new Reader(channel, buffer);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        
+        /**
+         * @return The sequence number of the last frame that was exported, or 0 if none was
+         */
+        public long getSequence() {
+            return (long) LONGS.getAcquire(this.buffer, 24);
+        }
+        
+        /**
+         * @return The amount of frames in the ring. Frames older than this many frames before the last one were overwritten
+         */
+        public int getFrames() {
+            return frames;
+        }
+        
+        /**
+         * @return The amount of clocks a frame has room for
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+        
+        /**
+         * @return The amount of runs of the {@link ClockRunnable} between exports
+         */
+        public int getInterval() {
+            return interval;
+        }
+        
+        /**
+         * Reads the last frame that was exported
+         * @param visitor Receives the records of the frame
+         * @return The sequence number of the frame, or 0 if there was none or it was overwritten while it was read
+         */
+        public long readLatest(Visitor visitor) {
+            long sequence = getSequence();
+            return sequence != 0 && read(sequence, visitor) ? sequence : 0;
+        }
+        
+        /**
+         * Reads a frame, which is how the export is followed: read every sequence number from the one after the last frame that was read up to {@link Reader#getSequence()}
+         * @param sequence The sequence number of the frame
+         * @param visitor Receives the records of the frame
+         * @return false if the frame is not in the ring, or it was overwritten while it was read. The records the visitor received should then be ignored
+         */
+        public boolean read(long sequence, Visitor visitor) {
+            if (sequence < 1) {
+                return false;
+            }
+            
+            ByteBuffer buffer = this.buffer;
+            int frame = frameOffset(sequence, this.frames, this.capacity);
+            if ((long) LONGS.getAcquire(buffer, frame) != sequence) {
+                return false;
+            }
+            
+            int records = Math.min(buffer.getInt(frame + 16), this.capacity);
+            for (int i = 0; i < records; i++) {
+                int record = frame + FRAME_HEADER_BYTES + i * RECORD_BYTES;
+                int flags = buffer.getInt(record + 24);
+                visitor.visit(buffer.getLong(record), flags & 0xFF, buffer.getLong(record + 8), buffer.getLong(record + 16), (flags & FLAG_PAUSED) != 0, (flags & FLAG_COUNT_UP) != 0 ? Clock.CountOperation.UP : Clock.CountOperation.DOWN);
+            }
+            
+            VarHandle.loadLoadFence();
+            return (long) LONGS.getOpaque(buffer, frame) == sequence;
+        }
+        
+        /**
+         * @param sequence The sequence number of a frame
+         * @return The time in epoch milliseconds at which the frame was exported, or 0 if the frame is not in the ring
+         */
+        public long getExportTime(long sequence) {
+            long time = frameHeader(sequence, 8);
+            return time == Long.MIN_VALUE ? 0 : time;
+        }
+        
+        /**
+         * @param sequence The sequence number of a frame
+         * @return The amount of clocks the manager had when the frame was exported, which is more than the records in the frame when they did not fit, or -1 if the frame is not in the ring
+         */
+        public int getClockCount(long sequence) {
+            long counts = frameHeader(sequence, 16);
+            return counts == Long.MIN_VALUE ? -1 : (int) counts;
+        }
+        
+        /**
+         * @return The word at the offset in the header of the frame, or {@link Long#MIN_VALUE} if the frame is not in the ring or was overwritten while it was read
+         */
+        private long frameHeader(long sequence, int offset) {
+            if (sequence < 1) {
+                return Long.MIN_VALUE;
+            }
+            
+            int frame = frameOffset(sequence, this.frames, this.capacity);
+            if ((long) LONGS.getAcquire(this.buffer, frame) != sequence) {
+                return Long.MIN_VALUE;
+            }
+            
+            long value = this.buffer.getLong(frame + offset);
+            VarHandle.loadLoadFence();
+            return (long) LONGS.getOpaque(this.buffer, frame) == sequence ? value : Long.MIN_VALUE;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Timer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The clocks of a {@link ClockManager} that have a tag, see {@link ClockManager#tag(Clock, String)}. <br>
+ * A group is a view of the tag, so it always reflects the clocks that currently have it. The manager keeps an index of the tags, so the methods of a group take time proportional to the size of the group and not to the amount of clocks in the manager. <br>
+ * The bulk operations are applied at the start of the next run of the {@link ClockRunnable}, so every clock of the group is changed between the same two runs. They return a future that completes with the amount of clocks that were changed once that happened.
+ */
+public final class ClockGroup {
+    private final ClockManager manager;
+    private final String tag;
+    
+    ClockGroup(ClockManager manager, String tag) {
+        this.manager = manager;
+        this.tag = tag;
+    }
+    
+    /**
+     * @return The tag of this group
+     */
+    public String getTag() {
+        return tag;
+    }
+    
+    /**
+     * @return A copy of the clocks in this group
+     */
+    public List<Clock<?>> getClocks() {
+        return manager.tags.clocks(tag);
+    }
+    
+    /**
+     * @return The amount of clocks in this group
+     */
+    public int size() {
+        return manager.tags.size(tag);
+    }
+    
+    /**
+     * Pauses every clock in this group
+     * @return A future that completes with the amount of clocks that were paused
+     */
+    public CompletableFuture<Integer> pause() {
+        return apply(Clock::pause);
+    }
+    
+    /**
+     * Resumes every clock in this group
+     * @return A future that completes with the amount of clocks that were resumed
+     */
+    public CompletableFuture<Integer> unpause() {
+        return apply(Clock::unpause);
+    }
+    
+    /**
+     * Marks every clock in this group for cancellation, see {@link Clock#cancel()}
+     * @return A future that completes with the amount of clocks that were cancelled
+     */
+    public CompletableFuture<Integer> cancel() {
+        return apply(Clock::cancel);
+    }
+    
+    /**
+     * Adds time to every clock in this group, see {@link Clock#addTime(long)}
+     * @param time The time to add
+     * @return A future that completes with the amount of clocks that were changed
+     */
+    public CompletableFuture<Integer> addTime(long time) {
+        return apply(clock -> clock.addTime(time));
+    }
+    
+    /**
+     * Sets the length of every {@link Timer} in this group, keeping their elapsed time. Other clocks are not changed, see {@link Timer#setLength(long)}
+     * @param length The new length
+     * @return A future that completes with the amount of timers that were changed
+     */
+    public CompletableFuture<Integer> setLength(long length) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        manager.runAtTickBoundary(() -> {
+            int[] changed = new int[1];
+            manager.tags.forEach(tag, clock -> {
+                if (clock instanceof Timer timer) {
+                    timer.setLength(length);
+                    changed[0]++;
+                }
+            });
+            future.complete(changed[0]);
+        });
+        return future;
+    }
+    
+    private CompletableFuture<Integer> apply(Consumer<Clock<?>> action) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        manager.runAtTickBoundary(() -> future.complete(manager.tags.forEach(tag, action)));
+        return future;
+    }
+}
\ No newline at end of file
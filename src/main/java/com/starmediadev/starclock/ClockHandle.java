@@ -0,0 +1,74 @@
+package com.starmediadev.starclock;
+
+import java.util.function.Consumer;
+
+/**
+ * A reference to a clock created by a pooled factory method of a {@link ClockManager}, see {@link ClockManager#createPooledTimer(long)} <br>
+ * Pooled clocks are reused once they end, so a reference to the clock itself can end up pointing at a later use of it. A handle remembers the generation of the clock it was created for, and stops working once the clock is recycled. <br>
+ * Changes made through {@link ClockHandle#apply(Consumer)} check the generation again when they are made, so a change that was queued for the next run does not reach a later use of the clock.
+ * @param <C> The type of the clock
+ */
+public final class ClockHandle<C extends Clock<?>> {
+    private final ClockManager manager;
+    private final C clock;
+    private final long generation;
+    
+    ClockHandle(ClockManager manager, C clock) {
+        this.manager = manager;
+        this.clock = clock;
+        this.generation = clock.generation;
+    }
+    
+    /**
+     * @return If the clock was not recycled since this handle was created
+     */
+    public boolean isValid() {
+        return clock.generation == generation;
+    }
+    
+    /**
+     * @return The generation of the clock this handle was created for, see {@link Clock#getGeneration()}
+     */
+    public long getGeneration() {
+        return generation;
+    }
+    
+    /**
+     * Gets the clock for reading it. The clock should not be kept, as it can be recycled at the end of any run of the {@link ClockRunnable}
+     * @return The clock
+     * @throws IllegalStateException If the clock was recycled
+     */
+    public C get() {
+        if (!isValid()) {
+            throw new IllegalStateException("The clock was recycled");
+        }
+        
+        return clock;
+    }
+    
+    /**
+     * Makes a change to the clock if it was not recycled. The change is made while owning the clocks of the manager, right away or at the start of the next run, see {@link ClockManager}
+     * @param change The change
+     * @return false if the clock was already recycled. The change can still be dropped when the clock is recycled before it is made
+     */
+    public boolean apply(Consumer<? super C> change) {
+        if (!isValid()) {
+            return false;
+        }
+        
+        manager.mutate(() -> {
+            if (isValid()) {
+                change.accept(clock);
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Cancels the clock if it was not recycled, see {@link Clock#cancel()}
+     * @return false if the clock was already recycled
+     */
+    public boolean cancel() {
+        return apply(Clock::cancel);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,725 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.CallbackHolder;
+import com.starmediadev.starclock.callback.ClockCallback;
+import com.starmediadev.starclock.callback.MissedCallbackPolicy;
+import com.starmediadev.starclock.callback.TriggerSchedule;
+import com.starmediadev.starclock.condition.ClockEndCondition;
+import com.starmediadev.starclock.condition.defaults.StopwatchEndCondition;
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A write-ahead journal of the changes made to the clocks of a {@link ClockManager}, so changes made after the last {@link ClockCheckpoint} are not lost when the process stops. <br>
+ * Once set with {@link ClockManager#setJournal(ClockJournal)}, adding and removing clocks, and the mutators of clocks, append a compact binary record. The records hold the state after the change, like the time and length, so replaying them in order brings clocks to the state they had after the last change. <br>
+ * Records are collected in memory and written by a background thread that writes everything collected since its last write at once and then syncs the file, so many changes share a single sync. By default this happens after every run of the {@link ClockRunnable}, or every N milliseconds when a sync interval is used. <br>
+ * The journal is a directory of segment files. When a segment gets large a new one is started, and older segments are compacted in the background into one segment that only holds the latest record of each kind for each clock. <br>
+ * To recover, restore the checkpoint, then {@link ClockJournal#replay(ClockManager, ClockCheckpoint.Resolver)} the journal and then set it on the manager. {@link ClockJournal#checkpoint(ClockCheckpoint, ClockManager)} writes a checkpoint and drops the segments that it covers. <br>
+ * Like the checkpoint, only {@link Timer} and {@link Stopwatch} clocks are journaled. Every record also holds the running time of the clock (see {@link Clock#getElapsed()}). The time that running clocks count between changes is not journaled, it comes from the checkpoint.
+ */
+public final class ClockJournal implements Closeable {
+    /**
+     * The version of the file format. Segments with another version can not be replayed
+     */
+    public static final int VERSION = 2;
+    
+    private static final long MAGIC = 0x5343_4A52_4E4C_0000L | VERSION;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 56;
+    private static final long SEGMENT_BYTES = 16L << 20;
+    private static final int COMPACT_SEGMENTS = 4;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    
+    private final Path directory;
+    private final long syncInterval;
+    private final long segmentLimit;
+    private final Thread writer;
+    private final Object segments = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(64 * RECORD_BYTES);
+    private ByteBuffer writing = ByteBuffer.allocate(64 * RECORD_BYTES);
+    private long appended;
+    private long durable;
+    private boolean commitRequested;
+    private boolean rollRequested;
+    private boolean closed;
+    private IOException failure;
+    private FileChannel channel;
+    private long segment;
+    private long segmentBytes;
+    private boolean compacting;
+    
+    private ClockJournal(Path directory, long syncInterval, long segmentLimit) throws IOException {
+        this.directory = directory;
+        this.syncInterval = syncInterval;
+        this.segmentLimit = segmentLimit;
+        long[] existing = listSegments();
+        this.segment = existing.length == 0 ? 1 : existing[existing.length - 1] + 1;
+        openSegment();
+        this.writer = new Thread(this::run, "StarClock-Journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    /**
+     * Opens a journal that syncs after every run of the {@link ClockRunnable}. See {@link ClockJournal#open(Path, long)}
+     * @param directory The directory of the journal
+     * @return The journal
+     * @throws IOException If the directory could not be created or the first segment could not be opened
+     */
+    public static ClockJournal open(Path directory) throws IOException {
+        return open(directory, 0);
+    }
+    
+    /**
+     * Opens a journal, creating the directory if it does not exist yet. Existing segments are kept for {@link ClockJournal#replay(ClockManager, ClockCheckpoint.Resolver)}, new records go to a new segment.
+     * @param directory The directory of the journal
+     * @param syncIntervalMillis How often the collected records are written and synced in milliseconds, or 0 to do this after every run of the {@link ClockRunnable}
+     * @return The journal
+     * @throws IOException If the directory could not be created or the first segment could not be opened
+     */
+    public static ClockJournal open(Path directory, long syncIntervalMillis) throws IOException {
+        return open(directory, syncIntervalMillis, SEGMENT_BYTES);
+    }
+    
+    /**
+     * Opens a journal that starts a new segment once a segment reaches the provided size, instead of 16 MB. See {@link ClockJournal#open(Path, long)}
+     * @param directory The directory of the journal
+     * @param syncIntervalMillis How often the collected records are written and synced in milliseconds, or 0 to do this after every run of the {@link ClockRunnable}
+     * @param segmentBytes The size in bytes at which a new segment is started
+     * @return The journal
+     * @throws IOException If the directory could not be created or the first segment could not be opened
+     */
+    static ClockJournal open(Path directory, long syncIntervalMillis, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        return new ClockJournal(directory, Math.max(0, syncIntervalMillis), Math.max(HEADER_BYTES + RECORD_BYTES, segmentBytes));
+    }
+    
+    /**
+     * Appends a record for a change of a clock. This is called by the clock mutators, the record is written by the background thread
+     * @param clock The clock that changed
+     * @param operation The change
+     * @param value The value of the change, see {@link Operation}
+     * @param extra The extra value of the change, see {@link Operation}
+     * @param flags The flags of the change, see {@link Operation}
+     */
+    void append(Clock<?> clock, Operation operation, long value, long extra, int flags) {
+        if (!ClockCheckpoint.isSupported(clock)) {
+            return;
+        }
+        
+        long header = operation.ordinal() + 1 | (long) flags << 8;
+        long clockId = clock.id;
+        long time = clock.time;
+        long elapsed = clock.elapsed;
+        long checksum = checksum(header, clockId, time, elapsed, value, extra);
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            
+            if (this.pending.remaining() < RECORD_BYTES) {
+                ByteBuffer grown = ByteBuffer.allocate(this.pending.capacity() * 2);
+                this.pending.flip();
+                grown.put(this.pending);
+                this.pending = grown;
+            }
+            this.pending.putLong(header).putLong(clockId).putLong(time).putLong(elapsed).putLong(value).putLong(extra).putLong(checksum);
+            this.appended++;
+            if (this.pending.position() >= this.segmentLimit / 16) {
+                this.commitRequested = true;
+                notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Appends the records for a clock that was added to the manager, which are its creation, callbacks and end condition
+     * @param clock The clock that was added
+     */
+    void appendCreate(Clock<?> clock) {
+        if (clock instanceof Timer timer) {
+            append(clock, Operation.CREATE_TIMER, timer.getLength(), clock.getCountAmount(), clock.isPaused() ? 1 : 0);
+        } else if (clock instanceof Stopwatch stopwatch) {
+            append(clock, Operation.CREATE_STOPWATCH, stopwatch.getEndTime(), clock.getCountAmount(), clock.isPaused() ? 1 : 0);
+        }
+        
+        for (CallbackHolder<?> holder : clock.callbacks) {
+            appendCallback(clock, holder);
+        }
+        
+        if (clock.endCondition != null) {
+            appendEndCondition(clock);
+        }
+    }
+    
+    void appendCallback(Clock<?> clock, CallbackHolder<?> holder) {
+        MissedCallbackPolicy policy = holder.getMissedCallbackPolicy();
+        append(clock, Operation.ADD_CALLBACK, holder.getCallbackId(), holder.getInterval(), policy == null ? 0 : policy.ordinal() + 1);
+    }
+    
+    void appendEndCondition(Clock<?> clock) {
+        ClockEndCondition<?> endCondition = clock.endCondition;
+        int kind;
+        if (endCondition == null) {
+            kind = 0;
+        } else if (endCondition.getClass() == TimerEndCondition.class || endCondition.getClass() == StopwatchEndCondition.class) {
+            kind = 1;
+        } else {
+            kind = 2;
+        }
+        append(clock, Operation.END_CONDITION, kind, 0, 0);
+    }
+    
+    /**
+     * Called by the {@link ClockRunnable} after every run
+     */
+    void tickFinished() {
+        if (this.syncInterval == 0) {
+            synchronized (this) {
+                if (this.pending.position() > 0) {
+                    this.commitRequested = true;
+                    notifyAll();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Waits until every record that was appended before this call is written and synced
+     * @throws IOException If writing the journal failed
+     */
+    public void sync() throws IOException {
+        synchronized (this) {
+            long target = this.appended;
+            this.commitRequested = true;
+            notifyAll();
+            while (this.durable < target && this.failure == null && this.writer.isAlive()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal", e);
+                }
+            }
+            
+            if (this.failure != null) {
+                throw this.failure;
+            }
+        }
+    }
+    
+    /**
+     * Writes a checkpoint and removes the segments that it covers. Records appended while the checkpoint is written are kept, as they might not be in it
+     * @param checkpoint The checkpoint to write
+     * @param manager The manager to save
+     * @return The amount of records of the checkpoint that changed, see {@link ClockCheckpoint#checkpoint(ClockManager)}
+     * @throws IOException If the checkpoint or the journal could not be written
+     */
+    public int checkpoint(ClockCheckpoint checkpoint, ClockManager manager) throws IOException {
+        long boundary;
+        synchronized (this) {
+            this.rollRequested = true;
+            notifyAll();
+            while (this.rollRequested && this.failure == null && this.writer.isAlive()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal", e);
+                }
+            }
+            
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            boundary = this.segment;
+        }
+        
+        int changed = checkpoint.checkpoint(manager);
+        synchronized (this.segments) {
+            for (long index : listSegments()) {
+                if (index < boundary) {
+                    Files.deleteIfExists(segmentPath(index));
+                }
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Applies the records of every segment to the clocks of the manager, which should already have the clocks of the last checkpoint. <br>
+     * This has to be called before the journal is set on the manager, so the changes are not journaled again. Records that were only partially written when the process stopped are ignored.
+     * @param manager The manager
+     * @param resolver Provides the callbacks and custom end conditions for clocks and callbacks that were added after the checkpoint
+     * @return The amount of records that were applied
+     * @throws IOException If a segment could not be read or has another {@link ClockJournal#VERSION}
+     */
+    public int replay(ClockManager manager, ClockCheckpoint.Resolver resolver) throws IOException {
+        if (manager.getJournal() == this) {
+            throw new IllegalStateException("The journal can not be replayed while it is set on the manager");
+        }
+        
+        Map<Long, Clock<? extends ClockSnapshot>> clocks = new HashMap<>();
+        for (Clock<? extends ClockSnapshot> clock : manager.getClocks()) {
+            clocks.put(clock.getClockId(), clock);
+        }
+        
+        int applied = 0;
+        long[] record = new long[7];
+        synchronized (this.segments) {
+            for (long index : listSegments()) {
+                if (index >= currentSegment()) {
+                    continue;
+                }
+                
+                ByteBuffer buffer = readSegment(segmentPath(index));
+                while (readRecord(buffer, record)) {
+                    apply(manager, clocks, record, resolver);
+                    applied++;
+                }
+            }
+        }
+        return applied;
+    }
+    
+    /**
+     * Stops the background thread after it wrote and synced every appended record
+     * @throws IOException If writing the journal failed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            this.closed = true;
+            notifyAll();
+        }
+        
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        synchronized (this) {
+            this.channel.close();
+            if (this.failure != null) {
+                throw this.failure;
+            }
+        }
+    }
+    
+    private void run() {
+        while (true) {
+            long target;
+            boolean roll;
+            synchronized (this) {
+                if (!this.closed && !this.commitRequested && !this.rollRequested) {
+                    try {
+                        wait(this.syncInterval);
+                    } catch (InterruptedException e) {
+                        this.closed = true;
+                    }
+                }
+                
+                ByteBuffer full = this.pending;
+                this.pending = this.writing;
+                this.writing = full;
+                target = this.appended;
+                roll = this.rollRequested;
+                this.commitRequested = false;
+            }
+            
+            try {
+                this.writing.flip();
+                if (this.writing.hasRemaining()) {
+                    this.segmentBytes += this.writing.remaining();
+                    while (this.writing.hasRemaining()) {
+                        this.channel.write(this.writing);
+                    }
+                    this.channel.force(false);
+                }
+                
+                if (roll || this.segmentBytes >= this.segmentLimit) {
+                    this.channel.close();
+                    synchronized (this) {
+                        this.segment++;
+                    }
+                    openSegment();
+                    compactInBackground();
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    this.failure = e;
+                    this.closed = true;
+                }
+            } finally {
+                this.writing.clear();
+            }
+            
+            synchronized (this) {
+                this.durable = target;
+                if (roll) {
+                    this.rollRequested = false;
+                }
+                notifyAll();
+                if (this.closed && this.pending.position() == 0) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private synchronized long currentSegment() {
+        return this.segment;
+    }
+    
+    private void openSegment() throws IOException {
+        this.channel = FileChannel.open(segmentPath(currentSegment()), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putLong(MAGIC).putLong(currentSegment()).flip();
+        while (header.hasRemaining()) {
+            this.channel.write(header);
+        }
+        this.segmentBytes = HEADER_BYTES;
+    }
+    
+    /**
+     * Starts compacting the segments before the current one on another thread if there are enough of them and no compaction is running yet. <br>
+     * The compaction keeps going while segments are sealed faster than it compacts them
+     */
+    private void compactInBackground() throws IOException {
+        synchronized (this) {
+            if (this.compacting || listSegments().length <= COMPACT_SEGMENTS) {
+                return;
+            }
+            this.compacting = true;
+        }
+        
+        Thread thread = new Thread(() -> {
+            try {
+                do {
+                    compact();
+                } while (listSegments().length > COMPACT_SEGMENTS);
+            } catch (IOException e) {
+                synchronized (this) {
+                    if (this.failure == null) {
+                        this.failure = e;
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    this.compacting = false;
+                }
+            }
+        }, "StarClock-Journal-Compaction");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Folds the segments before the current one into the last of them. Only the latest record of each kind is kept for each clock, and clocks that were created and removed again are dropped. <br>
+     * As records hold the state after a change, replaying the kept records in the order of their latest occurrence gives the same result as replaying all of them.
+     */
+    private void compact() throws IOException {
+        synchronized (this.segments) {
+            long current = currentSegment();
+            List<Long> sealed = new ArrayList<>();
+            for (long index : listSegments()) {
+                if (index < current) {
+                    sealed.add(index);
+                }
+            }
+            
+            if (sealed.size() < 2) {
+                return;
+            }
+            
+            LinkedHashMap<Key, long[]> latest = new LinkedHashMap<>();
+            Map<Long, List<Key>> keys = new HashMap<>();
+            Set<Long> created = new HashSet<>();
+            long[] record = new long[7];
+            for (long index : sealed) {
+                ByteBuffer buffer = readSegment(segmentPath(index));
+                while (readRecord(buffer, record)) {
+                    Operation operation = Operation.of(record[0]);
+                    long clockId = record[1];
+                    if (operation == Operation.CREATE_TIMER || operation == Operation.CREATE_STOPWATCH) {
+                        created.add(clockId);
+                    }
+                    
+                    if (operation == Operation.REMOVE) {
+                        List<Key> removed = keys.remove(clockId);
+                        if (removed != null) {
+                            for (Key key : removed) {
+                                latest.remove(key);
+                            }
+                        }
+                        
+                        if (created.remove(clockId)) {
+                            continue;
+                        }
+                    }
+                    
+                    Key key = new Key(clockId, operation.group, operation.group == Operation.ADD_CALLBACK.group ? record[4] : 0);
+                    if (latest.remove(key) == null) {
+                        keys.computeIfAbsent(clockId, id -> new ArrayList<>()).add(key);
+                    }
+                    latest.put(key, record.clone());
+                }
+            }
+            
+            long last = sealed.get(sealed.size() - 1);
+            Path compacted = this.directory.resolve(PREFIX + last + ".compact");
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + latest.size() * RECORD_BYTES);
+                buffer.putLong(MAGIC).putLong(last);
+                for (long[] kept : latest.values()) {
+                    for (long word : kept) {
+                        buffer.putLong(word);
+                    }
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+            }
+            
+            Files.move(compacted, segmentPath(last), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (long index : sealed) {
+                if (index != last) {
+                    Files.deleteIfExists(segmentPath(index));
+                }
+            }
+        }
+    }
+    
+    private void apply(ClockManager manager, Map<Long, Clock<? extends ClockSnapshot>> clocks, long[] record, ClockCheckpoint.Resolver resolver) {
+        Operation operation = Operation.of(record[0]);
+        int flags = (int) (record[0] >>> 8) & 0xFF;
+        long clockId = record[1];
+        long time = record[2];
+        long elapsed = record[3];
+        long value = record[4];
+        long extra = record[5];
+        Clock<? extends ClockSnapshot> clock = clocks.get(clockId);
+        if (operation == Operation.CREATE_TIMER || operation == Operation.CREATE_STOPWATCH) {
+            if (clock == null) {
+                clock = operation == Operation.CREATE_TIMER ? new Timer(value, extra) : new Stopwatch(value, extra);
+                clock.id = clockId;
+                clock.time = time;
+                clock.elapsed = elapsed;
+                if (flags == 0) {
+                    clock.unpause();
+                }
+                manager.addClock(clock);
+                clocks.put(clockId, clock);
+            }
+            return;
+        }
+        
+        if (clock == null) {
+            return;
+        }
+        
+        if (operation != Operation.REMOVE && clock.elapsed != elapsed) {
+            clock.restoreElapsed(elapsed);
+        }
+        
+        switch (operation) {
+            case REMOVE -> {
+                manager.removeClock(clock);
+                clocks.remove(clockId);
+            }
+            case TIME -> clock.setTime(time);
+            case PAUSE -> {
+                clock.setTime(time);
+                clock.pause();
+            }
+            case UNPAUSE -> {
+                clock.setTime(time);
+                clock.unpause();
+            }
+            case CANCEL -> clock.cancel();
+            case UNCANCEL -> clock.uncancel();
+            case LENGTH -> {
+                if (clock instanceof Timer timer) {
+                    timer.setLengthAndReset(value);
+                    timer.setTime(time);
+                }
+            }
+            case END_TIME -> {
+                if (clock instanceof Stopwatch stopwatch) {
+                    stopwatch.setEndTime(value);
+                }
+            }
+            case END_CONDITION -> {
+                ClockEndCondition<?> endCondition = null;
+                if (value == 1) {
+                    endCondition = clock instanceof Timer ? new TimerEndCondition() : new StopwatchEndCondition();
+                } else if (value == 2) {
+                    endCondition = resolver.resolveEndCondition(clock);
+                }
+                clock.setEndCondition(ClockCheckpoint.cast(endCondition));
+            }
+            case ADD_CALLBACK -> {
+                if (clock.getCallback(value) == null) {
+                    ClockCallback<? extends ClockSnapshot> callback = resolver.resolveCallback(clock, value);
+                    if (callback != null) {
+                        clock.restoreCallback(value, ClockCheckpoint.cast(callback), extra, flags == 0 ? null : MissedCallbackPolicy.values()[flags - 1], 0, true, TriggerSchedule.NONE);
+                    } else {
+                        clock.reserveCallbackIds(value);
+                    }
+                }
+            }
+            case REMOVE_CALLBACK -> clock.removeCallback(value);
+            default -> {
+            }
+        }
+    }
+    
+    private static ByteBuffer readSegment(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < HEADER_BYTES) {
+            return buffer.position(buffer.limit());
+        }
+        
+        long magic = buffer.getLong();
+        if ((magic & ~0xFFFFL) != (MAGIC & ~0xFFFFL)) {
+            throw new IOException(path + " is not a clock journal segment");
+        }
+        
+        if ((magic & 0xFFFF) != VERSION) {
+            throw new IOException("Unsupported clock journal version " + (magic & 0xFFFF) + " in " + path + ", expected " + VERSION);
+        }
+        buffer.getLong();
+        return buffer;
+    }
+    
+    /**
+     * Reads the next record
+     * @return false if there are no more complete records
+     */
+    private static boolean readRecord(ByteBuffer buffer, long[] record) {
+        if (buffer.remaining() < RECORD_BYTES) {
+            return false;
+        }
+        
+        for (int i = 0; i < record.length; i++) {
+            record[i] = buffer.getLong();
+        }
+        return Operation.of(record[0]) != null && record[6] == checksum(record[0], record[1], record[2], record[3], record[4], record[5]);
+    }
+    
+    private static long checksum(long header, long clockId, long time, long elapsed, long value, long extra) {
+        long hash = 0x5343_4A52_4E4C_7631L;
+        hash = (hash ^ header) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ clockId) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ time) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ elapsed) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ extra) * 0x9E3779B97F4A7C15L;
+        return hash ^ hash >>> 31;
+    }
+    
+    private Path segmentPath(long index) {
+        return this.directory.resolve(PREFIX + index + SUFFIX);
+    }
+    
+    private long[] listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toArray();
+        }
+    }
+    
+    private record Key(long clockId, int group, long callbackId) {
+    }
+    
+    /**
+     * The kinds of records in the journal. Every record has the ID of the clock and its time and running time after the change
+     */
+    public enum Operation {
+        /**
+         * A timer was added to the manager. The value is the length, the extra value is the count amount and the flags are 1 if it was paused
+         */
+        CREATE_TIMER(0),
+        /**
+         * A stopwatch was added to the manager. The value is the end time, the extra value is the count amount and the flags are 1 if it was paused
+         */
+        CREATE_STOPWATCH(0),
+        /**
+         * The clock was removed from the manager
+         */
+        REMOVE(1),
+        /**
+         * The time was added to, removed from or set
+         */
+        TIME(2),
+        /**
+         * The clock was paused
+         */
+        PAUSE(3),
+        /**
+         * The clock was unpaused
+         */
+        UNPAUSE(3),
+        /**
+         * The clock was cancelled
+         */
+        CANCEL(4),
+        /**
+         * The clock was uncancelled
+         */
+        UNCANCEL(4),
+        /**
+         * The length of a timer changed or it was reset. The value is the length
+         */
+        LENGTH(5),
+        /**
+         * The end time of a stopwatch changed. The value is the end time
+         */
+        END_TIME(6),
+        /**
+         * The end condition changed. The value is 0 for none, 1 for the default end condition of the clock and 2 for a custom one
+         */
+        END_CONDITION(7),
+        /**
+         * A callback was added. The value is its ID, the extra value is its interval and the flags are its missed callback policy
+         */
+        ADD_CALLBACK(8),
+        /**
+         * A callback was removed. The value is its ID
+         */
+        REMOVE_CALLBACK(8);
+        
+        private static final Operation[] VALUES = values();
+        
+        /**
+         * Records in the same group replace each other when the journal is compacted
+         */
+        private final int group;
+        
+        Operation(int group) {
+            this.group = group;
+        }
+        
+        private static Operation of(long header) {
+            int index = (int) (header & 0xFF) - 1;
+            return index >= 0 && index < VALUES.length ? VALUES[index] : null;
+        }
+    }
+}
\ No newline at end of file
@@ -1,10 +1,20 @@
 package com.starmediadev.starclock;
 
+import com.starmediadev.starclock.callback.MissedCallbackPolicy;
 import com.starmediadev.starclock.impl.*;
 import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.metrics.ClockFootprint;
+import com.starmediadev.starclock.metrics.ClockMetrics;
 import com.starmediadev.starclock.snapshot.ClockSnapshot;
+import com.starmediadev.starclock.table.ClockTable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -13,24 +23,81 @@ import java.util.logging.Logger;
  * There is no default registration to allow flexibility for different circumstances and use cases. <br>
  * One thing to note: {@code countAmount} is in milliseconds. This should match the amount used for scheduling purposes. <br>
  * Clocks cache the {@code countAmount} when created, so changing it, will not change it for exisiting clocks. <br>
+ * The way clocks are processed each run can be chosen with the {@link EngineType}, which defaults to {@link EngineType#LINEAR} <br>
+ * Alternatively, {@link ClockManager#startDriver()} starts a thread that runs it, which works best with the {@link EngineType#EVENT_DRIVEN} engine <br>
+ * Many managers can also share the thread of a {@link ClockScheduler} instead of each having their own <br>
  * It is recommended to use the StarLib {@code Scheduler} API as that is what it was kind of designed for, however it is not a requirement, which is the reason that it is provided as a {@link Runnable}. <br>
- * Operations are Thread-Safe as it uses internal syncronization where appropriate and copies where it is easier
+ * Operations are Thread-Safe as it uses internal syncronization where appropriate and copies where it is easier <br>
+ * Changes to clocks are made by one thread at a time. The thread running the {@link ClockRunnable} owns the clocks for the whole run, and a change from another thread is made right away when no run is in progress, or otherwise queued and made at the start of the next run. Values and snapshots of a clock can be read from any thread without blocking a run, see {@link Clock#readSnapshot()}
  */
 public class ClockManager {
-    protected final List<Clock<? extends ClockSnapshot>> clocks = Collections.synchronizedList(new ArrayList<>());
+    final ClockRegistry registry = new ClockRegistry();
+    protected final AtomicLong lastClockId = new AtomicLong();
+    final TagIndex tags = new TagIndex();
+    final ExpiryIndex expiry;
+    final Queue<Runnable> boundaryTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Thread> owner = new AtomicReference<>();
+    protected volatile ClockTable[] tables = new ClockTable[0];
+    volatile SnapshotPublisher<?>[] publishers = new SnapshotPublisher<?>[0];
     protected long countAmount;
     protected ClockRunnable runnable;
     protected Logger logger;
+    protected final EngineType engineType;
+    protected final ClockEngine engine;
+    protected Thread driver;
+    protected volatile boolean driftCorrection;
+    protected volatile long tickBudget;
+    protected final ClockSource clockSource;
+    /**
+     * The simulated nanoseconds this manager was advanced by, see {@link ClockManager#advance(long)}
+     */
+    private long virtualNanos;
+    protected volatile MissedCallbackPolicy missedCallbackPolicy = MissedCallbackPolicy.COALESCE;
+    protected volatile CallbackDispatcher callbackDispatcher;
+    protected volatile ClockJournal journal;
+    protected volatile ClockPool clockPool;
+    protected volatile ClockExport export;
+    protected final ClockMetrics metrics;
     
     /**
-     * Constructs a new ClockManager instance.
+     * Constructs a new ClockManager instance using the {@link EngineType#LINEAR} engine.
      * @param logger The logger to be used (Currently has no actual use, yet)
      * @param countAmount The amount of milliseconds to count by for the clocks that are registered to this Manager
      */
     public ClockManager(Logger logger, long countAmount) {
+        this(logger, countAmount, EngineType.LINEAR);
+    }
+    
+    /**
+     * Constructs a new ClockManager instance.
+     * @param logger The logger to be used (Currently has no actual use, yet)
+     * @param countAmount The amount of milliseconds to count by for the clocks that are registered to this Manager
+     * @param engineType The engine that decides which clocks are processed on each run
+     */
+    public ClockManager(Logger logger, long countAmount, EngineType engineType) {
+        this(logger, countAmount, engineType, ClockSource.SYSTEM);
+    }
+    
+    /**
+     * Constructs a new ClockManager instance with a source of time. A {@link VirtualClockSource} simulates the time, which is then advanced with {@link ClockManager#advance(long)} instead of running the {@link ClockRunnable}
+     * @param logger The logger to be used (Currently has no actual use, yet)
+     * @param countAmount The amount of milliseconds to count by for the clocks that are registered to this Manager
+     * @param engineType The engine that decides which clocks are processed on each run
+     * @param clockSource The source of time
+     */
+    public ClockManager(Logger logger, long countAmount, EngineType engineType, ClockSource clockSource) {
+        this.clockSource = Objects.requireNonNull(clockSource);
         this.runnable = new ClockRunnable(this);
         this.countAmount = countAmount;
         this.logger = logger;
+        this.engineType = engineType;
+        this.metrics = new ClockMetrics(this);
+        this.engine = switch (engineType) {
+            case LINEAR -> new LinearEngine(this);
+            case TIMING_WHEEL -> new TimingWheelEngine(this);
+            case EVENT_DRIVEN -> new EventDrivenEngine(this);
+        };
+        this.expiry = new ExpiryIndex(this.engine);
     }
     
     /**
@@ -41,19 +108,250 @@ public class ClockManager {
     }
     
     /**
-     * Adds a clock to this manager.
+     * Adds a clock to this manager. A clock can only be registered to one manager at a time, adding a clock that is already registered does nothing <br>
+     * Clocks that do not have an ID yet are given one, see {@link Clock#getClockId()}
      * @param clock The clock to add
      */
     public void addClock(Clock<? extends ClockSnapshot> clock) {
-        this.clocks.add(clock);
+        synchronized (this.registry) {
+            if (!this.registry.add(clock)) {
+                return;
+            }
+            assignId(clock);
+        }
+        this.engine.register(clock);
+        this.expiry.update(clock);
+        ClockJournal journal = this.journal;
+        if (journal != null) {
+            journal.appendCreate(clock);
+        }
     }
     
     /**
-     * Removes a clock from this manager
+     * Adds multiple clocks to this manager at once. See {@link ClockManager#addClock(Clock)}
+     * @param clocks The clocks to add
+     */
+    public void addClocks(Collection<? extends Clock<? extends ClockSnapshot>> clocks) {
+        List<Clock<? extends ClockSnapshot>> added = new ArrayList<>(clocks.size());
+        synchronized (this.registry) {
+            for (Clock<? extends ClockSnapshot> clock : clocks) {
+                if (this.registry.add(clock)) {
+                    assignId(clock);
+                    added.add(clock);
+                }
+            }
+        }
+        
+        ClockJournal journal = this.journal;
+        for (Clock<? extends ClockSnapshot> clock : added) {
+            this.engine.register(clock);
+            this.expiry.update(clock);
+            if (journal != null) {
+                journal.appendCreate(clock);
+            }
+        }
+    }
+    
+    private void assignId(Clock<?> clock) {
+        if (clock.id == 0) {
+            clock.id = this.lastClockId.incrementAndGet();
+        } else {
+            this.lastClockId.accumulateAndGet(clock.id, Math::max);
+        }
+    }
+    
+    /**
+     * Removes a clock from this manager. This takes constant time, as each clock knows its slot in the manager <br>
+     * From a thread that does not own the clocks, the clock is removed in order with the other changes of clocks, see {@link ClockManager#mutate(Runnable)}
      * @param clock The clock to remove, this must be an exact instance
      */
     public void removeClock(Clock<? extends ClockSnapshot> clock) {
-        this.clocks.remove(clock);
+        if (!ownsClocks()) {
+            mutate(() -> detach(clock));
+            return;
+        }
+        
+        detach(clock);
+    }
+    
+    /**
+     * Removes a clock that was cancelled, which is called by the engine during a run. Pooled clocks are returned to the {@link ClockPool} of this manager, see {@link ClockManager#createPooledTimer(long)}
+     * @param clock The clock
+     */
+    void expire(Clock<? extends ClockSnapshot> clock) {
+        if (detach(clock) && clock.pooled) {
+            ClockPool pool = this.clockPool;
+            if (pool != null) {
+                pool.release(clock);
+            } else {
+                clock.generation++;
+            }
+        }
+    }
+    
+    /**
+     * Removes a clock on the thread that owns the clocks, see {@link ClockManager#ownsClocks()}
+     * @param clock The clock
+     * @return false if the clock was not registered to this manager
+     */
+    private boolean detach(Clock<? extends ClockSnapshot> clock) {
+        synchronized (this.registry) {
+            if (!this.registry.remove(clock)) {
+                return false;
+            }
+            this.tags.remove(clock);
+        }
+        this.engine.unregister(clock);
+        this.expiry.remove(clock);
+        ClockJournal journal = this.journal;
+        if (journal != null) {
+            journal.append(clock, ClockJournal.Operation.REMOVE, 0, 0, 0);
+        }
+        return true;
+    }
+    
+    /**
+     * Adds a tag to a clock registered to this Manager, which makes it part of the {@link ClockGroup} of that tag. A clock can have any amount of tags, and loses them when it is removed from this Manager
+     * @param clock The clock
+     * @param tag The tag
+     * @return false if the clock already had the tag or is not registered to this Manager
+     */
+    public boolean tag(Clock<? extends ClockSnapshot> clock, String tag) {
+        Objects.requireNonNull(tag, "tag");
+        synchronized (this.registry) {
+            return this.registry.contains(clock) && this.tags.tag(clock, tag);
+        }
+    }
+    
+    /**
+     * Removes a tag from a clock
+     * @param clock The clock
+     * @param tag The tag
+     * @return false if the clock did not have the tag
+     */
+    public boolean untag(Clock<? extends ClockSnapshot> clock, String tag) {
+        synchronized (this.registry) {
+            return this.tags.untag(clock, tag);
+        }
+    }
+    
+    /**
+     * @param clock The clock
+     * @return The tags of the clock
+     */
+    public List<String> getTags(Clock<? extends ClockSnapshot> clock) {
+        return this.tags.tags(clock);
+    }
+    
+    /**
+     * @return Every tag that at least one clock of this Manager has
+     */
+    public Set<String> getTags() {
+        return this.tags.tags();
+    }
+    
+    /**
+     * @param tag The tag
+     * @return The group of clocks with the tag. This is a view, so it is also valid before any clock has the tag
+     */
+    public ClockGroup getGroup(String tag) {
+        return new ClockGroup(this, Objects.requireNonNull(tag, "tag"));
+    }
+    
+    /**
+     * Finds the running clocks that are projected to end within a window, like timers that reach 0. The clocks are kept ordered by when they end, so this takes logarithmic time plus the amount of clocks found. <br>
+     * The projection is based on the count amount of this Manager and the current time of the clocks, see {@link Clock#millisUntilEnd()}. Clocks that are paused, cancelled or do not end are not included
+     * @param millis The window in milliseconds
+     * @return The clocks that end within the window, ordered by when they end
+     */
+    public List<Clock<? extends ClockSnapshot>> getEndingWithin(long millis) {
+        return this.expiry.endingWithin(millis);
+    }
+    
+    /**
+     * Finds the running clocks that are projected to end next. See {@link ClockManager#getEndingWithin(long)}
+     * @param count The maximum amount of clocks
+     * @return The clocks that end next, ordered by when they end
+     */
+    public List<Clock<? extends ClockSnapshot>> getNextToEnd(int count) {
+        return this.expiry.nextToEnd(count);
+    }
+    
+    /**
+     * @param clock A clock registered to this Manager
+     * @return The milliseconds until the clock is projected to end, or -1 if it is not running or does not end. See {@link ClockManager#getEndingWithin(long)}
+     */
+    public long getMillisUntilEnd(Clock<? extends ClockSnapshot> clock) {
+        return this.expiry.millisUntilEnd(clock);
+    }
+    
+    /**
+     * Runs a task at the start of the next run of the {@link ClockRunnable}, before any clock is counted
+     * @param task The task
+     */
+    void runAtTickBoundary(Runnable task) {
+        this.boundaryTasks.add(task);
+        this.engine.wake();
+    }
+    
+    /**
+     * Takes ownership of the clocks for a run of the {@link ClockRunnable}. A change that another thread is making at the moment is waited for, which only takes as long as that single change
+     */
+    void enterTick() {
+        Thread thread = Thread.currentThread();
+        while (!this.owner.compareAndSet(null, thread)) {
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Gives up ownership of the clocks after a run of the {@link ClockRunnable}
+     */
+    void exitTick() {
+        this.owner.set(null);
+    }
+    
+    /**
+     * @return If the current thread owns the clocks of this manager and can change them directly
+     */
+    boolean ownsClocks() {
+        return this.owner.get() == Thread.currentThread();
+    }
+    
+    /**
+     * Makes a change to a clock from a thread that does not own the clocks. <br>
+     * The change is made right away if no other thread owns the clocks and no earlier change is queued, so changes are made in the order they were requested. Otherwise it is queued with {@link ClockManager#runAtTickBoundary(Runnable)} and made at the start of the next run, so the thread running the clocks never waits for a lock.
+     * @param change The change, which is made while owning the clocks
+     */
+    void mutate(Runnable change) {
+        if (this.boundaryTasks.isEmpty() && this.owner.compareAndSet(null, Thread.currentThread())) {
+            try {
+                if (this.boundaryTasks.isEmpty()) {
+                    change.run();
+                    return;
+                }
+            } finally {
+                this.owner.set(null);
+            }
+        }
+        
+        runAtTickBoundary(change);
+    }
+    
+    /**
+     * Runs the tasks queued with {@link ClockManager#runAtTickBoundary(Runnable)}. Exceptions are reported to the logger and do not stop the other tasks
+     */
+    void runBoundaryTasks() {
+        Runnable task;
+        while ((task = this.boundaryTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                if (this.logger != null) {
+                    this.logger.log(Level.SEVERE, "A task at the start of a run failed", e);
+                }
+            }
+        }
     }
     
     /**
@@ -78,6 +376,171 @@ public class ClockManager {
         return stopwatch;
     }
     
+    /**
+     * Factory method to create a {@link Timer} that is reused once it ends, and register the timer with this Manager. <br>
+     * The timer is taken from the {@link ClockPool} of this Manager when it has one, and is returned to it once it is cancelled and removed by the {@link ClockRunnable}. It is only accessed through the handle, as the timer itself can be reused after that, see {@link ClockHandle}
+     * @param length The length of time to run the timer in milliseconds.
+     * @return The handle of the timer
+     */
+    public ClockHandle<Timer> createPooledTimer(long length) {
+        ClockPool pool = this.clockPool;
+        Timer timer = pool != null ? pool.takeTimer(countAmount) : null;
+        if (timer == null) {
+            timer = new Timer(length, countAmount);
+        } else {
+            timer.setLengthAndReset(length);
+        }
+        
+        return addPooled(timer);
+    }
+    
+    /**
+     * Factory method to create a {@link Stopwatch} that is reused once it ends, and register the stopwatch with this Manager. See {@link ClockManager#createPooledTimer(long)}
+     * @param endTime The end time of the stopwatch in milliseconds.
+     * @return The handle of the stopwatch
+     */
+    public ClockHandle<Stopwatch> createPooledStopwatch(long endTime) {
+        ClockPool pool = this.clockPool;
+        Stopwatch stopwatch = pool != null ? pool.takeStopwatch(countAmount) : null;
+        if (stopwatch == null) {
+            stopwatch = new Stopwatch(endTime, countAmount);
+        } else {
+            stopwatch.setEndTime(endTime);
+        }
+        
+        return addPooled(stopwatch);
+    }
+    
+    private <C extends Clock<? extends ClockSnapshot>> ClockHandle<C> addPooled(C clock) {
+        clock.pooled = true;
+        addClock(clock);
+        return new ClockHandle<>(this, clock);
+    }
+    
+    /**
+     * @return The pool that pooled clocks are taken from and returned to, or null if there is none
+     */
+    public ClockPool getClockPool() {
+        return clockPool;
+    }
+    
+    /**
+     * Sets the pool that clocks created with {@link ClockManager#createPooledTimer(long)} and {@link ClockManager#createPooledStopwatch(long)} are taken from and returned to
+     * @param clockPool The pool, or null to stop reusing clocks
+     */
+    public void setClockPool(ClockPool clockPool) {
+        this.clockPool = clockPool;
+    }
+    
+    /**
+     * Factory method to create a {@link ClockTable} and register the table with this Manager, so it is counted by the {@link ClockRunnable} <br>
+     * Tables count in fixed steps, so they are not counted when this Manager uses the {@link EngineType#EVENT_DRIVEN} engine <br>
+     * Clocks created in the table use the current count amount of this Manager.
+     * @param capacity The initial amount of clocks the table can hold
+     * @param offHeap true to store the columns of the table outside of the Java heap
+     * @return The table instance
+     */
+    public ClockTable createTable(int capacity, boolean offHeap) {
+        ClockTable table = new ClockTable(capacity, countAmount, offHeap);
+        synchronized (this.registry) {
+            ClockTable[] tables = Arrays.copyOf(this.tables, this.tables.length + 1);
+            tables[tables.length - 1] = table;
+            this.tables = tables;
+        }
+        return table;
+    }
+    
+    /**
+     * Removes a table from this manager, the clocks in it will no longer be counted
+     * @param table The table to remove
+     */
+    public void removeTable(ClockTable table) {
+        synchronized (this.registry) {
+            List<ClockTable> tables = new ArrayList<>(List.of(this.tables));
+            tables.remove(table);
+            this.tables = tables.toArray(new ClockTable[0]);
+        }
+    }
+    
+    /**
+     * @return All tables registered to this Manager
+     */
+    public List<ClockTable> getTables() {
+        return List.of(tables);
+    }
+    
+    /**
+     * Creates a publisher of the snapshots of every clock of this Manager, which delivers them on the {@link ForkJoinPool#commonPool()}. See {@link SnapshotPublisher}
+     * @return The publisher
+     */
+    public SnapshotPublisher<ClockSnapshot> createPublisher() {
+        return createPublisher(ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Creates a publisher of the snapshots of every clock of this Manager. See {@link SnapshotPublisher}
+     * @param executor The executor the snapshots are read and delivered on
+     * @return The publisher
+     */
+    public SnapshotPublisher<ClockSnapshot> createPublisher(Executor executor) {
+        return addPublisher(new SnapshotPublisher<>(this, null, executor));
+    }
+    
+    /**
+     * Creates a publisher of the snapshots of a clock of this Manager, which delivers them on the {@link ForkJoinPool#commonPool()}. See {@link SnapshotPublisher}
+     * @param clock The clock
+     * @param <T> The type of the snapshots
+     * @return The publisher
+     */
+    public <T extends ClockSnapshot> SnapshotPublisher<T> createPublisher(Clock<T> clock) {
+        return createPublisher(clock, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Creates a publisher of the snapshots of a clock of this Manager. The publisher completes once the clock is removed from this Manager. See {@link SnapshotPublisher}
+     * @param clock The clock
+     * @param executor The executor the snapshots are read and delivered on
+     * @param <T> The type of the snapshots
+     * @return The publisher
+     * @throws IllegalArgumentException If the clock is not registered to this Manager
+     */
+    public <T extends ClockSnapshot> SnapshotPublisher<T> createPublisher(Clock<T> clock, Executor executor) {
+        ClockEngine engine = clock.engine;
+        if (engine == null || engine.manager != this) {
+            throw new IllegalArgumentException("The clock is not registered to this manager");
+        }
+        
+        return addPublisher(new SnapshotPublisher<>(this, clock, executor));
+    }
+    
+    private <T extends ClockSnapshot> SnapshotPublisher<T> addPublisher(SnapshotPublisher<T> publisher) {
+        synchronized (this.registry) {
+            SnapshotPublisher<?>[] publishers = Arrays.copyOf(this.publishers, this.publishers.length + 1);
+            publishers[publishers.length - 1] = publisher;
+            this.publishers = publishers;
+        }
+        return publisher;
+    }
+    
+    /**
+     * Removes a publisher from this manager, called when it is closed. See {@link SnapshotPublisher#close()}
+     * @param publisher The publisher
+     */
+    void removePublisher(SnapshotPublisher<?> publisher) {
+        synchronized (this.registry) {
+            List<SnapshotPublisher<?>> publishers = new ArrayList<>(List.of(this.publishers));
+            publishers.remove(publisher);
+            this.publishers = publishers.toArray(new SnapshotPublisher<?>[0]);
+        }
+    }
+    
+    /**
+     * @return The publishers of this Manager that were not closed
+     */
+    public List<SnapshotPublisher<?>> getPublishers() {
+        return List.of(publishers);
+    }
+    
     /**
      * @return The runnable instance for this ClockManager
      */
@@ -86,10 +549,337 @@ public class ClockManager {
     }
     
     /**
-     * @return All active clocks registered to this Manager
+     * Starts a daemon thread that runs the {@link ClockRunnable} of this Manager, so it does not have to be scheduled elsewhere. <br>
+     * With the {@link EngineType#EVENT_DRIVEN} engine, the thread sleeps until the next callback or end condition is due and wakes up when clocks are added or changed. With the other engines it runs every count amount. <br>
+     * This does nothing if the driver is already running
+     */
+    public synchronized void startDriver() {
+        if (this.clockSource instanceof VirtualClockSource) {
+            throw new IllegalStateException("Managers with a VirtualClockSource are advanced with advance(long)");
+        }
+        
+        if (this.driver != null) {
+            return;
+        }
+        
+        this.driver = new Thread(this::drive, "StarClock-Driver");
+        this.driver.setDaemon(true);
+        this.driver.start();
+    }
+    
+    /**
+     * Stops the driver thread started by {@link ClockManager#startDriver()}
+     */
+    public synchronized void stopDriver() {
+        if (this.driver != null) {
+            this.driver.interrupt();
+            this.driver = null;
+        }
+    }
+    
+    /**
+     * @return If the driver thread is running
+     */
+    public synchronized boolean isDriverRunning() {
+        return this.driver != null;
+    }
+    
+    private void drive() {
+        Thread thread = Thread.currentThread();
+        while (!thread.isInterrupted()) {
+            this.runnable.run();
+            try {
+                this.engine.awaitNextTick();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * @return The source of time of this manager
+     */
+    public ClockSource getClockSource() {
+        return clockSource;
+    }
+    
+    /**
+     * @return The current time of the source of this manager in nanoseconds
+     */
+    long nanoTime() {
+        return this.clockSource.nanoTime();
+    }
+    
+    /**
+     * Advances the simulated time of this manager, running the clocks for every callback and end condition on the way. <br>
+     * Instead of running every count amount, this jumps straight to the next run that has something to process, so the time passes as fast as the callbacks can run. The engines that count in ticks run a tick at the start of every count amount, the same as a driver that started with the simulation, and each run stops at the tick that has something to process. <br>
+     * Runs happen on the calling thread, which owns the clocks while they do. Given the same clocks and the same changes between calls, the callbacks run in the same order every time.
+     * @param millis The milliseconds to advance by
+     * @return The amount of runs that were processed
+     * @throws IllegalStateException If this manager does not use a {@link VirtualClockSource}
+     */
+    public synchronized int advance(long millis) {
+        VirtualClockSource source = virtualSource();
+        long target = this.virtualNanos + millis * ClockEngine.NANOS_PER_MILLI;
+        int runs = 0;
+        if (!this.engine.isTickBased()) {
+            while (true) {
+                long wait = this.engine.nanosUntilNextRun();
+                if (wait > target - this.virtualNanos) {
+                    break;
+                }
+                
+                source.advance(wait);
+                this.virtualNanos += wait;
+                this.runnable.run(1);
+                runs++;
+            }
+            source.advance(target - this.virtualNanos);
+            this.virtualNanos = target;
+            return runs;
+        }
+        
+        long period = Math.max(1, this.countAmount) * ClockEngine.NANOS_PER_MILLI;
+        long lastTick = target / period;
+        while (true) {
+            long due = nextDueTick();
+            if (due > lastTick) {
+                break;
+            }
+            
+            runTicksTo(source, due, period);
+            runs++;
+        }
+        
+        while (this.engine.ticks <= lastTick) {
+            runTicksTo(source, lastTick, period);
+            runs++;
+        }
+        source.advance(target - this.virtualNanos);
+        this.virtualNanos = target;
+        return runs;
+    }
+    
+    /**
+     * Advances the simulated time of this manager straight to the next run that has something to process, and processes it. See {@link ClockManager#advance(long)}
+     * @return The milliseconds the time was advanced by, or -1 if no clock has a pending callback or end condition
+     * @throws IllegalStateException If this manager does not use a {@link VirtualClockSource}
+     */
+    public synchronized long advanceToNextEvent() {
+        VirtualClockSource source = virtualSource();
+        long start = this.virtualNanos;
+        if (!this.engine.isTickBased()) {
+            long wait = this.engine.nanosUntilNextRun();
+            if (wait == Long.MAX_VALUE) {
+                return -1;
+            }
+            
+            source.advance(wait);
+            this.virtualNanos += wait;
+            this.runnable.run(1);
+            return wait / ClockEngine.NANOS_PER_MILLI;
+        }
+        
+        long due = nextDueTick();
+        if (due == Long.MAX_VALUE) {
+            return -1;
+        }
+        
+        long period = Math.max(1, this.countAmount) * ClockEngine.NANOS_PER_MILLI;
+        while (this.engine.ticks <= due) {
+            runTicksTo(source, due, period);
+        }
+        return (this.virtualNanos - start) / ClockEngine.NANOS_PER_MILLI;
+    }
+    
+    private VirtualClockSource virtualSource() {
+        if (!(this.clockSource instanceof VirtualClockSource source)) {
+            throw new IllegalStateException("Only managers with a VirtualClockSource can be advanced");
+        }
+        return source;
+    }
+    
+    /**
+     * @return The index of the next tick that has something to process, where the tick at index n runs n count amounts into the simulation, or {@link Long#MAX_VALUE} if nothing is pending
+     */
+    private long nextDueTick() {
+        long ticks;
+        enterTick();
+        try {
+            ticks = this.engine.ticksUntilNextRun();
+        } finally {
+            exitTick();
+        }
+        
+        long due = this.engine.ticks + ticks;
+        return due < ticks ? Long.MAX_VALUE : due;
+    }
+    
+    /**
+     * Runs the ticks that were not run yet up to and including a tick, advancing the simulated time to the start of the last tick that was run
+     */
+    private void runTicksTo(VirtualClockSource source, long tick, long period) {
+        long first = this.engine.ticks;
+        long last = Math.min(tick, first + Integer.MAX_VALUE - 1);
+        long time = Math.max(this.virtualNanos, last * period);
+        source.advance(time - this.virtualNanos);
+        this.virtualNanos = time;
+        this.runnable.run((int) (last - first + 1));
+    }
+    
+    /**
+     * @return If the {@link ClockRunnable} counts based on the time that actually passed between runs
+     */
+    public boolean isDriftCorrection() {
+        return driftCorrection;
+    }
+    
+    /**
+     * Enables or disables drift correction. By default every run of the {@link ClockRunnable} counts the clocks once, so clocks run slow when the runnable runs late. <br>
+     * With drift correction enabled, each run measures the time since the previous run and counts once for every count amount that passed, carrying the remainder over to the next run. <br>
+     * Callbacks whose intervals were passed during a late run are handled based on the {@link MissedCallbackPolicy}. This has no effect on the {@link EngineType#EVENT_DRIVEN} engine, which is based on the actual time already
+     * @param driftCorrection true to enable drift correction
+     */
+    public void setDriftCorrection(boolean driftCorrection) {
+        this.driftCorrection = driftCorrection;
+    }
+    
+    /**
+     * @return The time budget of each run of the {@link ClockRunnable} in nanoseconds, or 0 if there is none
+     */
+    public long getTickBudget() {
+        return tickBudget;
+    }
+    
+    /**
+     * Sets how long each run of the {@link ClockRunnable} may take. Without a budget, which is the default, every clock that is due is processed in the order the clocks were added. <br>
+     * With a budget, clocks are processed by their {@link Clock.Priority}. {@link Clock.Priority#CRITICAL} clocks are always processed first. Other clocks are processed while the budget lasts, and the ones that do not fit are deferred to the next run, where they go first among the clocks with the same priority. The time of a deferred clock is caught up once it is processed, and the callbacks whose intervals were passed are handled based on the {@link MissedCallbackPolicy}. <br>
+     * The budget is checked every few clocks, so a run can take slightly longer than it. How often clocks are deferred is recorded in the {@link ClockMetrics}
+     * @param tickBudget The budget in nanoseconds, or 0 to process every clock on every run
+     */
+    public void setTickBudget(long tickBudget) {
+        this.tickBudget = Math.max(0, tickBudget);
+    }
+    
+    /**
+     * @return The policy for callbacks with missed intervals, for callbacks that do not override it
+     */
+    public MissedCallbackPolicy getMissedCallbackPolicy() {
+        return missedCallbackPolicy;
+    }
+    
+    /**
+     * Sets the policy for callbacks with missed intervals. See {@link MissedCallbackPolicy}
+     * @param missedCallbackPolicy The policy
+     */
+    public void setMissedCallbackPolicy(MissedCallbackPolicy missedCallbackPolicy) {
+        this.missedCallbackPolicy = Objects.requireNonNull(missedCallbackPolicy);
+    }
+    
+    /**
+     * @return The dispatcher that runs the callbacks of the clocks of this Manager, or null if they run on the thread of the {@link ClockRunnable}
+     */
+    public CallbackDispatcher getCallbackDispatcher() {
+        return callbackDispatcher;
+    }
+    
+    /**
+     * Sets the dispatcher that runs the callbacks of the clocks of this Manager. By default there is none and callbacks run on the thread of the {@link ClockRunnable}, where a slow callback delays every other clock. <br>
+     * Exceptions thrown by callbacks in the dispatcher are reported to the logger of this Manager.
+     * @param callbackDispatcher The dispatcher, or null to run callbacks on the thread of the {@link ClockRunnable} again
+     */
+    public void setCallbackDispatcher(CallbackDispatcher callbackDispatcher) {
+        if (callbackDispatcher != null) {
+            callbackDispatcher.setLogger(logger);
+        }
+        this.callbackDispatcher = callbackDispatcher;
+    }
+    
+    /**
+     * @return The journal that changes to the clocks of this Manager are appended to, or null if there is none
+     */
+    public ClockJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Sets the journal that changes to the clocks of this Manager are appended to. When recovering, the journal has to be replayed before it is set, see {@link ClockJournal}
+     * @param journal The journal, or null to stop journaling
+     */
+    public void setJournal(ClockJournal journal) {
+        this.journal = journal;
+    }
+    
+    /**
+     * @return The export that the state of the clocks of this Manager is written to, or null if there is none
+     */
+    public ClockExport getExport() {
+        return export;
+    }
+    
+    /**
+     * Sets the export that the state of the clocks of this Manager is written to at the end of every few runs of the {@link ClockRunnable}, see {@link ClockExport}
+     * @param export The export, or null to stop exporting
+     */
+    public void setExport(ClockExport export) {
+        this.export = export;
+    }
+    
+    /**
+     * @return The metrics of this Manager. These are disabled by default, see {@link ClockMetrics#setEnabled(boolean)}
+     */
+    public ClockMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * @return The engine type that this Manager uses
+     */
+    public EngineType getEngineType() {
+        return engineType;
+    }
+    
+    /**
+     * Copies the clocks registered to this Manager. <br>
+     * The list is unmodifiable and does not change when clocks are added or removed later. Use {@link ClockManager#addClock(Clock)} and {@link ClockManager#removeClock(Clock)} to change the clocks, and {@link ClockManager#getClockCount()} when only the amount is needed
+     * @return A copy of all active clocks registered to this Manager
      */
     public List<Clock<? extends ClockSnapshot>> getClocks() {
-        return clocks;
+        synchronized (this.registry) {
+            return this.registry.copy();
+        }
+    }
+    
+    /**
+     * Estimates the heap retained by the clocks registered to this Manager for each type of clock, to size the heap for large amounts of clocks. This looks at every clock, so it should not be called often
+     * @return The footprint of each type of clock, in the order the types were first found
+     */
+    public List<ClockFootprint> getFootprint() {
+        Map<Class<?>, long[]> totals = new LinkedHashMap<>();
+        synchronized (this.registry) {
+            Clock<?>[] clocks = this.registry.array();
+            for (int i = 0; i < this.registry.size(); i++) {
+                Clock<?> clock = clocks[i];
+                if (clock != null) {
+                    long[] total = totals.computeIfAbsent(clock.getClass(), type -> new long[2]);
+                    total[0]++;
+                    total[1] += clock.footprint();
+                }
+            }
+        }
+        
+        List<ClockFootprint> footprint = new ArrayList<>(totals.size());
+        totals.forEach((type, total) -> footprint.add(new ClockFootprint(type, (int) total[0], total[1])));
+        return footprint;
+    }
+    
+    /**
+     * @return The amount of clocks registered to this Manager
+     */
+    public int getClockCount() {
+        synchronized (this.registry) {
+            return this.registry.count();
+        }
     }
     
     /**
@@ -106,4 +896,24 @@ public class ClockManager {
     public void setCountAmount(long countAmount) {
         this.countAmount = countAmount;
     }
+    
+    /**
+     * The engine that a ClockManager uses to process its clocks
+     */
+    public enum EngineType {
+        /**
+         * Visits every clock on every run. This is the original behavior and works best with a small amount of clocks
+         */
+        LINEAR,
+        /**
+         * Stores the clocks in a hierarchical timing wheel based on when their next callback or end condition is due, so each run only visits the clocks that have something to do. <br>
+         * This works best with a large amount of clocks where most of them are not due on a given run. Clocks with a custom {@link com.starmediadev.starclock.condition.ClockEndCondition} are still visited every run
+         */
+        TIMING_WHEEL,
+        /**
+         * Does not count in fixed steps. The time of clocks is calculated from the {@link ClockSource} when it is needed, and each run processes the clocks whose next callback or end condition is due at that moment. <br>
+         * This is meant to be used with {@link ClockManager#startDriver()}, which sleeps until the next deadline instead of running every count amount. Callbacks are then not delayed to the next count
+         */
+        EVENT_DRIVEN
+    }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+
+import java.util.ArrayDeque;
+
+/**
+ * A bounded pool of ended {@link Timer}'s and {@link Stopwatch}'s that are reused by the pooled factory methods of a {@link ClockManager}, see {@link ClockManager#createPooledTimer(long)} <br>
+ * Clocks created by those methods are recycled and returned to the pool once they are cancelled and removed by the {@link ClockRunnable}. When the pool is full they are left to the garbage collector instead. <br>
+ * A clock is only handed out again to a manager with the same count amount it was created with. A pool can be shared by multiple managers.
+ */
+public final class ClockPool {
+    private final ArrayDeque<Timer> timers = new ArrayDeque<>();
+    private final ArrayDeque<Stopwatch> stopwatches = new ArrayDeque<>();
+    private final int capacity;
+    private long hits;
+    private long misses;
+    private long recycled;
+    private long dropped;
+    
+    /**
+     * Constructs a new ClockPool
+     * @param capacity The amount of clocks the pool can hold, for timers and stopwatches each
+     */
+    public ClockPool(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1");
+        }
+        
+        this.capacity = capacity;
+    }
+    
+    /**
+     * @param countAmount The count amount of the manager
+     * @return A recycled timer with the count amount, or null if there is none
+     */
+    synchronized Timer takeTimer(long countAmount) {
+        return take(this.timers, countAmount);
+    }
+    
+    /**
+     * @param countAmount The count amount of the manager
+     * @return A recycled stopwatch with the count amount, or null if there is none
+     */
+    synchronized Stopwatch takeStopwatch(long countAmount) {
+        return take(this.stopwatches, countAmount);
+    }
+    
+    private <C extends Clock<?>> C take(ArrayDeque<C> clocks, long countAmount) {
+        C clock = clocks.pollFirst();
+        while (clock != null && clock.getCountAmount() != countAmount) {
+            this.dropped++;
+            clock = clocks.pollFirst();
+        }
+        
+        if (clock != null) {
+            this.hits++;
+        } else {
+            this.misses++;
+        }
+        return clock;
+    }
+    
+    /**
+     * Recycles a clock that ended and was removed from its manager, and keeps it when there is room
+     * @param clock The clock
+     */
+    void release(Clock<?> clock) {
+        clock.recycle();
+        synchronized (this) {
+            if (clock.getClass() == Timer.class) {
+                offer(this.timers, (Timer) clock);
+            } else if (clock.getClass() == Stopwatch.class) {
+                offer(this.stopwatches, (Stopwatch) clock);
+            }
+        }
+    }
+    
+    private <C extends Clock<?>> void offer(ArrayDeque<C> clocks, C clock) {
+        if (clocks.size() >= this.capacity) {
+            this.dropped++;
+        } else {
+            clocks.offerFirst(clock);
+            this.recycled++;
+        }
+    }
+    
+    /**
+     * @return The amount of clocks the pool can hold, for timers and stopwatches each
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * @return The amount of timers in the pool
+     */
+    public synchronized int getTimers() {
+        return timers.size();
+    }
+    
+    /**
+     * @return The amount of stopwatches in the pool
+     */
+    public synchronized int getStopwatches() {
+        return stopwatches.size();
+    }
+    
+    /**
+     * @return How full the pool is, from 0 to 1
+     */
+    public synchronized double getOccupancy() {
+        return (timers.size() + stopwatches.size()) / (2.0 * capacity);
+    }
+    
+    /**
+     * @return The amount of clocks that were handed out from the pool
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * @return The amount of clocks that had to be created because the pool had none
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * @return The share of pooled clocks that came from the pool, from 0 to 1
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+    
+    /**
+     * @return The amount of clocks that were returned to the pool
+     */
+    public synchronized long getRecycled() {
+        return recycled;
+    }
+    
+    /**
+     * @return The amount of clocks that were left to the garbage collector because the pool was full or their count amount did not match
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+    
+    /**
+     * Removes every clock from the pool and resets the stats
+     */
+    public synchronized void clear() {
+        timers.clear();
+        stopwatches.clear();
+        hits = 0;
+        misses = 0;
+        recycled = 0;
+        dropped = 0;
+    }
+}
\ No newline at end of file
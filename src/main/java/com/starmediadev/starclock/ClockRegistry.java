@@ -0,0 +1,131 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The list of clocks registered to a {@link ClockManager} or a {@link ShardedClockManager.Shard} <br>
+ * Each registered clock knows its slot in the array, so removing it is a swap with the last clock instead of a search. <br>
+ * While the clocks are being iterated, removed clocks only leave an empty slot, and all of them are reclaimed at once when the iteration ends. <br>
+ * This class does no synchronization of its own.
+ */
+final class ClockRegistry {
+    private Clock<?>[] clocks = new Clock<?>[16];
+    private int size;
+    private int iterating;
+    private int holes;
+    
+    /**
+     * @param clock The clock to add. It must not be registered anywhere else
+     * @return false if the clock was already in this registry
+     */
+    boolean add(Clock<?> clock) {
+        if (contains(clock)) {
+            return false;
+        }
+        
+        if (size == clocks.length) {
+            clocks = Arrays.copyOf(clocks, size * 2);
+        }
+        clock.slot = size;
+        clocks[size++] = clock;
+        return true;
+    }
+    
+    /**
+     * @param clock The clock to remove
+     * @return false if the clock was not in this registry
+     */
+    boolean remove(Clock<?> clock) {
+        if (!contains(clock)) {
+            return false;
+        }
+        
+        int slot = clock.slot;
+        clock.slot = -1;
+        if (iterating > 0) {
+            clocks[slot] = null;
+            holes++;
+            return true;
+        }
+        
+        Clock<?> last = clocks[--size];
+        clocks[size] = null;
+        if (last != clock) {
+            clocks[slot] = last;
+            last.slot = slot;
+        }
+        return true;
+    }
+    
+    boolean contains(Clock<?> clock) {
+        int slot = clock.slot;
+        return slot >= 0 && slot < size && clocks[slot] == clock;
+    }
+    
+    /**
+     * Starts an iteration over {@link ClockRegistry#array()}. Removals are deferred until the matching {@link ClockRegistry#endIteration()}
+     */
+    void beginIteration() {
+        iterating++;
+    }
+    
+    /**
+     * Ends an iteration, reclaiming the slots of every clock removed during it
+     */
+    void endIteration() {
+        if (--iterating > 0 || holes == 0) {
+            return;
+        }
+        
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Clock<?> clock = clocks[i];
+            if (clock != null) {
+                clock.slot = kept;
+                clocks[kept++] = clock;
+            }
+        }
+        Arrays.fill(clocks, kept, size, null);
+        size = kept;
+        holes = 0;
+    }
+    
+    /**
+     * @return The backing array. Slots up to {@link ClockRegistry#size()} can be empty during an iteration
+     */
+    Clock<?>[] array() {
+        return clocks;
+    }
+    
+    /**
+     * @return The amount of slots in use, including empty slots left by clocks removed during an iteration
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * @return The amount of registered clocks
+     */
+    int count() {
+        return size - holes;
+    }
+    
+    /**
+     * @return A copy of the registered clocks
+     */
+    List<Clock<? extends ClockSnapshot>> copy() {
+        List<Clock<? extends ClockSnapshot>> copy = new ArrayList<>(count());
+        for (int i = 0; i < size; i++) {
+            if (clocks[i] != null) {
+                copy.add(clocks[i]);
+            }
+        }
+        return Collections.unmodifiableList(copy);
+    }
+}
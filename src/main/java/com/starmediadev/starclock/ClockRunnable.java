@@ -1,14 +1,19 @@
 package com.starmediadev.starclock;
 
-import java.util.ArrayList;
+import com.starmediadev.starclock.metrics.ClockMetrics;
+import com.starmediadev.starclock.table.ClockTable;
 
 /**
  * The Runnable for clocks. This extends the java {@link Runnable} interface to allow use in a multi-threaded environment <br>
- * {@link ClockManager}'s create an instance of this class by default. You shouldn't have to create one yourself.
+ * {@link ClockManager}'s create an instance of this class by default. You shouldn't have to create one yourself. <br>
+ * The clocks are owned by the thread running this for the whole run, see {@link ClockManager} for how changes from other threads are made. <br>
+ * When drift correction is enabled, each run measures the time since the previous run and counts as many times as the count amount fits in it. See {@link ClockManager#setDriftCorrection(boolean)}
  */
 public final class ClockRunnable implements Runnable {
     
     private ClockManager clockManager;
+    private long lastRun = -1;
+    private long carry;
     
     public ClockRunnable(ClockManager clockManager) {
         this.clockManager = clockManager;
@@ -16,17 +21,99 @@ public final class ClockRunnable implements Runnable {
     
     @Override
     public void run() {
-        for (Clock<?> clock : new ArrayList<>(clockManager.getClocks())) {
-            if (clock.isPaused()) {
-                continue;
+        clockManager.enterTick();
+        try {
+            clockManager.runBoundaryTasks();
+            int ticks = countTicks();
+            if (ticks > 0) {
+                process(ticks);
             }
-            
-            clock.callback();
-            if (!clock.isCancelled()) {
-                clock.count();
-            } else {
-                clockManager.getClocks().remove(clock);
+        } finally {
+            clockManager.exitTick();
+        }
+    }
+    
+    /**
+     * Runs the clocks for a fixed amount of ticks instead of the amount that passed. This is used to advance managers with a {@link VirtualClockSource}
+     * @param ticks The amount of ticks
+     */
+    void run(int ticks) {
+        clockManager.enterTick();
+        try {
+            clockManager.runBoundaryTasks();
+            process(ticks);
+        } finally {
+            clockManager.exitTick();
+        }
+    }
+    
+    private void process(int ticks) {
+        ClockMetrics metrics = clockManager.metrics;
+        if (!metrics.isRecording()) {
+            tick(ticks);
+            return;
+        }
+        
+        long start = metrics.tickStarted();
+        try {
+            tick(ticks);
+        } finally {
+            metrics.tickFinished(start, ticks, clockManager.engine.isTickBased());
+        }
+    }
+    
+    private void tick(int ticks) {
+        clockManager.engine.tick(ticks);
+        ClockJournal journal = clockManager.journal;
+        if (journal != null) {
+            journal.tickFinished();
+        }
+        
+        ClockExport export = clockManager.export;
+        if (export != null) {
+            export.tickFinished(clockManager);
+        }
+        
+        SnapshotPublisher<?>[] publishers = clockManager.publishers;
+        if (publishers.length != 0) {
+            long now = clockManager.nanoTime();
+            for (SnapshotPublisher<?> publisher : publishers) {
+                publisher.publish(now);
+            }
+        }
+        
+        if (!clockManager.engine.isTickBased()) {
+            return;
+        }
+        
+        clockManager.engine.ticks += ticks;
+        for (ClockTable table : clockManager.tables) {
+            for (int i = 0; i < ticks; i++) {
+                table.tick();
             }
         }
     }
+    
+    /**
+     * @return The amount of ticks to count in this run. Engines that do not count in ticks are always run once, as they count the time that actually passed
+     */
+    private int countTicks() {
+        if (!clockManager.isDriftCorrection() || !clockManager.engine.isTickBased()) {
+            this.lastRun = -1;
+            return 1;
+        }
+        
+        long now = clockManager.nanoTime();
+        long period = Math.max(1, clockManager.getCountAmount()) * 1_000_000L;
+        if (this.lastRun == -1) {
+            this.lastRun = now;
+            this.carry = 0;
+            return 1;
+        }
+        
+        long elapsed = now - this.lastRun + this.carry;
+        this.lastRun = now;
+        this.carry = elapsed % period;
+        return (int) Math.min(Integer.MAX_VALUE, elapsed / period);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.metrics.LatencyHistogram;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the {@link ClockRunnable}'s of many {@link ClockManager}'s from one thread, each at its own count amount, instead of scheduling each of them separately. <br>
+ * The next run of every manager is kept in a single queue ordered by when it is due, and the scheduler thread sleeps until the first one. The runs of a manager are due at multiples of its count amount since the scheduler was created, so managers whose count amounts line up are due at the same instant, and those runs are coalesced into a single wake up. <br>
+ * With more than one thread, the scheduler thread hands the runs to a pool of workers. A manager is never run by two threads at once, its next run is only queued once the previous one finished. <br>
+ * Runs that are missed because a previous run took too long are skipped instead of run back to back, see {@link ClockManager#setDriftCorrection(boolean)} to catch up on the counts. How late each run starts is recorded for each manager, see {@link ClockScheduler#getLag(ClockManager)}
+ */
+public final class ClockScheduler implements AutoCloseable {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong((Entry entry) -> entry.due).thenComparingLong(entry -> entry.sequence));
+    private final Map<ClockManager, Entry> entries = new IdentityHashMap<>();
+    private final List<Entry> due = new ArrayList<>();
+    private final long origin = System.nanoTime();
+    private final int threads;
+    private ExecutorService workers;
+    private Thread thread;
+    private long sequence;
+    private volatile long coalescedRuns;
+    private Logger logger;
+    
+    /**
+     * Constructs a scheduler that runs every manager on the scheduler thread itself, one run at a time
+     */
+    public ClockScheduler() {
+        this(1);
+    }
+    
+    /**
+     * Constructs a scheduler
+     * @param threads The amount of threads that run the managers. With 1, the runs happen on the scheduler thread itself
+     */
+    public ClockScheduler(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A scheduler needs at least one thread");
+        }
+        this.threads = threads;
+    }
+    
+    /**
+     * @param logger The logger that exceptions thrown by runs are reported to
+     */
+    public synchronized void setLogger(Logger logger) {
+        this.logger = logger;
+    }
+    
+    /**
+     * Registers a manager to be run by this scheduler. The manager should not be run anywhere else, including its own driver thread, see {@link ClockManager#startDriver()}
+     * @param manager The manager
+     * @return false if the manager was already registered
+     * @throws IllegalStateException If the manager uses a {@link VirtualClockSource}, as those are advanced instead of run, or if its driver is running
+     */
+    public synchronized boolean register(ClockManager manager) {
+        if (manager.getClockSource() instanceof VirtualClockSource) {
+            throw new IllegalStateException("Managers with a VirtualClockSource are advanced with advance(long)");
+        }
+        
+        if (manager.isDriverRunning()) {
+            throw new IllegalStateException("The manager is already run by its driver");
+        }
+        
+        if (this.entries.containsKey(manager)) {
+            return false;
+        }
+        
+        Entry entry = new Entry(manager);
+        this.entries.put(manager, entry);
+        schedule(entry, System.nanoTime());
+        return true;
+    }
+    
+    /**
+     * Stops running a manager. A run that is in progress is finished
+     * @param manager The manager
+     * @return false if the manager was not registered
+     */
+    public synchronized boolean unregister(ClockManager manager) {
+        Entry entry = this.entries.remove(manager);
+        if (entry == null) {
+            return false;
+        }
+        
+        entry.registered = false;
+        this.queue.remove(entry);
+        return true;
+    }
+    
+    /**
+     * @return A copy of the managers registered to this scheduler
+     */
+    public synchronized List<ClockManager> getManagers() {
+        return new ArrayList<>(this.entries.keySet());
+    }
+    
+    /**
+     * @param manager A registered manager
+     * @return How much later each run of the manager started than it was due in nanoseconds, or null if the manager is not registered
+     */
+    public synchronized LatencyHistogram getLag(ClockManager manager) {
+        Entry entry = this.entries.get(manager);
+        return entry != null ? entry.lag : null;
+    }
+    
+    /**
+     * @param manager A registered manager
+     * @return The amount of runs of the manager that were skipped because they were missed, or -1 if the manager is not registered
+     */
+    public synchronized long getSkippedRuns(ClockManager manager) {
+        Entry entry = this.entries.get(manager);
+        return entry != null ? entry.skipped : -1;
+    }
+    
+    /**
+     * @return The amount of runs that were due at the same instant as another run and were started by the same wake up
+     */
+    public long getCoalescedRuns() {
+        return coalescedRuns;
+    }
+    
+    /**
+     * Starts the scheduler thread, and the workers when there is more than one thread
+     */
+    public synchronized void start() {
+        if (this.thread != null) {
+            return;
+        }
+        
+        if (this.threads > 1) {
+            AtomicInteger count = new AtomicInteger();
+            this.workers = Executors.newFixedThreadPool(this.threads, runnable -> {
+                Thread worker = new Thread(runnable, "StarClock-Scheduler-" + count.incrementAndGet());
+                worker.setDaemon(true);
+                return worker;
+            });
+        }
+        
+        this.thread = new Thread(this::loop, "StarClock-Scheduler");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    
+    /**
+     * Stops the scheduler thread and the workers. Runs that are in progress are finished
+     */
+    public synchronized void stop() {
+        if (this.thread == null) {
+            return;
+        }
+        
+        this.thread.interrupt();
+        this.thread = null;
+        if (this.workers != null) {
+            this.workers.shutdown();
+            this.workers = null;
+        }
+    }
+    
+    /**
+     * @return If the scheduler thread is running
+     */
+    public synchronized boolean isRunning() {
+        return this.thread != null;
+    }
+    
+    @Override
+    public void close() {
+        stop();
+    }
+    
+    private void loop() {
+        Thread current = Thread.currentThread();
+        List<Entry> due = this.due;
+        while (!current.isInterrupted()) {
+            ExecutorService workers;
+            synchronized (this) {
+                try {
+                    Entry head = this.queue.peek();
+                    if (head == null) {
+                        wait();
+                        continue;
+                    }
+                    
+                    long delay = head.due - System.nanoTime();
+                    if (delay > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, delay);
+                        continue;
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                
+                long instant = this.queue.peek().due;
+                while (!this.queue.isEmpty() && this.queue.peek().due == instant) {
+                    due.add(this.queue.poll());
+                }
+                if (due.size() > 1) {
+                    this.coalescedRuns += due.size() - 1;
+                }
+                workers = this.workers;
+            }
+            
+            for (Entry entry : due) {
+                if (workers != null) {
+                    workers.execute(() -> run(entry));
+                } else {
+                    run(entry);
+                }
+            }
+            due.clear();
+        }
+    }
+    
+    private void run(Entry entry) {
+        long start = System.nanoTime();
+        entry.lag.record(start - entry.due);
+        try {
+            entry.manager.getRunnable().run();
+        } catch (RuntimeException e) {
+            Logger logger = this.logger != null ? this.logger : entry.manager.getLogger();
+            if (logger != null) {
+                logger.log(Level.SEVERE, "A run of a ClockManager failed", e);
+            }
+        }
+        
+        synchronized (this) {
+            if (entry.registered) {
+                schedule(entry, System.nanoTime());
+            }
+        }
+    }
+    
+    /**
+     * Queues the next run of a manager at the first multiple of its count amount since the origin of this scheduler that is after its previous run, skipping the ones that already passed
+     */
+    private void schedule(Entry entry, long now) {
+        long period = Math.max(1, entry.manager.getCountAmount()) * NANOS_PER_MILLI;
+        long next = Math.floorDiv(now - this.origin, period) * period + period + this.origin;
+        if (entry.due != Long.MIN_VALUE) {
+            long expected = entry.due + period;
+            if (next - expected > 0) {
+                entry.skipped += (next - expected) / period;
+            } else {
+                next = expected;
+            }
+        }
+        
+        entry.due = next;
+        entry.sequence = this.sequence++;
+        this.queue.add(entry);
+        if (this.queue.peek() == entry) {
+            notifyAll();
+        }
+    }
+    
+    private static final class Entry {
+        private final ClockManager manager;
+        private final LatencyHistogram lag = new LatencyHistogram();
+        private long due = Long.MIN_VALUE;
+        private long sequence;
+        private long skipped;
+        private boolean registered = true;
+        
+        private Entry(ClockManager manager) {
+            this.manager = manager;
+        }
+    }
+}
\ No newline at end of file
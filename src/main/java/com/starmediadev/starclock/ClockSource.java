@@ -0,0 +1,18 @@
+package com.starmediadev.starclock;
+
+/**
+ * The source of time for a {@link ClockManager}, which is used by the engines that count based on the time that actually passed and by drift correction. <br>
+ * Managers use {@link ClockSource#SYSTEM} by default. A {@link VirtualClockSource} makes the time simulated instead, see {@link ClockManager#advance(long)}
+ */
+@FunctionalInterface
+public interface ClockSource {
+    /**
+     * The time of the system, from {@link System#nanoTime()}
+     */
+    ClockSource SYSTEM = System::nanoTime;
+    
+    /**
+     * @return The current time in nanoseconds. Like {@link System#nanoTime()}, this is only meaningful compared to other values from the same source
+     */
+    long nanoTime();
+}
\ No newline at end of file
@@ -0,0 +1,303 @@
+package com.starmediadev.starclock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An engine that does not count in fixed steps. The time of a clock is calculated from the {@link ClockSource} of the manager since it was last brought up to date, and paused time is not counted. <br>
+ * Clocks are kept in a heap ordered by the moment their next callback or end condition is due (see {@link Clock#nextEventDelay()}), and a tick processes every clock that is due at that moment. <br>
+ * When driven by {@link ClockManager#startDriver()}, the driver thread sleeps until the earliest deadline, and is woken when clocks are added or changed. <br>
+ * Clocks with an end condition that cannot be calculated ahead of time are checked every count amount of the clock.
+ */
+final class EventDrivenEngine extends ClockEngine {
+    
+    private Node[] heap = new Node[16];
+    private int size;
+    private long sequence;
+    private final List<Node> firing = new ArrayList<>();
+    
+    EventDrivenEngine(ClockManager manager) {
+        super(manager);
+    }
+    
+    @Override
+    synchronized void register(Clock<?> clock) {
+        clock.engine = this;
+        clock.anchor = manager.nanoTime();
+        Node node = new Node(clock);
+        clock.entry = node;
+        schedule(node, false);
+        notifyAll();
+    }
+    
+    @Override
+    synchronized void unregister(Clock<?> clock) {
+        if (clock.engine != this) {
+            return;
+        }
+        
+        sync(clock);
+        remove((Node) clock.entry);
+        clock.entry = null;
+        clock.engine = null;
+    }
+    
+    @Override
+    synchronized void sync(Clock<?> clock) {
+        if (!manager.ownsClocks()) {
+            return;
+        }
+        
+        long now = manager.nanoTime();
+        if (clock.paused) {
+            clock.anchor = now;
+            return;
+        }
+        
+        long millis = (now - clock.anchor) / NANOS_PER_MILLI;
+        if (millis > 0) {
+            clock.countFor(millis, clock.anchor + millis * NANOS_PER_MILLI);
+        }
+    }
+    
+    @Override
+    long pendingMillis(Clock<?> clock) {
+        return Math.max(0, (manager.nanoTime() - clock.anchor) / NANOS_PER_MILLI);
+    }
+    
+    @Override
+    synchronized void update(Clock<?> clock) {
+        if (clock.engine != this) {
+            return;
+        }
+        
+        schedule((Node) clock.entry, false);
+        notifyAll();
+    }
+    
+    @Override
+    void tick(int ticks) {
+        synchronized (this) {
+            long now = manager.nanoTime();
+            while (this.size > 0 && this.heap[0].deadline - now <= 0) {
+                Node node = this.heap[0];
+                remove(node);
+                this.firing.add(node);
+            }
+        }
+        
+        try {
+            fireDue(this.firing);
+        } finally {
+            this.firing.clear();
+        }
+    }
+    
+    @Override
+    synchronized void wake() {
+        notifyAll();
+    }
+    
+    @Override
+    synchronized void awaitNextTick() throws InterruptedException {
+        if (!manager.boundaryTasks.isEmpty()) {
+            return;
+        }
+        
+        if (this.size == 0) {
+            wait();
+            return;
+        }
+        
+        long delay = this.heap[0].deadline - manager.nanoTime();
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, delay);
+        }
+    }
+    
+    @Override
+    synchronized long nanosUntilNextRun() {
+        if (this.size == 0) {
+            return Long.MAX_VALUE;
+        }
+        
+        return Math.max(0, this.heap[0].deadline - manager.nanoTime());
+    }
+    
+    @Override
+    boolean isTickBased() {
+        return false;
+    }
+    
+    @Override
+    long position() {
+        return TimeUnit.NANOSECONDS.toMillis(manager.nanoTime());
+    }
+    
+    @Override
+    long positionAfter(Clock<?> clock, long millis) {
+        long position = position() + millis;
+        return position < millis ? Long.MAX_VALUE : position;
+    }
+    
+    @Override
+    long positionsIn(long millis) {
+        return millis;
+    }
+    
+    @Override
+    long millisUntil(long positions) {
+        return positions;
+    }
+    
+    @Override
+    void fire(Entry entry) {
+        Node node = (Node) entry;
+        Clock<?> clock = node.clock;
+        synchronized (this) {
+            if (node.index >= 0 || clock.entry != node) {
+                return;
+            }
+            
+            sync(clock);
+        }
+        
+        if (clock.isPaused()) {
+            return;
+        }
+        
+        clock.callback();
+        if (clock.isCancelled()) {
+            manager.expire(clock);
+            return;
+        }
+        
+        synchronized (this) {
+            if (clock.entry == node) {
+                schedule(node, true);
+            }
+        }
+    }
+    
+    @Override
+    synchronized void defer(Entry entry) {
+        Node node = (Node) entry;
+        if (node.index < 0 && node.clock.entry == node) {
+            schedule(node, true);
+        }
+    }
+    
+    private void schedule(Node node, boolean fired) {
+        Clock<?> clock = node.clock;
+        if (clock.paused) {
+            remove(node);
+            return;
+        }
+        
+        long now = manager.nanoTime();
+        long period = Math.max(1, clock.getCountAmount()) * NANOS_PER_MILLI;
+        long earliest = fired ? now + period : now;
+        long deadline;
+        if (clock.cancelled) {
+            deadline = earliest;
+        } else {
+            sync(clock);
+            long delay = clock.nextEventDelay();
+            if (delay == Long.MAX_VALUE) {
+                remove(node);
+                return;
+            } else if (delay < 0) {
+                deadline = now + period;
+            } else {
+                deadline = clock.anchor + Math.min(delay, Long.MAX_VALUE / (4 * NANOS_PER_MILLI)) * NANOS_PER_MILLI;
+            }
+        }
+        
+        if (deadline - earliest < 0) {
+            deadline = earliest;
+        }
+        
+        remove(node);
+        node.deadline = deadline;
+        node.sequence = this.sequence++;
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.size * 2);
+        }
+        node.index = this.size++;
+        this.heap[node.index] = node;
+        siftUp(node.index);
+    }
+    
+    private void remove(Node node) {
+        int index = node.index;
+        if (index < 0) {
+            return;
+        }
+        
+        node.index = -1;
+        Node last = this.heap[--this.size];
+        this.heap[this.size] = null;
+        if (last != node) {
+            this.heap[index] = last;
+            last.index = index;
+            siftDown(index);
+            siftUp(last.index);
+        }
+    }
+    
+    private void siftUp(int index) {
+        Node node = this.heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!node.before(this.heap[parent])) {
+                break;
+            }
+            move(this.heap[parent], index);
+            index = parent;
+        }
+        move(node, index);
+    }
+    
+    private void siftDown(int index) {
+        Node node = this.heap[index];
+        int half = this.size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < this.size && this.heap[right].before(this.heap[child])) {
+                child = right;
+            }
+            if (!this.heap[child].before(node)) {
+                break;
+            }
+            move(this.heap[child], index);
+            index = child;
+        }
+        move(node, index);
+    }
+    
+    private void move(Node node, int index) {
+        this.heap[index] = node;
+        node.index = index;
+    }
+    
+    /**
+     * The entry of a clock in the deadline heap
+     */
+    static final class Node extends Entry {
+        private long deadline;
+        private long sequence;
+        private int index = -1;
+        
+        private Node(Clock<?> clock) {
+            super(clock);
+        }
+        
+        private boolean before(Node other) {
+            long diff = this.deadline - other.deadline;
+            return diff < 0 || (diff == 0 && this.sequence < other.sequence);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The running clocks of a {@link ClockManager} that will end, ordered by when they are projected to end. <br>
+ * The projected end is the position of the engine at which the clock ends, see {@link ClockEngine#position()}. As the position and the time of a running clock advance together, the projected end only changes when the clock is changed, so it is only updated by the mutators. <br>
+ * The entries are kept in a skip list, so updates and queries take logarithmic time and queries do not block updates. Updates are serialized by the lock of the index.
+ */
+final class ExpiryIndex {
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::end).thenComparingLong(Entry::clockId);
+    
+    private final ClockEngine engine;
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+    
+    ExpiryIndex(ClockEngine engine) {
+        this.engine = engine;
+    }
+    
+    /**
+     * Updates the projected end of a clock after it changed, adding or removing it when it starts or stops running
+     * @param clock The clock
+     */
+    synchronized void update(Clock<?> clock) {
+        long millis = clock.isPaused() || clock.isCancelled() ? Long.MAX_VALUE : clock.millisUntilEnd();
+        Entry current = clock.expiry;
+        if (millis == Long.MAX_VALUE) {
+            if (current != null) {
+                this.entries.remove(current);
+                clock.expiry = null;
+            }
+            return;
+        }
+        
+        long end = this.engine.positionAfter(clock, millis);
+        if (current != null) {
+            if (current.end == end) {
+                return;
+            }
+            this.entries.remove(current);
+        }
+        
+        Entry entry = new Entry(end, clock.id, clock);
+        clock.expiry = entry;
+        this.entries.add(entry);
+    }
+    
+    synchronized void remove(Clock<?> clock) {
+        Entry current = clock.expiry;
+        if (current != null) {
+            this.entries.remove(current);
+            clock.expiry = null;
+        }
+    }
+    
+    /**
+     * @param millis The window in milliseconds
+     * @return The clocks that are projected to end within the window, ordered by when they end
+     */
+    List<Clock<? extends ClockSnapshot>> endingWithin(long millis) {
+        long position = this.engine.position();
+        long end = position + this.engine.positionsIn(Math.max(0, millis));
+        if (end < position) {
+            end = Long.MAX_VALUE;
+        }
+        
+        List<Clock<? extends ClockSnapshot>> clocks = new ArrayList<>();
+        for (Entry entry : this.entries.subSet(new Entry(position, Long.MIN_VALUE, null), true, new Entry(end, Long.MAX_VALUE, null), true)) {
+            clocks.add(entry.clock);
+        }
+        return Collections.unmodifiableList(clocks);
+    }
+    
+    /**
+     * @param count The maximum amount of clocks
+     * @return The clocks that are projected to end next, ordered by when they end
+     */
+    List<Clock<? extends ClockSnapshot>> nextToEnd(int count) {
+        List<Clock<? extends ClockSnapshot>> clocks = new ArrayList<>(Math.max(0, Math.min(count, 64)));
+        for (Entry entry : this.entries.tailSet(new Entry(this.engine.position(), Long.MIN_VALUE, null), true)) {
+            if (clocks.size() >= count) {
+                break;
+            }
+            clocks.add(entry.clock);
+        }
+        return Collections.unmodifiableList(clocks);
+    }
+    
+    /**
+     * @param clock The clock
+     * @return The milliseconds until the clock is projected to end, or -1 if it is not running or will not end
+     */
+    long millisUntilEnd(Clock<?> clock) {
+        Entry entry = clock.expiry;
+        if (entry == null) {
+            return -1;
+        }
+        return this.engine.millisUntil(Math.max(0, entry.end - this.engine.position()));
+    }
+    
+    /**
+     * @return The estimated heap used by the entry of a clock in the index in bytes, which includes the node of the set that holds it
+     */
+    static long entryFootprint() {
+        long bytes = ObjectSizes.shallow(Entry.class);
+        try {
+            return bytes + ObjectSizes.shallow(Class.forName("java.util.concurrent.ConcurrentSkipListMap$Node"));
+        } catch (ClassNotFoundException e) {
+            return bytes + 3L * ObjectSizes.REFERENCE + 12;
+        }
+    }
+    
+    record Entry(long end, long clockId, Clock<? extends ClockSnapshot> clock) {
+    }
+}
\ No newline at end of file
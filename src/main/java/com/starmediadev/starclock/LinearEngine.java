@@ -0,0 +1,131 @@
+package com.starmediadev.starclock;
+
+/**
+ * The default engine. This visits every registered clock on every tick, calling the callbacks and counting it. <br>
+ * The clocks are iterated in place in the {@link ClockRegistry} of the manager. Clocks removed during a tick leave an empty slot and are reclaimed in bulk once the tick finishes. <br>
+ * With a tick budget, the clocks are iterated once for each priority, and the ticks of deferred clocks are counted once they are processed again or brought up to date.
+ */
+final class LinearEngine extends ClockEngine {
+    
+    /**
+     * Where each priority starts in the next tick that has a budget
+     */
+    private final int[] cursors = new int[PRIORITIES.length];
+    
+    LinearEngine(ClockManager manager) {
+        super(manager);
+    }
+    
+    @Override
+    void register(Clock<?> clock) {
+        clock.engine = this;
+    }
+    
+    @Override
+    void unregister(Clock<?> clock) {
+        if (clock.engine == this) {
+            sync(clock);
+            clock.engine = null;
+        }
+    }
+    
+    @Override
+    void sync(Clock<?> clock) {
+        if (!manager.ownsClocks()) {
+            return;
+        }
+        
+        long deferred = clock.deferredTicks;
+        if (deferred > 0) {
+            clock.deferredTicks = 0;
+            if (!clock.paused) {
+                clock.countFor(deferred * clock.getCountAmount());
+            }
+        }
+    }
+    
+    @Override
+    long pendingMillis(Clock<?> clock) {
+        return clock.deferredTicks * clock.getCountAmount();
+    }
+    
+    @Override
+    void tick(int ticks) {
+        ClockRegistry registry = manager.registry;
+        Clock<?>[] clocks;
+        int size;
+        synchronized (registry) {
+            registry.beginIteration();
+            clocks = registry.array();
+            size = registry.size();
+        }
+        
+        try {
+            if (!startBudget()) {
+                for (int i = 0; i < size; i++) {
+                    process(clocks[i], ticks);
+                }
+                return;
+            }
+            
+            int deferred = 0;
+            for (Clock.Priority priority : PRIORITIES) {
+                deferred += tickLane(clocks, size, priority, ticks);
+            }
+            manager.metrics.countDeferred(deferred);
+        } finally {
+            synchronized (registry) {
+                registry.endIteration();
+            }
+        }
+    }
+    
+    /**
+     * Processes the clocks with a priority while the budget lasts, starting where the budget ran out in the previous tick so every clock gets its turn
+     * @return The amount of clocks that were deferred
+     */
+    private int tickLane(Clock<?>[] clocks, int size, Clock.Priority priority, int ticks) {
+        boolean critical = priority == Clock.Priority.CRITICAL;
+        int start = Math.min(this.cursors[priority.ordinal()], size);
+        int deferred = 0;
+        for (int n = 0; n < size; n++) {
+            int i = start + n < size ? start + n : start + n - size;
+            Clock<?> clock = clocks[i];
+            if (clock == null || clock.getPriority() != priority || clock.isPaused()) {
+                continue;
+            }
+            
+            if (!critical && overBudget()) {
+                if (deferred++ == 0) {
+                    this.cursors[priority.ordinal()] = i;
+                }
+                clock.deferredTicks += ticks;
+                countDeferral(clock);
+                continue;
+            }
+            
+            clock.deferred = false;
+            process(clock, ticks);
+        }
+        return deferred;
+    }
+    
+    private void process(Clock<?> clock, int ticks) {
+        if (clock == null || clock.isPaused()) {
+            return;
+        }
+        
+        long behind = ticks - 1 + clock.deferredTicks;
+        if (behind > 0) {
+            clock.deferredTicks = 0;
+            clock.countFor(behind * clock.getCountAmount());
+        }
+        
+        clock.callback();
+        if (!clock.isCancelled()) {
+            clock.count();
+        } else {
+            manager.expire(clock);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.starmediadev.starclock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Estimates the heap used by objects from their fields, for the footprint report of a {@link ClockManager}, see {@link ClockManager#getFootprint()} <br>
+ * Objects have a header and their fields packed after it, rounded up to the alignment of 8 bytes. References take 4 bytes when the JVM uses compressed references, and 8 bytes otherwise. <br>
+ * The JVM is free to lay out objects differently, so these are estimates.
+ */
+final class ObjectSizes {
+    private static final boolean COMPRESSED = compressedReferences();
+    static final int REFERENCE = COMPRESSED ? 4 : 8;
+    private static final int HEADER = COMPRESSED ? 12 : 16;
+    private static final int ARRAY_HEADER = COMPRESSED ? 16 : 24;
+    private static final ClassValue<Long> SHALLOW = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long size = HEADER;
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += size(field.getType());
+                    }
+                }
+            }
+            return align(size);
+        }
+    };
+    
+    private ObjectSizes() {
+    }
+    
+    /**
+     * @param type A class
+     * @return The size of an instance of the class without the objects it references
+     */
+    static long shallow(Class<?> type) {
+        return SHALLOW.get(type);
+    }
+    
+    /**
+     * @param component The component type of the array
+     * @param length The length of the array
+     * @return The size of the array without the objects it references
+     */
+    static long array(Class<?> component, int length) {
+        return align(ARRAY_HEADER + (long) size(component) * length);
+    }
+    
+    private static int size(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+    
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+    
+    private static boolean compressedReferences() {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            return bean == null || Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException | LinkageError e) {
+            return !"64".equals(System.getProperty("sun.arch.data.model")) || Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,367 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A variant of the {@link ClockManager} that partitions its clocks across multiple shards, which are counted in parallel. <br>
+ * Each shard has its own {@link Shard} runnable and a local list of clocks that is only touched by the thread running that shard. Clocks added or removed from other threads are queued and applied at the start of the next run of the shard. <br>
+ * The thread running a shard owns its clocks for the whole run, the same as the {@link ClockRunnable} of a ClockManager. Changes to a clock from other threads are made right away while the shard is not running, and otherwise queued and made at the start of the next run of the shard. <br>
+ * The shard of a clock is based on its identity hash, so a clock stays on the same shard for as long as it is registered. <br>
+ * You must handle the scheduling of the runnable provided by {@link ShardedClockManager#getRunnable()}, just like with the ClockManager. Each run of it runs every shard on its executor and waits for all of them to finish. <br>
+ * When every shard has its own single threaded executor (the default), the callbacks of a clock always run on the same thread.
+ */
+public class ShardedClockManager {
+    protected final Shard[] shards;
+    protected final Executor[] executors;
+    protected final ExecutorService[] ownedExecutors;
+    protected final Runnable runnable;
+    protected long countAmount;
+    protected Logger logger;
+    
+    /**
+     * Constructs a new ShardedClockManager that creates a dedicated thread for each shard. Use {@link ShardedClockManager#shutdown()} to stop them
+     * @param logger The logger to be used (Currently has no actual use, yet)
+     * @param countAmount The amount of milliseconds to count by for the clocks that are registered to this Manager
+     * @param shardCount The amount of shards, usually the amount of available cores
+     */
+    public ShardedClockManager(Logger logger, long countAmount, int shardCount) {
+        this(logger, countAmount, createExecutors(shardCount), true);
+    }
+    
+    /**
+     * Constructs a new ShardedClockManager that runs its shards in a ForkJoinPool. <br>
+     * A shard never runs concurrently with itself, but the pool does not guarantee that it runs on the same thread every time.
+     * @param logger The logger to be used (Currently has no actual use, yet)
+     * @param countAmount The amount of milliseconds to count by for the clocks that are registered to this Manager
+     * @param shardCount The amount of shards
+     * @param pool The pool to run the shards in
+     */
+    public ShardedClockManager(Logger logger, long countAmount, int shardCount, ForkJoinPool pool) {
+        this(logger, countAmount, fill(shardCount, pool), false);
+    }
+    
+    /**
+     * Constructs a new ShardedClockManager with a shard for every executor provided. Each shard always runs on the executor at the same index
+     * @param logger The logger to be used (Currently has no actual use, yet)
+     * @param countAmount The amount of milliseconds to count by for the clocks that are registered to this Manager
+     * @param executors The executors to run the shards on
+     */
+    public ShardedClockManager(Logger logger, long countAmount, Executor... executors) {
+        this(logger, countAmount, executors, false);
+    }
+    
+    private ShardedClockManager(Logger logger, long countAmount, Executor[] executors, boolean owned) {
+        if (executors.length == 0) {
+            throw new IllegalArgumentException("A ShardedClockManager needs at least one shard");
+        }
+        
+        this.logger = logger;
+        this.countAmount = countAmount;
+        this.executors = executors.clone();
+        this.shards = new Shard[executors.length];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new Shard(this, i);
+        }
+        
+        if (owned) {
+            this.ownedExecutors = new ExecutorService[executors.length];
+            for (int i = 0; i < executors.length; i++) {
+                this.ownedExecutors[i] = (ExecutorService) executors[i];
+            }
+        } else {
+            this.ownedExecutors = new ExecutorService[0];
+        }
+        this.runnable = this::runShards;
+    }
+    
+    /**
+     * @return The logger instance
+     */
+    public Logger getLogger() {
+        return logger;
+    }
+    
+    /**
+     * Adds a clock to this manager. It is added to its shard on the next run of that shard
+     * @param clock The clock to add
+     */
+    public void addClock(Clock<? extends ClockSnapshot> clock) {
+        Shard shard = getShard(clock);
+        clock.shard = shard;
+        shard.changes.add(new Change(clock, true));
+    }
+    
+    /**
+     * Removes a clock from this manager. It is removed from its shard on the next run of that shard
+     * @param clock The clock to remove, this must be an exact instance
+     */
+    public void removeClock(Clock<? extends ClockSnapshot> clock) {
+        getShard(clock).changes.add(new Change(clock, false));
+    }
+    
+    /**
+     * Factory method to create a {@link Timer} and register the timer with this Manager
+     * @param length The length of time to run the timer in milliseconds.
+     * @return The timer instance
+     */
+    public Timer createTimer(long length) {
+        Timer timer = new Timer(length, countAmount);
+        addClock(timer);
+        return timer;
+    }
+    
+    /**
+     * Factory method to create a {@link Stopwatch} and register the stopwatch with this Manager
+     * @param endTime The end time of the stopwatch in milliseconds.
+     * @return The stopwatch instance
+     */
+    public Stopwatch createStopwatch(long endTime) {
+        Stopwatch stopwatch = new Stopwatch(endTime, countAmount);
+        addClock(stopwatch);
+        return stopwatch;
+    }
+    
+    /**
+     * @param clock The clock
+     * @return The shard that the clock belongs to. This is the same for the lifetime of the clock
+     */
+    public Shard getShard(Clock<?> clock) {
+        return shards[Math.floorMod(System.identityHashCode(clock), shards.length)];
+    }
+    
+    /**
+     * @return The shards of this Manager
+     */
+    public List<Shard> getShards() {
+        return List.of(shards);
+    }
+    
+    /**
+     * @return The runnable that runs every shard in parallel and waits for them to finish
+     */
+    public Runnable getRunnable() {
+        return runnable;
+    }
+    
+    /**
+     * @return A copy of all clocks registered to this Manager, as of the last run of each shard
+     */
+    public List<Clock<? extends ClockSnapshot>> getClocks() {
+        List<Clock<? extends ClockSnapshot>> clocks = new ArrayList<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                clocks.addAll(shard.clocks.copy());
+            }
+        }
+        return clocks;
+    }
+    
+    /**
+     * @return The amount in milliseconds that clocks count by that are registered to this Manager
+     */
+    public long getCountAmount() {
+        return countAmount;
+    }
+    
+    /**
+     * Sets the amount of milliseconds that future clocks count by that are registered to this Manager
+     * @param countAmount The count amount in milliseconds
+     */
+    public void setCountAmount(long countAmount) {
+        this.countAmount = countAmount;
+    }
+    
+    /**
+     * Shuts down the threads that this Manager created for its shards. This does nothing if the executors were provided
+     */
+    public void shutdown() {
+        for (ExecutorService executor : ownedExecutors) {
+            executor.shutdown();
+        }
+    }
+    
+    private void runShards() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            futures[i] = CompletableFuture.runAsync(shards[i], executors[i]);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+    
+    private static Executor[] createExecutors(int shardCount) {
+        Executor[] executors = new Executor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String name = "StarClock-Shard-" + i;
+            executors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executors;
+    }
+    
+    private static Executor[] fill(int shardCount, Executor executor) {
+        Executor[] executors = new Executor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            executors[i] = executor;
+        }
+        return executors;
+    }
+    
+    /**
+     * A single shard of a {@link ShardedClockManager}. This counts the clocks of the shard the same way the {@link ClockRunnable} does for a ClockManager. <br>
+     * An exception thrown while processing a clock is reported to the logger of the manager, and does not stop the other clocks of the shard.
+     */
+    public static final class Shard implements Runnable {
+        private final ShardedClockManager manager;
+        private final int index;
+        private final ClockRegistry clocks = new ClockRegistry();
+        private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+        private final Queue<Runnable> boundaryTasks = new ConcurrentLinkedQueue<>();
+        /**
+         * The thread that owns the clocks of this shard, see {@link ClockManager#ownsClocks()}
+         */
+        private final AtomicReference<Thread> owner = new AtomicReference<>();
+        
+        private Shard(ShardedClockManager manager, int index) {
+            this.manager = manager;
+            this.index = index;
+        }
+        
+        /**
+         * @return The index of this shard
+         */
+        public int getIndex() {
+            return index;
+        }
+        
+        /**
+         * @return The amount of clocks in this shard as of the last run
+         */
+        public synchronized int size() {
+            return clocks.count();
+        }
+        
+        /**
+         * @return If the current thread owns the clocks of this shard and can change them directly
+         */
+        boolean ownsClocks() {
+            return this.owner.get() == Thread.currentThread();
+        }
+        
+        /**
+         * Makes a change to a clock of this shard from a thread that does not own the clocks, the same way as {@link ClockManager#mutate(Runnable)}
+         * @param change The change, which is made while owning the clocks
+         */
+        void mutate(Runnable change) {
+            if (this.boundaryTasks.isEmpty() && this.owner.compareAndSet(null, Thread.currentThread())) {
+                try {
+                    if (this.boundaryTasks.isEmpty()) {
+                        change.run();
+                        return;
+                    }
+                } finally {
+                    this.owner.set(null);
+                }
+            }
+            
+            this.boundaryTasks.add(change);
+        }
+        
+        @Override
+        public synchronized void run() {
+            Thread thread = Thread.currentThread();
+            while (!this.owner.compareAndSet(null, thread)) {
+                Thread.onSpinWait();
+            }
+            
+            try {
+                runOwned();
+            } finally {
+                this.owner.set(null);
+            }
+        }
+        
+        private void runOwned() {
+            Change change;
+            while ((change = changes.poll()) != null) {
+                if (change.added()) {
+                    clocks.add(change.clock());
+                    change.clock().shard = this;
+                } else {
+                    clocks.remove(change.clock());
+                    release(change.clock());
+                }
+            }
+            
+            Runnable task;
+            while ((task = boundaryTasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log("A task at the start of a run of shard " + index + " failed", e);
+                }
+            }
+            
+            clocks.beginIteration();
+            try {
+                Clock<?>[] array = clocks.array();
+                int size = clocks.size();
+                for (int i = 0; i < size; i++) {
+                    Clock<?> clock = array[i];
+                    if (clock == null || clock.isPaused()) {
+                        continue;
+                    }
+                    
+                    try {
+                        process(clock);
+                    } catch (RuntimeException e) {
+                        log("Processing a clock in shard " + index + " failed", e);
+                    }
+                }
+            } finally {
+                clocks.endIteration();
+            }
+        }
+        
+        private void log(String message, RuntimeException e) {
+            Logger logger = manager.logger;
+            if (logger != null) {
+                logger.log(Level.SEVERE, message, e);
+            }
+        }
+        
+        /**
+         * Lets a clock that left this shard be changed directly again
+         */
+        private void release(Clock<?> clock) {
+            if (clock.shard == this) {
+                clock.shard = null;
+            }
+        }
+        
+        private void process(Clock<?> clock) {
+            clock.callback();
+            if (clock.isCancelled()) {
+                clocks.remove(clock);
+                release(clock);
+                return;
+            }
+            clock.count();
+        }
+    }
+    
+    private record Change(Clock<?> clock, boolean added) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Flow.Publisher} of the snapshots of a single clock, or of every clock of a {@link ClockManager}. See {@link ClockManager#createPublisher(Clock)} and {@link ClockManager#createPublisher()} <br>
+ * At the end of a run of the {@link ClockRunnable}, every subscription that is due for a sample is marked, which is all the work done on the thread running it. The snapshots are read on the {@link Executor} of the publisher when they are delivered, see {@link Clock#readSnapshot()} <br>
+ * Samples are conflated: a subscriber that did not request more items when a new sample is due does not get the samples it missed, only the latest values once it requests more. For a manager, a sample is one snapshot of every clock, and a sample that is due while one is still being delivered starts once it finished. <br>
+ * Subscribers that block should be given their own executor, as they hold up the other subscribers of the executor while they do. <br>
+ * A publisher of a single clock completes its subscribers with a last snapshot once the clock is removed from the manager, or recycled by a {@link ClockPool}. Managers without publishers or subscribers do not do any work for them.
+ * @param <T> The type of the snapshots
+ */
+public final class SnapshotPublisher<T extends ClockSnapshot> implements Flow.Publisher<T> {
+    private static final Subscription<?>[] NO_SUBSCRIPTIONS = new Subscription<?>[0];
+    
+    private final ClockManager manager;
+    private final Clock<? extends T> clock;
+    private final Executor executor;
+    private final long generation;
+    @SuppressWarnings("unchecked")
+    private volatile Subscription<T>[] subscriptions = (Subscription<T>[]) NO_SUBSCRIPTIONS;
+    private boolean closed;
+    
+    SnapshotPublisher(ClockManager manager, Clock<? extends T> clock, Executor executor) {
+        this.manager = manager;
+        this.clock = clock;
+        this.executor = Objects.requireNonNull(executor);
+        this.generation = clock != null ? clock.generation : 0;
+    }
+    
+    /**
+     * Subscribes to a snapshot on every run of the {@link ClockRunnable}
+     * @param subscriber The subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        subscribe(subscriber, 0);
+    }
+    
+    /**
+     * Subscribes to the snapshots at an interval. Samples are taken at the end of the first run of the {@link ClockRunnable} after the interval passed, based on the {@link ClockSource} of the manager
+     * @param subscriber The subscriber
+     * @param interval The minimum amount of milliseconds between samples, or 0 to sample on every run
+     */
+    public void subscribe(Flow.Subscriber<? super T> subscriber, long interval) {
+        Objects.requireNonNull(subscriber);
+        if (interval < 0) {
+            throw new IllegalArgumentException("The interval cannot be negative");
+        }
+        
+        Subscription<T> subscription = new Subscription<>(this, subscriber, TimeUnit.MILLISECONDS.toNanos(interval));
+        synchronized (this) {
+            if (this.closed) {
+                subscription.completed = true;
+            } else {
+                Subscription<T>[] subscriptions = Arrays.copyOf(this.subscriptions, this.subscriptions.length + 1);
+                subscriptions[subscriptions.length - 1] = subscription;
+                this.subscriptions = subscriptions;
+            }
+        }
+        subscription.signal();
+    }
+    
+    /**
+     * @return The clock this publisher publishes the snapshots of, or null if it publishes the snapshots of every clock of the manager
+     */
+    public Clock<? extends T> getClock() {
+        return clock;
+    }
+    
+    /**
+     * @return The amount of subscribers that did not cancel and were not completed
+     */
+    public int getSubscriberCount() {
+        return subscriptions.length;
+    }
+    
+    /**
+     * @return If this publisher was closed, see {@link SnapshotPublisher#close()}
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * Completes every subscriber after the sample it is receiving, and removes this publisher from the manager. New subscribers are completed right away
+     */
+    public void close() {
+        Subscription<T>[] subscriptions;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            
+            this.closed = true;
+            subscriptions = this.subscriptions;
+        }
+        
+        manager.removePublisher(this);
+        for (Subscription<T> subscription : subscriptions) {
+            subscription.completed = true;
+            subscription.signal();
+        }
+    }
+    
+    /**
+     * Marks the subscriptions that are due for a sample. This is called by the {@link ClockRunnable} at the end of each run
+     * @param now The time of the run from the {@link ClockSource} of the manager
+     */
+    void publish(long now) {
+        Clock<? extends T> clock = this.clock;
+        if (clock != null) {
+            ClockEngine engine = clock.engine;
+            if (engine == null || engine.manager != this.manager || clock.generation != this.generation) {
+                for (Subscription<T> subscription : this.subscriptions) {
+                    subscription.sampled = true;
+                }
+                close();
+                return;
+            }
+        }
+        
+        Subscription<T>[] subscriptions = this.subscriptions;
+        for (Subscription<T> subscription : subscriptions) {
+            if (now - subscription.nextSample >= 0) {
+                subscription.nextSample = now + subscription.interval;
+                subscription.sampled = true;
+                subscription.signal();
+            }
+        }
+    }
+    
+    /**
+     * @return The clocks that a sample contains
+     */
+    private Clock<?>[] sources() {
+        if (this.clock != null) {
+            return new Clock<?>[] {this.clock};
+        }
+        
+        List<Clock<? extends ClockSnapshot>> clocks = this.manager.getClocks();
+        return clocks.toArray(new Clock<?>[0]);
+    }
+    
+    private synchronized void remove(Subscription<T> subscription) {
+        Subscription<T>[] subscriptions = this.subscriptions;
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i] == subscription) {
+                Subscription<T>[] copy = Arrays.copyOf(subscriptions, subscriptions.length - 1);
+                System.arraycopy(subscriptions, i + 1, copy, i, subscriptions.length - i - 1);
+                this.subscriptions = copy;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * The subscription of a single subscriber. All signals to the subscriber are made by {@link Subscription#run()}, which runs on the executor of the publisher and is never run by two threads at once
+     */
+    private static final class Subscription<T extends ClockSnapshot> implements Flow.Subscription, Runnable {
+        private final SnapshotPublisher<T> publisher;
+        private final Flow.Subscriber<? super T> subscriber;
+        private final long interval;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * When the next sample is due, only used by the thread running the {@link ClockRunnable}
+         */
+        private long nextSample;
+        private volatile boolean sampled;
+        private volatile boolean completed;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        private boolean subscribed;
+        private Clock<?>[] batch;
+        private int cursor;
+        
+        private Subscription(SnapshotPublisher<T> publisher, Flow.Subscriber<? super T> subscriber, long interval) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+            this.interval = interval;
+            this.nextSample = publisher.manager.nanoTime();
+        }
+        
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.error = new IllegalArgumentException("The amount of requested items must be positive, was " + n);
+            } else {
+                this.demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            signal();
+        }
+        
+        @Override
+        public void cancel() {
+            if (!this.cancelled) {
+                this.cancelled = true;
+                this.publisher.remove(this);
+            }
+        }
+        
+        /**
+         * Makes sure {@link Subscription#run()} runs after this call
+         */
+        private void signal() {
+            if (this.pending.getAndIncrement() == 0) {
+                try {
+                    this.publisher.executor.execute(this);
+                } catch (RuntimeException e) {
+                    this.pending.set(0);
+                    this.cancel();
+                    log(e);
+                }
+            }
+        }
+        
+        @Override
+        public void run() {
+            int missed = 1;
+            try {
+                do {
+                    if (!this.subscribed) {
+                        this.subscribed = true;
+                        this.subscriber.onSubscribe(this);
+                    }
+                    
+                    drain();
+                    missed = this.pending.addAndGet(-missed);
+                } while (missed != 0);
+            } catch (RuntimeException e) {
+                this.pending.set(0);
+                cancel();
+                log(e);
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            while (!this.cancelled) {
+                Throwable error = this.error;
+                if (error != null) {
+                    cancel();
+                    this.subscriber.onError(error);
+                    return;
+                }
+                
+                if (this.batch == null) {
+                    if (!this.sampled) {
+                        break;
+                    }
+                    this.sampled = false;
+                    this.batch = this.publisher.sources();
+                    this.cursor = 0;
+                }
+                
+                if (this.cursor == this.batch.length) {
+                    this.batch = null;
+                    continue;
+                }
+                
+                if (this.demand.get() == 0) {
+                    return;
+                }
+                
+                T snapshot = (T) this.batch[this.cursor++].readSnapshot();
+                if (this.demand.get() != Long.MAX_VALUE) {
+                    this.demand.decrementAndGet();
+                }
+                this.subscriber.onNext(snapshot);
+            }
+            
+            if (!this.cancelled && this.completed) {
+                cancel();
+                this.subscriber.onComplete();
+            }
+        }
+        
+        private void log(RuntimeException e) {
+            Logger logger = this.publisher.manager.getLogger();
+            if (logger != null) {
+                logger.log(Level.SEVERE, "A subscriber of a SnapshotPublisher failed", e);
+            }
+        }
+    }
+}
\ No newline at end of file
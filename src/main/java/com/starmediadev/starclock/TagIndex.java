@@ -0,0 +1,185 @@
+package com.starmediadev.starclock;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The index of the tags of the clocks of a {@link ClockManager}, see {@link ClockGroup}. <br>
+ * Every tag has an array of its clocks, and every clock knows its slot in the array of each of its tags, so tagging and untagging take constant time and going through a group takes time proportional to its size. <br>
+ * Tags without clocks are removed from the index.
+ */
+final class TagIndex {
+    static final Members[] NO_TAGS = new Members[0];
+    static final int[] NO_SLOTS = new int[0];
+    
+    private final Map<String, Members> groups = new HashMap<>();
+    
+    /**
+     * @param clock The clock
+     * @param tag The tag to add to the clock
+     * @return false if the clock already had the tag
+     */
+    synchronized boolean tag(Clock<?> clock, String tag) {
+        Members members = this.groups.computeIfAbsent(tag, Members::new);
+        if (indexOf(clock, members) >= 0) {
+            return false;
+        }
+        
+        int slot = members.add(clock);
+        int length = clock.tags.length;
+        clock.tags = Arrays.copyOf(clock.tags, length + 1);
+        clock.tagSlots = Arrays.copyOf(clock.tagSlots, length + 1);
+        clock.tags[length] = members;
+        clock.tagSlots[length] = slot;
+        return true;
+    }
+    
+    /**
+     * @param clock The clock
+     * @param tag The tag to remove from the clock
+     * @return false if the clock did not have the tag
+     */
+    synchronized boolean untag(Clock<?> clock, String tag) {
+        Members members = this.groups.get(tag);
+        if (members == null) {
+            return false;
+        }
+        
+        int index = indexOf(clock, members);
+        if (index < 0) {
+            return false;
+        }
+        
+        removeMembership(clock, index);
+        return true;
+    }
+    
+    /**
+     * Removes every tag of a clock
+     * @param clock The clock
+     */
+    synchronized void remove(Clock<?> clock) {
+        for (int i = clock.tags.length - 1; i >= 0; i--) {
+            removeMembership(clock, i);
+        }
+    }
+    
+    synchronized List<String> tags(Clock<?> clock) {
+        List<String> tags = new ArrayList<>(clock.tags.length);
+        for (Members members : clock.tags) {
+            tags.add(members.tag);
+        }
+        return Collections.unmodifiableList(tags);
+    }
+    
+    synchronized Set<String> tags() {
+        return Set.copyOf(this.groups.keySet());
+    }
+    
+    synchronized int size(String tag) {
+        Members members = this.groups.get(tag);
+        return members == null ? 0 : members.size;
+    }
+    
+    synchronized List<Clock<?>> clocks(String tag) {
+        Members members = this.groups.get(tag);
+        if (members == null) {
+            return List.of();
+        }
+        return List.of(Arrays.copyOf(members.clocks, members.size));
+    }
+    
+    /**
+     * Runs an action for every clock with a tag, while holding the lock of the index
+     * @param tag The tag
+     * @param action The action
+     * @return The amount of clocks the action ran for
+     */
+    synchronized int forEach(String tag, Consumer<Clock<?>> action) {
+        Members members = this.groups.get(tag);
+        if (members == null) {
+            return 0;
+        }
+        
+        int size = members.size;
+        Clock<?>[] clocks = members.clocks;
+        for (int i = 0; i < size; i++) {
+            action.accept(clocks[i]);
+        }
+        return size;
+    }
+    
+    private void removeMembership(Clock<?> clock, int index) {
+        Members members = clock.tags[index];
+        Clock<?> moved = members.remove(clock.tagSlots[index]);
+        if (moved != null) {
+            moved.tagSlots[indexOf(moved, members)] = clock.tagSlots[index];
+        }
+        
+        if (members.size == 0) {
+            this.groups.remove(members.tag);
+        }
+        
+        int length = clock.tags.length - 1;
+        if (length == 0) {
+            clock.tags = NO_TAGS;
+            clock.tagSlots = NO_SLOTS;
+            return;
+        }
+        
+        Members[] tags = Arrays.copyOf(clock.tags, length);
+        int[] slots = Arrays.copyOf(clock.tagSlots, length);
+        if (index < length) {
+            tags[index] = clock.tags[length];
+            slots[index] = clock.tagSlots[length];
+        }
+        clock.tags = tags;
+        clock.tagSlots = slots;
+    }
+    
+    private static int indexOf(Clock<?> clock, Members members) {
+        Members[] tags = clock.tags;
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] == members) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * The clocks with a tag
+     */
+    static final class Members {
+        final String tag;
+        Clock<?>[] clocks = new Clock<?>[4];
+        int size;
+        
+        Members(String tag) {
+            this.tag = tag;
+        }
+        
+        int add(Clock<?> clock) {
+            if (this.size == this.clocks.length) {
+                this.clocks = Arrays.copyOf(this.clocks, this.size * 2);
+            }
+            this.clocks[this.size] = clock;
+            return this.size++;
+        }
+        
+        /**
+         * Removes the clock in a slot by moving the last clock into it
+         * @return The clock that was moved, or null if the removed clock was the last one
+         */
+        Clock<?> remove(int slot) {
+            int last = --this.size;
+            Clock<?> moved = this.clocks[last];
+            this.clocks[last] = null;
+            if (slot == last) {
+                return null;
+            }
+            this.clocks[slot] = moved;
+            return moved;
+        }
+    }
+}
\ No newline at end of file
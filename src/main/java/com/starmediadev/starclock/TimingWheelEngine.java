@@ -0,0 +1,261 @@
+package com.starmediadev.starclock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An engine that stores clocks in a hierarchical timing wheel based on the tick that they next have something to do. <br>
+ * The time of a clock is not counted on every tick, it is instead calculated from the amount of ticks since it was last brought up to date. <br>
+ * Clocks are placed in the wheel based on their pending callbacks and end condition (see {@link Clock#nextEventDelay()}), so a tick only visits the clocks that are due in it. <br>
+ * Clocks with an end condition that cannot be calculated ahead of time are still visited on every tick. <br>
+ * When multiple ticks are processed at once, every clock that was due in any of them is processed once, with the time of the last tick.
+ */
+final class TimingWheelEngine extends ClockEngine {
+    
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final int POLLED = LEVELS * WHEEL_SIZE;
+    private static final int OVERFLOW = POLLED + 1;
+    private static final int NONE = -1;
+    private static final long MAX_TICKS = Long.MAX_VALUE >> 2;
+    
+    private final Node[] buckets = new Node[OVERFLOW + 1];
+    private final List<Node> firing = new ArrayList<>();
+    private final List<Node> cascading = new ArrayList<>();
+    private volatile long tick;
+    private boolean ticking;
+    
+    TimingWheelEngine(ClockManager manager) {
+        super(manager);
+    }
+    
+    @Override
+    synchronized void register(Clock<?> clock) {
+        clock.engine = this;
+        clock.anchor = this.tick;
+        clock.entry = new Node(clock);
+        schedule((Node) clock.entry);
+    }
+    
+    @Override
+    synchronized void unregister(Clock<?> clock) {
+        if (clock.engine != this) {
+            return;
+        }
+        
+        sync(clock);
+        unlink((Node) clock.entry);
+        clock.entry = null;
+        clock.engine = null;
+    }
+    
+    @Override
+    synchronized void sync(Clock<?> clock) {
+        if (!manager.ownsClocks()) {
+            return;
+        }
+        
+        long ticks = this.tick - clock.anchor;
+        if (ticks > 0 && !clock.paused) {
+            clock.countFor(ticks * clock.getCountAmount(), this.tick);
+        } else {
+            clock.anchor = this.tick;
+        }
+    }
+    
+    @Override
+    long pendingMillis(Clock<?> clock) {
+        long ticks = this.tick - clock.anchor;
+        return ticks > 0 ? ticks * clock.getCountAmount() : 0;
+    }
+    
+    @Override
+    synchronized void update(Clock<?> clock) {
+        if (clock.engine != this) {
+            return;
+        }
+        
+        Node node = (Node) clock.entry;
+        unlink(node);
+        schedule(node);
+    }
+    
+    @Override
+    void tick(int ticks) {
+        synchronized (this) {
+            this.ticking = true;
+            for (int i = 0; i < ticks; i++) {
+                if (i > 0) {
+                    this.tick++;
+                }
+                cascade();
+                collect((int) (this.tick & WHEEL_MASK), this.firing);
+            }
+            collect(POLLED, this.firing);
+        }
+        
+        try {
+            fireDue(this.firing);
+        } finally {
+            synchronized (this) {
+                this.firing.clear();
+                this.tick++;
+                this.ticking = false;
+            }
+        }
+    }
+    
+    @Override
+    void fire(Entry entry) {
+        Node node = (Node) entry;
+        Clock<?> clock = node.clock;
+        synchronized (this) {
+            if (node.bucket != NONE || clock.entry != node) {
+                return;
+            }
+            
+            sync(clock);
+        }
+        
+        if (clock.isPaused()) {
+            return;
+        }
+        
+        clock.callback();
+        if (clock.isCancelled()) {
+            manager.expire(clock);
+        } else {
+            update(clock);
+        }
+    }
+    
+    @Override
+    synchronized void defer(Entry entry) {
+        Node node = (Node) entry;
+        if (node.bucket == NONE && node.clock.entry == node) {
+            schedule(node);
+        }
+    }
+    
+    private void schedule(Node node) {
+        Clock<?> clock = node.clock;
+        if (clock.paused) {
+            return;
+        }
+        
+        long earliest = this.ticking ? this.tick + 1 : this.tick;
+        if (clock.cancelled) {
+            link(node, earliest);
+            return;
+        }
+        
+        sync(clock);
+        long delay = clock.nextEventDelay();
+        if (delay < 0) {
+            push(node, POLLED);
+            return;
+        }
+        
+        long countAmount = clock.getCountAmount();
+        if (delay == Long.MAX_VALUE || (delay > 0 && countAmount <= 0)) {
+            return;
+        }
+        
+        long ticks = delay == 0 ? 0 : Math.min((delay + countAmount - 1) / countAmount, MAX_TICKS);
+        link(node, Math.max(this.tick + ticks, earliest));
+    }
+    
+    private void cascade() {
+        int level = 0;
+        while (level < LEVELS && (this.tick & ((1L << (WHEEL_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        
+        if (level == LEVELS) {
+            collect(OVERFLOW, this.cascading);
+            level--;
+        }
+        
+        for (; level > 0; level--) {
+            collect(level * WHEEL_SIZE + (int) ((this.tick >>> (WHEEL_BITS * level)) & WHEEL_MASK), this.cascading);
+        }
+        
+        for (int i = 0; i < this.cascading.size(); i++) {
+            Node node = this.cascading.get(i);
+            link(node, node.deadline);
+        }
+        this.cascading.clear();
+    }
+    
+    private void link(Node node, long deadline) {
+        node.deadline = deadline;
+        long delta = deadline - this.tick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (WHEEL_BITS * (level + 1))) {
+                push(node, level * WHEEL_SIZE + (int) ((deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK));
+                return;
+            }
+        }
+        
+        push(node, OVERFLOW);
+    }
+    
+    private void push(Node node, int bucket) {
+        Node head = this.buckets[bucket];
+        node.bucket = bucket;
+        node.prev = null;
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        this.buckets[bucket] = node;
+    }
+    
+    private void unlink(Node node) {
+        if (node.bucket == NONE) {
+            return;
+        }
+        
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            this.buckets[node.bucket] = node.next;
+        }
+        
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        
+        node.prev = null;
+        node.next = null;
+        node.bucket = NONE;
+    }
+    
+    private void collect(int bucket, List<Node> into) {
+        Node node = this.buckets[bucket];
+        this.buckets[bucket] = null;
+        while (node != null) {
+            Node next = node.next;
+            node.prev = null;
+            node.next = null;
+            node.bucket = NONE;
+            into.add(node);
+            node = next;
+        }
+    }
+    
+    /**
+     * The entry of a clock in the wheel
+     */
+    static final class Node extends Entry {
+        private Node prev, next;
+        private int bucket = NONE;
+        private long deadline;
+        
+        private Node(Clock<?> clock) {
+            super(clock);
+        }
+    }
+}
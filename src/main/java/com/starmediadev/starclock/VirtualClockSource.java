@@ -0,0 +1,32 @@
+package com.starmediadev.starclock;
+
+/**
+ * A {@link ClockSource} with simulated time, which only moves when the {@link ClockManager} using it is advanced with {@link ClockManager#advance(long)} or {@link ClockManager#advanceToNextEvent()} <br>
+ * This lets a manager run hours of clock time in as long as it takes to process the callbacks, jumping from one callback or end condition to the next. Given the same clocks and changes, the callbacks run in the same order every time. <br>
+ * A source is meant for a single manager, as advancing a manager moves the time of every manager that uses the source.
+ */
+public final class VirtualClockSource implements ClockSource {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    
+    private volatile long nanos;
+    
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+    
+    /**
+     * @return The simulated milliseconds since this source was created
+     */
+    public long getMillis() {
+        return nanos / NANOS_PER_MILLI;
+    }
+    
+    /**
+     * Moves the simulated time forward. This is done by the manager using this source
+     * @param nanos The nanoseconds to move forward by
+     */
+    void advance(long nanos) {
+        this.nanos += nanos;
+    }
+}
\ No newline at end of file
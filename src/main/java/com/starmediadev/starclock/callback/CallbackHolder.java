@@ -3,26 +3,25 @@ package com.starmediadev.starclock.callback;
 import com.starmediadev.starclock.Clock;
 import com.starmediadev.starclock.snapshot.ClockSnapshot;
 
-import java.util.UUID;
-
 /**
  * This class is mainly for internal use, however, this class is used for some checks and logic for Clocks <br>
  * @param <T> The Snapshot type
  */
 public class CallbackHolder<T extends ClockSnapshot> {
     protected final ClockCallback<T> callback;
-    protected final UUID callbackId;
+    protected final long callbackId;
     protected final long interval;
     protected long lastRun;
-    protected boolean status = true;
+    protected volatile boolean status = true;
+    protected MissedCallbackPolicy missedCallbackPolicy;
     
     /**
      * Constructs a new CallbackHolder
      * @param callback The callback reference
-     * @param callbackId The ID of the callback
+     * @param callbackId The ID of the callback, which is unique within its clock
      * @param interval The interval that the callback runs at in milliseconds
      */
-    public CallbackHolder(ClockCallback<T> callback, UUID callbackId, long interval) {
+    public CallbackHolder(ClockCallback<T> callback, long callbackId, long interval) {
         this.callback = callback;
         this.callbackId = callbackId;
         this.interval = interval;
@@ -35,6 +34,13 @@ public class CallbackHolder<T extends ClockSnapshot> {
         return callback;
     }
     
+    /**
+     * @return The ID of the callback
+     */
+    public long getCallbackId() {
+        return callbackId;
+    }
+    
     /**
      * @return The interval in milliseconds
      */
@@ -65,6 +71,21 @@ public class CallbackHolder<T extends ClockSnapshot> {
         this.status = status;
     }
     
+    /**
+     * @return The policy for missed intervals of this callback. If this is null, the policy of the {@link com.starmediadev.starclock.ClockManager} is used
+     */
+    public MissedCallbackPolicy getMissedCallbackPolicy() {
+        return missedCallbackPolicy;
+    }
+    
+    /**
+     * Overrides the policy for missed intervals for this callback. See {@link MissedCallbackPolicy}
+     * @param missedCallbackPolicy The policy, or null to use the one of the {@link com.starmediadev.starclock.ClockManager}
+     */
+    public void setMissedCallbackPolicy(MissedCallbackPolicy missedCallbackPolicy) {
+        this.missedCallbackPolicy = missedCallbackPolicy;
+    }
+    
     /**
      * The status is a flag that controls if the callback should continue or not. This is controlled by returning true or false in the {@link ClockCallback#callback(ClockSnapshot)} method. <br>
      * When returning false from that method, it will not be called again for the duration of the clock, unless you call the {@link Clock#resetCallbackStatus()} method
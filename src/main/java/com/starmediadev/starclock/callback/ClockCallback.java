@@ -32,4 +32,13 @@ public interface ClockCallback<T extends ClockSnapshot> {
     default long getInterval() {
         return 1L;
     }
+    
+    /**
+     * The points this callback should run at instead of an interval, used by the {@link Clock#addCallback(ClockCallback)} method. <br>
+     * This is also used when a callback is restored from a {@link com.starmediadev.starclock.ClockCheckpoint} or {@link com.starmediadev.starclock.ClockJournal}, as the points are not saved.
+     * @return The points, or null to run at the interval
+     */
+    default TriggerSchedule getTriggers() {
+        return null;
+    }
 }
\ No newline at end of file
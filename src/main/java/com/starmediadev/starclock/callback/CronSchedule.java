@@ -0,0 +1,209 @@
+package com.starmediadev.starclock.callback;
+
+import com.starmediadev.starclock.Clock;
+
+/**
+ * A {@link TriggerSchedule} of a cron-like expression over clock time, see {@link TriggerSchedule#cron(String)} <br>
+ * The values of every field are kept as bits, so the next point is found by looking for the next set bit of the seconds, minutes and hours instead of checking every second.
+ */
+final class CronSchedule implements TriggerSchedule {
+    private static final long SECOND = 1000L;
+    private static final int[] LIMITS = {60, 60, 24};
+    
+    private final String expression;
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    
+    CronSchedule(String expression) {
+        this.expression = expression;
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length > LIMITS.length || fields[0].isEmpty()) {
+            throw new IllegalArgumentException("A trigger expression has 1 to 3 fields: " + expression);
+        }
+        
+        long[] bits = new long[LIMITS.length];
+        for (int i = 0; i < LIMITS.length; i++) {
+            bits[i] = i < fields.length ? parse(fields[i], LIMITS[i]) : (1L << LIMITS[i]) - 1;
+        }
+        this.seconds = bits[0];
+        this.minutes = bits[1];
+        this.hours = bits[2];
+    }
+    
+    private long parse(String field, int limit) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = number(part.substring(slash + 1), 1, limit);
+                part = part.substring(0, slash);
+            }
+            
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = 0;
+                to = limit - 1;
+            } else {
+                int dash = part.indexOf('-');
+                from = number(dash >= 0 ? part.substring(0, dash) : part, 0, limit - 1);
+                to = dash >= 0 ? number(part.substring(dash + 1), from, limit - 1) : (slash >= 0 ? limit - 1 : from);
+            }
+            
+            for (int value = from; value <= to; value += step) {
+                bits |= 1L << value;
+            }
+        }
+        return bits;
+    }
+    
+    private int number(String value, int min, int max) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= min && number <= max) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' in trigger expression: " + expression, e);
+        }
+        throw new IllegalArgumentException("Value " + value + " is not within " + min + "-" + max + " in trigger expression: " + expression);
+    }
+    
+    @Override
+    public long next(long time, boolean inclusive, Clock.CountOperation operation) {
+        if (operation == Clock.CountOperation.UP) {
+            long from = inclusive ? Math.floorDiv(time + SECOND - 1, SECOND) : Math.floorDiv(time, SECOND) + 1;
+            long second = after(Math.max(0, from));
+            return second > Long.MAX_VALUE / SECOND ? NONE : second * SECOND;
+        }
+        
+        long from = inclusive ? Math.floorDiv(time, SECOND) : Math.floorDiv(time + SECOND - 1, SECOND) - 1;
+        if (from < 0) {
+            return NONE;
+        }
+        long second = before(from);
+        return second < 0 ? NONE : second * SECOND;
+    }
+    
+    /**
+     * @return The first second of clock time at or after the provided one that matches
+     */
+    private long after(long from) {
+        long day = from / 86400;
+        int hour = (int) (from / 3600 % 24);
+        int minute = (int) (from / 60 % 60);
+        int second = (int) (from % 60);
+        while (true) {
+            int nextHour = nextBit(this.hours, hour);
+            if (nextHour < 0) {
+                day++;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if (nextHour != hour) {
+                hour = nextHour;
+                minute = 0;
+                second = 0;
+            }
+            
+            int nextMinute = nextBit(this.minutes, minute);
+            if (nextMinute < 0) {
+                hour++;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if (nextMinute != minute) {
+                minute = nextMinute;
+                second = 0;
+            }
+            
+            int nextSecond = nextBit(this.seconds, second);
+            if (nextSecond < 0) {
+                minute++;
+                second = 0;
+                continue;
+            }
+            return ((day * 24 + hour) * 60 + minute) * 60 + nextSecond;
+        }
+    }
+    
+    /**
+     * @return The last second of clock time at or before the provided one that matches, or -1 if there is none
+     */
+    private long before(long from) {
+        long day = from / 86400;
+        int hour = (int) (from / 3600 % 24);
+        int minute = (int) (from / 60 % 60);
+        int second = (int) (from % 60);
+        while (day >= 0) {
+            int previousHour = previousBit(this.hours, hour);
+            if (previousHour < 0) {
+                day--;
+                hour = 23;
+                minute = 59;
+                second = 59;
+                continue;
+            }
+            if (previousHour != hour) {
+                hour = previousHour;
+                minute = 59;
+                second = 59;
+            }
+            
+            int previousMinute = previousBit(this.minutes, minute);
+            if (previousMinute < 0) {
+                hour--;
+                minute = 59;
+                second = 59;
+                continue;
+            }
+            if (previousMinute != minute) {
+                minute = previousMinute;
+                second = 59;
+            }
+            
+            int previousSecond = previousBit(this.seconds, second);
+            if (previousSecond < 0) {
+                minute--;
+                second = 59;
+                continue;
+            }
+            return ((day * 24 + hour) * 60 + minute) * 60 + previousSecond;
+        }
+        return -1;
+    }
+    
+    /**
+     * @return The first set bit at or above the index, or -1 if there is none
+     */
+    private static int nextBit(long bits, int index) {
+        if (index >= 64) {
+            return -1;
+        }
+        
+        long remaining = bits & (-1L << index);
+        return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+    
+    /**
+     * @return The last set bit at or below the index, or -1 if there is none
+     */
+    private static int previousBit(long bits, int index) {
+        if (index < 0) {
+            return -1;
+        }
+        
+        long remaining = bits & (-1L >>> (63 - index));
+        return remaining == 0 ? -1 : 63 - Long.numberOfLeadingZeros(remaining);
+    }
+    
+    @Override
+    public String toString() {
+        return "TriggerSchedule[" + expression + "]";
+    }
+}
\ No newline at end of file
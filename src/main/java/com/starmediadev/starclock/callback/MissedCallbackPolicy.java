@@ -0,0 +1,21 @@
+package com.starmediadev.starclock.callback;
+
+/**
+ * Decides what happens when a clock moved past more than one interval of a callback before the callback could run. <br>
+ * This happens when the {@link com.starmediadev.starclock.ClockRunnable} runs late with drift correction enabled, when the interval is smaller than the count amount, or when time is added or removed. <br>
+ * The policy is set on the {@link com.starmediadev.starclock.ClockManager} and can be overridden for a single callback in the {@link CallbackHolder}
+ */
+public enum MissedCallbackPolicy {
+    /**
+     * The callback is called once for every interval that was passed, in order, with a snapshot that has the time of that interval
+     */
+    FIRE_ALL,
+    /**
+     * The callback is called once with the current snapshot. This is the default
+     */
+    COALESCE,
+    /**
+     * The missed intervals are dropped and the callback continues from the current time without being called
+     */
+    SKIP
+}
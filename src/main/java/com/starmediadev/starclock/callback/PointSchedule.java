@@ -0,0 +1,33 @@
+package com.starmediadev.starclock.callback;
+
+import com.starmediadev.starclock.Clock;
+
+import java.util.Arrays;
+
+/**
+ * A {@link TriggerSchedule} of a fixed list of points, which are sorted so the next one is found with a binary search
+ */
+final class PointSchedule implements TriggerSchedule {
+    private final long[] points;
+    
+    PointSchedule(long[] points) {
+        this.points = Arrays.stream(points).sorted().distinct().toArray();
+    }
+    
+    @Override
+    public long next(long time, boolean inclusive, Clock.CountOperation operation) {
+        int index = Arrays.binarySearch(points, time);
+        if (operation == Clock.CountOperation.UP) {
+            int next = index >= 0 ? (inclusive ? index : index + 1) : -index - 1;
+            return next < points.length ? points[next] : NONE;
+        }
+        
+        int previous = index >= 0 ? (inclusive ? index : index - 1) : -index - 2;
+        return previous >= 0 ? points[previous] : NONE;
+    }
+    
+    @Override
+    public String toString() {
+        return "TriggerSchedule" + Arrays.toString(points);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.starmediadev.starclock.callback;
+
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+/**
+ * The holder of a callback that runs at the points of a {@link TriggerSchedule} instead of at an interval. Its interval is 0. <br>
+ * The next point is calculated ahead of time and kept here, so the clock only has to compare its time with it.
+ * @param <T> The Snapshot type
+ */
+public class TriggerCallbackHolder<T extends ClockSnapshot> extends CallbackHolder<T> {
+    protected final TriggerSchedule triggers;
+    protected long nextTrigger = TriggerSchedule.NONE;
+    protected long lastTrigger = TriggerSchedule.NONE;
+    
+    /**
+     * Constructs a new TriggerCallbackHolder
+     * @param callback The callback reference
+     * @param callbackId The ID of the callback, which is unique within its clock
+     * @param triggers The points the callback runs at
+     */
+    public TriggerCallbackHolder(ClockCallback<T> callback, long callbackId, TriggerSchedule triggers) {
+        super(callback, callbackId, 0);
+        this.triggers = triggers;
+    }
+    
+    /**
+     * @return The points the callback runs at
+     */
+    public TriggerSchedule getTriggers() {
+        return triggers;
+    }
+    
+    /**
+     * @return The next point the callback runs at, or {@link TriggerSchedule#NONE} if there is none
+     */
+    public long getNextTrigger() {
+        return nextTrigger;
+    }
+    
+    /**
+     * @param nextTrigger The next point the callback runs at
+     */
+    public void setNextTrigger(long nextTrigger) {
+        this.nextTrigger = nextTrigger;
+    }
+    
+    /**
+     * @return The last point the callback ran for, or {@link TriggerSchedule#NONE} if it did not run yet
+     */
+    public long getLastTrigger() {
+        return lastTrigger;
+    }
+    
+    /**
+     * @param lastTrigger The last point the callback ran for
+     */
+    public void setLastTrigger(long lastTrigger) {
+        this.lastTrigger = lastTrigger;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.starmediadev.starclock.callback;
+
+import com.starmediadev.starclock.Clock;
+
+/**
+ * The points in clock time at which a callback runs, for callbacks that do not run at a fixed interval. See {@link Clock#addCallback(ClockCallback, TriggerSchedule)} <br>
+ * A clock only keeps the next point of a schedule, so a callback with a schedule is checked like a single callback no matter how many points it has. The next point is calculated again once it was reached, or when the time of the clock is moved back. Points that the time is moved ahead past are run based on the {@link MissedCallbackPolicy} of the callback, like points the clock counted past. <br>
+ * Points are in the direction the clock counts, so a schedule of {@code 60000, 30000, 10000} on a {@link com.starmediadev.starclock.impl.Timer} runs when 60, 30 and 10 seconds are remaining.
+ */
+@FunctionalInterface
+public interface TriggerSchedule {
+    /**
+     * Returned when there is no next point
+     */
+    long NONE = Long.MIN_VALUE;
+    
+    /**
+     * Finds the first point from a time in the direction a clock counts
+     * @param time The time of the clock
+     * @param inclusive true to return the time itself when it is a point
+     * @param operation The direction the clock counts
+     * @return The point, or {@link TriggerSchedule#NONE} if there is none
+     */
+    long next(long time, boolean inclusive, Clock.CountOperation operation);
+    
+    /**
+     * Creates a schedule of a fixed list of points
+     * @param points The points in milliseconds of clock time, in any order
+     * @return The schedule
+     */
+    static TriggerSchedule at(long... points) {
+        return new PointSchedule(points);
+    }
+    
+    /**
+     * Creates a schedule from a cron-like expression over clock time. <br>
+     * The expression has up to three fields separated by spaces: the seconds (0-59), minutes (0-59) and hours (0-23) of the clock time, where the hours repeat every 24 hours of clock time. Missing fields match every value. <br>
+     * Every field is a comma separated list of {@code *}, a value, or a range like {@code 10-20}, each optionally followed by a step like <code>*&#47;15</code> <br>
+     * For example, {@code "0,30"} runs on every whole and half minute of clock time, <code>"0 *&#47;5"</code> every 5 minutes and {@code "* 0"} every second of the first minute of every hour.
+     * @param expression The expression
+     * @return The schedule
+     * @throws IllegalArgumentException If the expression is not valid
+     */
+    static TriggerSchedule cron(String expression) {
+        return new CronSchedule(expression);
+    }
+}
\ No newline at end of file
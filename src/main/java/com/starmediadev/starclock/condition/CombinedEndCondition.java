@@ -0,0 +1,67 @@
+package com.starmediadev.starclock.condition;
+
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+import java.util.List;
+
+/**
+ * Combines multiple end conditions into one that is met once any or all of them are met. <br>
+ * When every condition in it is recognized by the clock, like the {@link ThresholdEndCondition} and the {@link ElapsedEndCondition}, the combination is evaluated without creating a snapshot as well. <br>
+ * A combination that requires all of its conditions and contains a threshold that the clock counts away from is evaluated with a snapshot, as it can stop being met while the clock runs.
+ * @param <T> The Snapshot type
+ */
+public final class CombinedEndCondition<T extends ClockSnapshot> implements ClockEndCondition<T> {
+    private final List<ClockEndCondition<T>> conditions;
+    private final boolean all;
+    
+    private CombinedEndCondition(ClockEndCondition<T>[] conditions, boolean all) {
+        this.conditions = List.of(conditions);
+        this.all = all;
+    }
+    
+    /**
+     * @param conditions The conditions
+     * @param <T> The Snapshot type
+     * @return A condition that is met once any of the conditions is met
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T extends ClockSnapshot> CombinedEndCondition<T> any(ClockEndCondition<T>... conditions) {
+        return new CombinedEndCondition<>(conditions, false);
+    }
+    
+    /**
+     * @param conditions The conditions
+     * @param <T> The Snapshot type
+     * @return A condition that is met once all of the conditions are met at the same time
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T extends ClockSnapshot> CombinedEndCondition<T> all(ClockEndCondition<T>... conditions) {
+        return new CombinedEndCondition<>(conditions, true);
+    }
+    
+    /**
+     * @return The combined conditions
+     */
+    public List<ClockEndCondition<T>> getConditions() {
+        return conditions;
+    }
+    
+    /**
+     * @return true if all conditions have to be met, false if any of them is enough
+     */
+    public boolean isAll() {
+        return all;
+    }
+    
+    @Override
+    public boolean shouldEnd(T snapshot) {
+        for (ClockEndCondition<T> condition : this.conditions) {
+            if (condition.shouldEnd(snapshot) != all) {
+                return !all;
+            }
+        }
+        return all;
+    }
+}
\ No newline at end of file
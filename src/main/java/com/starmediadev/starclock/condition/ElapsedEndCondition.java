@@ -0,0 +1,46 @@
+package com.starmediadev.starclock.condition;
+
+import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+/**
+ * Ends a clock once it ran for an amount of time since it was created, see {@link Clock#getElapsed()}. Changes to the time of the clock do not count as running time. <br>
+ * Clocks recognize this condition when it is set, evaluate it without creating a snapshot and know ahead of time when it will be met.
+ * @param <T> The Snapshot type
+ */
+public final class ElapsedEndCondition<T extends ClockSnapshot> implements ClockEndCondition<T> {
+    private final long duration;
+    
+    private ElapsedEndCondition(long duration) {
+        this.duration = duration;
+    }
+    
+    /**
+     * @param duration The running time in milliseconds
+     * @param <T> The Snapshot type
+     * @return A condition that is met once a clock ran for the duration
+     */
+    public static <T extends ClockSnapshot> ElapsedEndCondition<T> after(long duration) {
+        return new ElapsedEndCondition<>(duration);
+    }
+    
+    /**
+     * @return The running time in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+    
+    /**
+     * @param elapsed The running time of a clock
+     * @return true if the condition is met after that running time
+     */
+    public boolean isMet(long elapsed) {
+        return elapsed >= this.duration;
+    }
+    
+    @Override
+    public boolean shouldEnd(T snapshot) {
+        return isMet(snapshot.getElapsed());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.starmediadev.starclock.condition;
+
+import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+/**
+ * Ends a clock once its time reaches a threshold. <br>
+ * Clocks recognize this condition when it is set and evaluate it against their time directly, without creating a snapshot. When the clock counts towards the threshold, they also know ahead of time when it will be met.
+ * @param <T> The Snapshot type
+ */
+public final class ThresholdEndCondition<T extends ClockSnapshot> implements ClockEndCondition<T> {
+    private final long threshold;
+    private final boolean atLeast;
+    
+    private ThresholdEndCondition(long threshold, boolean atLeast) {
+        this.threshold = threshold;
+        this.atLeast = atLeast;
+    }
+    
+    /**
+     * @param threshold The threshold
+     * @param <T> The Snapshot type
+     * @return A condition that is met once the time is at or below the threshold
+     */
+    public static <T extends ClockSnapshot> ThresholdEndCondition<T> atMost(long threshold) {
+        return new ThresholdEndCondition<>(threshold, false);
+    }
+    
+    /**
+     * @param threshold The threshold
+     * @param <T> The Snapshot type
+     * @return A condition that is met once the time is at or above the threshold
+     */
+    public static <T extends ClockSnapshot> ThresholdEndCondition<T> atLeast(long threshold) {
+        return new ThresholdEndCondition<>(threshold, true);
+    }
+    
+    /**
+     * @return The threshold
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+    
+    /**
+     * @return true if the condition is met at or above the threshold, false if it is met at or below it
+     */
+    public boolean isAtLeast() {
+        return atLeast;
+    }
+    
+    /**
+     * @param operation The direction a clock counts in
+     * @return true if a clock that counts in that direction moves towards the threshold
+     */
+    public boolean isTowards(Clock.CountOperation operation) {
+        return this.atLeast == (operation == Clock.CountOperation.UP);
+    }
+    
+    /**
+     * @param time The time of a clock
+     * @return true if the condition is met at that time
+     */
+    public boolean isMet(long time) {
+        return this.atLeast ? time >= this.threshold : time <= this.threshold;
+    }
+    
+    @Override
+    public boolean shouldEnd(T snapshot) {
+        return isMet(snapshot.getTime());
+    }
+}
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.starmediadev.starclock.impl;
 
 import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.ClockJournal;
+import com.starmediadev.starclock.condition.ClockEndCondition;
+import com.starmediadev.starclock.condition.defaults.StopwatchEndCondition;
 import com.starmediadev.starclock.snapshot.StopwatchSnapshot;
 
 /**
@@ -19,20 +22,57 @@ public class Stopwatch extends Clock<StopwatchSnapshot> {
      * @param countAmount The count amount. See the {@link Clock} documentation for how this works
      */
     public Stopwatch(long endTime, long countAmount) {
-        super(0L, CountOperation.DOWN, countAmount);
+        super(0L, CountOperation.UP, countAmount);
         this.endTime = endTime;
     }
     
     @Override
     public StopwatchSnapshot createSnapshot() {
-        return new StopwatchSnapshot(time, endTime, paused, operation, getCountAmount());
+        return readSnapshot();
     }
     
     @Override
-    public void count() {
-        if (this.time <= this.endTime) {
-            super.count();
+    protected StopwatchSnapshot createSnapshot(long time, long elapsed) {
+        return new StopwatchSnapshot(time, endTime, paused, operation, getCountAmount(), elapsed);
+    }
+    
+    @Override
+    protected long advancedTime(long amount) {
+        if (this.time > this.endTime) {
+            return this.time;
         }
+        
+        return super.advancedTime(Math.min(amount, reach()));
+    }
+    
+    @Override
+    protected long millisUntil(long target) {
+        if (this.time < target && target > this.time + reach()) {
+            return Long.MAX_VALUE;
+        }
+        
+        return super.millisUntil(target);
+    }
+    
+    @Override
+    protected long conditionDelay(ClockEndCondition<?> condition) {
+        if (condition.getClass() == StopwatchEndCondition.class) {
+            return millisUntil(this.endTime);
+        }
+        
+        return super.conditionDelay(condition);
+    }
+    
+    /**
+     * @return How far this stopwatch can still count, which stops at the first count that passes the endTime
+     */
+    private long reach() {
+        if (this.time > this.endTime) {
+            return 0;
+        }
+        
+        long countAmount = Math.max(1, getCountAmount());
+        return ((this.endTime - this.time) / countAmount + 1) * countAmount;
     }
     
     @Override
@@ -53,6 +93,16 @@ public class Stopwatch extends Clock<StopwatchSnapshot> {
      * @param endTime The new endTime
      */
     public void setEndTime(long endTime) {
+        if (!canMutate()) {
+            mutate(() -> setEndTime(endTime));
+            return;
+        }
+        
+        sync();
+        beginChange();
         this.endTime = endTime;
+        endChange();
+        update();
+        journal(ClockJournal.Operation.END_TIME, endTime);
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.starmediadev.starclock.impl;
 
 import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.ClockJournal;
+import com.starmediadev.starclock.condition.ClockEndCondition;
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
 import com.starmediadev.starclock.snapshot.TimerSnapshot;
 
 /**
@@ -35,7 +38,19 @@ public class Timer extends Clock<TimerSnapshot> {
      * Resets the current count back to the length
      */
     public void reset() {
+        if (!canMutate()) {
+            mutate(() -> reset());
+            return;
+        }
+        
+        sync();
+        long previous = this.time;
+        beginChange();
         this.time = length;
+        endChange();
+        timeChanged(previous);
+        update();
+        journal(ClockJournal.Operation.LENGTH, this.length);
     }
     
     /**
@@ -44,9 +59,21 @@ public class Timer extends Clock<TimerSnapshot> {
      * @param length The new length
      */
     public void setLength(long length) {
+        if (!canMutate()) {
+            mutate(() -> setLength(length));
+            return;
+        }
+        
+        sync();
+        long previous = this.time;
+        beginChange();
         long elapsed = this.length - this.time;
         this.length = length;
         this.time = Math.max(this.length - elapsed, 0);
+        endChange();
+        timeChanged(previous);
+        update();
+        journal(ClockJournal.Operation.LENGTH, this.length);
     }
     
     /**
@@ -54,7 +81,14 @@ public class Timer extends Clock<TimerSnapshot> {
      * @param length The new length
      */
     public void setLengthAndReset(long length) {
+        if (!canMutate()) {
+            mutate(() -> setLengthAndReset(length));
+            return;
+        }
+        
+        beginChange();
         this.length = length;
+        endChange();
         this.reset();
     }
     
@@ -63,6 +97,11 @@ public class Timer extends Clock<TimerSnapshot> {
      * @param length The length to add
      */
     public void addLength(long length) {
+        if (!canMutate()) {
+            mutate(() -> addLength(length));
+            return;
+        }
+        
         setLength(this.length + length);
     }
     
@@ -71,6 +110,12 @@ public class Timer extends Clock<TimerSnapshot> {
      * @param length The length to remove
      */
     public void removeLength(long length) {
+        if (!canMutate()) {
+            long removed = length;
+            mutate(() -> removeLength(removed));
+            return;
+        }
+        
         if (length - this.length < 0) {
             length = this.length;
         }
@@ -83,8 +128,22 @@ public class Timer extends Clock<TimerSnapshot> {
         return (Timer) super.start();
     }
     
+    @Override
+    protected long conditionDelay(ClockEndCondition<?> condition) {
+        if (condition.getClass() == TimerEndCondition.class) {
+            return millisUntil(0);
+        }
+        
+        return super.conditionDelay(condition);
+    }
+    
     @Override
     public TimerSnapshot createSnapshot() {
-        return new TimerSnapshot(this.time, this.paused, this.length, this.operation, getCountAmount());
+        return readSnapshot();
+    }
+    
+    @Override
+    protected TimerSnapshot createSnapshot(long time, long elapsed) {
+        return new TimerSnapshot(time, this.paused, this.length, this.operation, getCountAmount(), elapsed);
     }
 }
\ No newline at end of file
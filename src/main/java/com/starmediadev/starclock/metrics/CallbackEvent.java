@@ -0,0 +1,22 @@
+package com.starmediadev.starclock.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event for a {@link com.starmediadev.starclock.callback.ClockCallback} that ran longer than the threshold
+ */
+@Name("com.starmediadev.starclock.Callback")
+@Label("Clock Callback")
+@Category({"StarClock"})
+@Description("A clock callback that ran longer than the threshold")
+@Threshold("10 ms")
+@StackTrace(false)
+final class CallbackEvent extends Event {
+    static final EventType TYPE = EventType.getEventType(CallbackEvent.class);
+    
+    @Label("Callback Type")
+    String callbackType;
+    
+    @Label("Clock Type")
+    String clockType;
+}
@@ -0,0 +1,16 @@
+package com.starmediadev.starclock.metrics;
+
+/**
+ * The amount of clocks registered to a {@link com.starmediadev.starclock.ClockManager} by state
+ * @param active The clocks that are counting
+ * @param paused The clocks that are paused
+ * @param cancelled The clocks that are marked for cancellation and have not been removed yet
+ */
+public record ClockCounts(int active, int paused, int cancelled) {
+    /**
+     * @return The total amount of clocks
+     */
+    public int total() {
+        return active + paused + cancelled;
+    }
+}
@@ -0,0 +1,26 @@
+package com.starmediadev.starclock.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Periodic Flight Recorder event with the amount of clocks of a {@link com.starmediadev.starclock.ClockManager} by state
+ */
+@Name("com.starmediadev.starclock.ClockCounts")
+@Label("Clock Counts")
+@Category({"StarClock"})
+@Description("The amount of active, paused and cancelled clocks of a ClockManager")
+@Period("1 s")
+@StackTrace(false)
+final class ClockCountsEvent extends Event {
+    @Label("Manager")
+    String manager;
+    
+    @Label("Active")
+    int active;
+    
+    @Label("Paused")
+    int paused;
+    
+    @Label("Cancelled")
+    int cancelled;
+}
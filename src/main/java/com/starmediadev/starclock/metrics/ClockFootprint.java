@@ -0,0 +1,17 @@
+package com.starmediadev.starclock.metrics;
+
+/**
+ * The estimated heap retained by the clocks of one type registered to a {@link com.starmediadev.starclock.ClockManager}, see {@link com.starmediadev.starclock.ClockManager#getFootprint()} <br>
+ * This counts the clocks with their callback storage and the bookkeeping of the manager for them, like the entries of the engine and the expiry index. The callbacks and end conditions themselves are not counted, as they are often shared between clocks.
+ * @param type The class of the clocks
+ * @param clocks The amount of clocks
+ * @param bytes The estimated bytes retained by all of them
+ */
+public record ClockFootprint(Class<?> type, int clocks, long bytes) {
+    /**
+     * @return The estimated bytes retained per clock
+     */
+    public long bytesPerClock() {
+        return clocks == 0 ? 0 : bytes / clocks;
+    }
+}
\ No newline at end of file
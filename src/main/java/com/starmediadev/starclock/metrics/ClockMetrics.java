@@ -0,0 +1,342 @@
+package com.starmediadev.starclock.metrics;
+
+import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.ClockManager;
+import com.starmediadev.starclock.callback.ClockCallback;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+import jdk.jfr.FlightRecorder;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Records how the {@link com.starmediadev.starclock.ClockRunnable} of a {@link ClockManager} performs. Every ClockManager has one, see {@link ClockManager#getMetrics()} <br>
+ * When enabled, this records the duration of each run, how late each run started compared to the count amount, how many callbacks ran per run, how many clocks were deferred per run, how long each callback took and the slowest callbacks. Durations are in nanoseconds. <br>
+ * The total amount of deferred clocks is always counted, see {@link ClockManager#setTickBudget(long)} <br>
+ * Independent of this, the runs and slow callbacks are emitted as JDK Flight Recorder events in the StarClock category whenever a recording has them enabled. The amount of clocks by state is emitted as a periodic event once metrics were enabled, until they are closed with {@link ClockMetrics#close()}. <br>
+ * Nothing is measured when metrics are disabled and no recording is running.
+ */
+public final class ClockMetrics {
+    private static final int SLOWEST = 10;
+    
+    private final ClockManager manager;
+    private final LatencyHistogram tickDuration = new LatencyHistogram();
+    private final LatencyHistogram tickLag = new LatencyHistogram();
+    private final LatencyHistogram callbacksPerTick = new LatencyHistogram();
+    private final LatencyHistogram callbackDuration = new LatencyHistogram();
+    private final LatencyHistogram deferredPerTick = new LatencyHistogram();
+    private final SlowCallback[] slowest = new SlowCallback[SLOWEST];
+    private int slowestSize;
+    private volatile long slowestThreshold;
+    private volatile boolean enabled;
+    private volatile long deferredClocks;
+    private volatile long deferringTicks;
+    
+    private long lastTickStart = -1;
+    private int callbacks;
+    private int deferred;
+    private TickEvent tickEvent;
+    /**
+     * The hook that emits the periodic {@link ClockCountsEvent}, or null while it is not registered
+     */
+    private Runnable periodicHook;
+    
+    /**
+     * Constructs the metrics for a ClockManager. This is done by the ClockManager itself
+     * @param manager The manager
+     */
+    public ClockMetrics(ClockManager manager) {
+        this.manager = manager;
+    }
+    
+    /**
+     * @return If metrics are recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Enables or disables recording the metrics. This is disabled by default <br>
+     * Enabling them the first time also registers the periodic Flight Recorder event with the amount of clocks by state, see {@link ClockMetrics#close()}
+     * @param enabled true to record the metrics
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled && this.periodicHook == null) {
+            this.periodicHook = registerPeriodicEvent(this);
+        }
+    }
+    
+    /**
+     * Disables the metrics and removes the periodic Flight Recorder event of the manager. Call this when the manager is no longer used. The metrics can be enabled again afterwards
+     */
+    public synchronized void close() {
+        this.enabled = false;
+        if (this.periodicHook != null) {
+            FlightRecorder.removePeriodicEvent(this.periodicHook);
+            this.periodicHook = null;
+        }
+    }
+    
+    /**
+     * @return If anything is being measured, either because metrics are enabled or because a Flight Recorder recording has the StarClock events enabled
+     */
+    public boolean isRecording() {
+        return enabled || TickEvent.TYPE.isEnabled() || CallbackEvent.TYPE.isEnabled();
+    }
+    
+    /**
+     * @return The duration of each run of the runnable
+     */
+    public LatencyHistogram getTickDuration() {
+        return tickDuration;
+    }
+    
+    /**
+     * @return How much later each run started than the count amount after the previous run
+     */
+    public LatencyHistogram getTickLag() {
+        return tickLag;
+    }
+    
+    /**
+     * @return The amount of callbacks that ran on each run. Callbacks handed to a {@link com.starmediadev.starclock.CallbackDispatcher} are counted when they are dispatched
+     */
+    public LatencyHistogram getCallbacksPerTick() {
+        return callbacksPerTick;
+    }
+    
+    /**
+     * @return The duration of each callback
+     */
+    public LatencyHistogram getCallbackDuration() {
+        return callbackDuration;
+    }
+    
+    /**
+     * @return The amount of clocks that were deferred on each run because the budget was used up
+     */
+    public LatencyHistogram getDeferredPerTick() {
+        return deferredPerTick;
+    }
+    
+    /**
+     * @return The total amount of times a clock was deferred because the budget of a run was used up, see {@link ClockManager#setTickBudget(long)}
+     */
+    public long getDeferredClocks() {
+        return deferredClocks;
+    }
+    
+    /**
+     * @return The amount of runs that deferred at least one clock
+     */
+    public long getDeferringTicks() {
+        return deferringTicks;
+    }
+    
+    /**
+     * @return The slowest callbacks that were recorded, slowest first
+     */
+    public synchronized List<SlowCallback> getSlowestCallbacks() {
+        List<SlowCallback> callbacks = new ArrayList<>(Arrays.asList(slowest).subList(0, slowestSize));
+        callbacks.sort(Comparator.comparingLong(SlowCallback::durationNanos).reversed());
+        return callbacks;
+    }
+    
+    /**
+     * Counts the clocks registered to the manager by state. This goes through every clock, so it is not recorded on each run
+     * @return The amount of clocks by state
+     */
+    public ClockCounts getClockCounts() {
+        int active = 0, paused = 0, cancelled = 0;
+        for (Clock<? extends ClockSnapshot> clock : manager.getClocks()) {
+            if (clock.isCancelled()) {
+                cancelled++;
+            } else if (clock.isPaused()) {
+                paused++;
+            } else {
+                active++;
+            }
+        }
+        return new ClockCounts(active, paused, cancelled);
+    }
+    
+    /**
+     * Clears all recorded metrics
+     */
+    public synchronized void reset() {
+        tickDuration.reset();
+        tickLag.reset();
+        callbacksPerTick.reset();
+        callbackDuration.reset();
+        deferredPerTick.reset();
+        deferredClocks = 0;
+        deferringTicks = 0;
+        Arrays.fill(slowest, null);
+        slowestSize = 0;
+        slowestThreshold = 0;
+    }
+    
+    /**
+     * Called by the runnable when a run starts, only when {@link ClockMetrics#isRecording()} is true
+     * @return The start of the run
+     */
+    public long tickStarted() {
+        if (TickEvent.TYPE.isEnabled()) {
+            tickEvent = new TickEvent();
+            tickEvent.begin();
+        }
+        callbacks = 0;
+        deferred = 0;
+        return System.nanoTime();
+    }
+    
+    /**
+     * Called by the runnable when a run finishes
+     * @param start The value returned by {@link ClockMetrics#tickStarted()}
+     * @param counts The amount of counts that were processed in the run
+     * @param periodic If the runnable is expected to run every count amount
+     */
+    public void tickFinished(long start, int counts, boolean periodic) {
+        long duration = System.nanoTime() - start;
+        long lag = 0;
+        if (periodic && lastTickStart != -1) {
+            lag = Math.max(0, start - lastTickStart - manager.getCountAmount() * 1_000_000L);
+        }
+        lastTickStart = periodic ? start : -1;
+        
+        if (enabled) {
+            tickDuration.record(duration);
+            if (periodic) {
+                tickLag.record(lag);
+            }
+            callbacksPerTick.record(callbacks);
+            deferredPerTick.record(deferred);
+        }
+        
+        TickEvent event = tickEvent;
+        if (event != null) {
+            tickEvent = null;
+            event.end();
+            if (event.shouldCommit()) {
+                event.lag = lag;
+                event.counts = counts;
+                event.callbacks = callbacks;
+                event.deferred = deferred;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Runs a callback while measuring it. This is used by clocks when {@link ClockMetrics#isRecording()} is true
+     * @param clock The clock the callback belongs to
+     * @param callback The callback
+     * @param snapshot The snapshot for the callback
+     * @param <T> The snapshot type
+     * @return The result of the callback
+     */
+    public <T extends ClockSnapshot> boolean timeCallback(Clock<T> clock, ClockCallback<T> callback, T snapshot) {
+        CallbackEvent event = null;
+        if (CallbackEvent.TYPE.isEnabled()) {
+            event = new CallbackEvent();
+            event.begin();
+        }
+        
+        long start = System.nanoTime();
+        try {
+            return callback.callback(snapshot);
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (enabled) {
+                callbackDuration.record(duration);
+                if (duration > slowestThreshold) {
+                    recordSlow(clock, callback, duration);
+                }
+            }
+            
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.callbackType = callback.getClass().getName();
+                    event.clockType = clock.getClass().getName();
+                    event.commit();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Counts the clocks that were deferred in the current run. This is called by the engine of the manager on the thread of the runnable, whenever the manager has a tick budget
+     * @param clocks The amount of clocks that were deferred
+     */
+    public void countDeferred(int clocks) {
+        if (clocks == 0) {
+            return;
+        }
+        
+        deferred += clocks;
+        deferredClocks += clocks;
+        deferringTicks++;
+    }
+    
+    /**
+     * Counts a callback for the current run. This is called by clocks on the thread of the runnable, for callbacks that run inline and callbacks handed to a {@link com.starmediadev.starclock.CallbackDispatcher}
+     */
+    public void countCallback() {
+        callbacks++;
+    }
+    
+    private synchronized void recordSlow(Clock<?> clock, ClockCallback<?> callback, long duration) {
+        SlowCallback slow = new SlowCallback(callback.getClass().getName(), clock.getClass().getName(), duration, System.currentTimeMillis());
+        if (slowestSize < SLOWEST) {
+            slowest[slowestSize++] = slow;
+        } else {
+            int fastest = 0;
+            for (int i = 1; i < SLOWEST; i++) {
+                if (slowest[i].durationNanos() < slowest[fastest].durationNanos()) {
+                    fastest = i;
+                }
+            }
+            if (slowest[fastest].durationNanos() >= duration) {
+                return;
+            }
+            slowest[fastest] = slow;
+        }
+        
+        if (slowestSize == SLOWEST) {
+            long threshold = Long.MAX_VALUE;
+            for (SlowCallback callbackTime : slowest) {
+                threshold = Math.min(threshold, callbackTime.durationNanos());
+            }
+            slowestThreshold = threshold;
+        }
+    }
+    
+    private static Runnable registerPeriodicEvent(ClockMetrics metrics) {
+        WeakReference<ClockMetrics> reference = new WeakReference<>(metrics);
+        String manager = Integer.toHexString(System.identityHashCode(metrics.manager));
+        Runnable[] hook = new Runnable[1];
+        hook[0] = () -> {
+            ClockMetrics current = reference.get();
+            if (current == null) {
+                FlightRecorder.removePeriodicEvent(hook[0]);
+                return;
+            }
+            
+            ClockCounts counts = current.getClockCounts();
+            ClockCountsEvent event = new ClockCountsEvent();
+            event.manager = manager;
+            event.active = counts.active();
+            event.paused = counts.paused();
+            event.cancelled = counts.cancelled();
+            event.commit();
+        };
+        FlightRecorder.addPeriodicEvent(ClockCountsEvent.class, hook[0]);
+        return hook[0];
+    }
+}
@@ -0,0 +1,113 @@
+package com.starmediadev.starclock.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram with log-linear buckets, in the style of an HDR histogram. <br>
+ * Values below 32 are counted exactly, larger values are counted in buckets that are at most about 6% wide, so recording is a couple of bit operations and an increment. <br>
+ * Recording and reading are thread-safe, reads while values are being recorded may be slightly out of date.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF = SUB_COUNT >>> 1;
+    private static final int BUCKETS = SUB_COUNT + (63 - SUB_BITS + 1) * HALF;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(3);
+    
+    /**
+     * Records a value. Negative values are recorded as 0
+     * @param value The value
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        
+        counts.incrementAndGet(index(value));
+        totals.incrementAndGet(0);
+        totals.addAndGet(1, value);
+        long max;
+        while (value > (max = totals.get(2)) && !totals.compareAndSet(2, max, value)) {
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * @return The amount of recorded values
+     */
+    public long getCount() {
+        return totals.get(0);
+    }
+    
+    /**
+     * @return The highest recorded value, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return totals.get(2);
+    }
+    
+    /**
+     * @return The mean of the recorded values, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totals.get(1) / count;
+    }
+    
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return The highest value that is equivalent to the value at the percentile, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalent(i), getMax());
+            }
+        }
+        return getMax();
+    }
+    
+    /**
+     * Clears all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        for (int i = 0; i < 3; i++) {
+            totals.set(i, 0);
+        }
+    }
+    
+    private static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        return SUB_COUNT + (shift - 1) * HALF + (int) ((value >>> shift) - HALF);
+    }
+    
+    private static long highestEquivalent(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        
+        int shift = (index - SUB_COUNT) / HALF + 1;
+        long top = (index - SUB_COUNT) % HALF + HALF;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,11 @@
+package com.starmediadev.starclock.metrics;
+
+/**
+ * A callback that was among the slowest recorded by {@link ClockMetrics}
+ * @param callbackType The class name of the callback
+ * @param clockType The class name of the clock that the callback belongs to
+ * @param durationNanos How long the callback took in nanoseconds
+ * @param timestamp The {@link System#currentTimeMillis()} when the callback finished
+ */
+public record SlowCallback(String callbackType, String clockType, long durationNanos, long timestamp) {
+}
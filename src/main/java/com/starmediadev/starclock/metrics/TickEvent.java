@@ -0,0 +1,28 @@
+package com.starmediadev.starclock.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event for a single run of a {@link com.starmediadev.starclock.ClockRunnable}
+ */
+@Name("com.starmediadev.starclock.Tick")
+@Label("Clock Tick")
+@Category({"StarClock"})
+@Description("A run of the ClockRunnable of a ClockManager")
+@StackTrace(false)
+final class TickEvent extends Event {
+    static final EventType TYPE = EventType.getEventType(TickEvent.class);
+    
+    @Label("Lag")
+    @Timespan
+    long lag;
+    
+    @Label("Counts")
+    int counts;
+    
+    @Label("Callbacks")
+    int callbacks;
+    
+    @Label("Deferred Clocks")
+    int deferred;
+}
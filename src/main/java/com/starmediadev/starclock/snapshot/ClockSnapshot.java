@@ -14,12 +14,18 @@ public abstract class ClockSnapshot {
     protected final boolean paused;
     protected final CountOperation operation;
     protected final long countAmount;
+    protected final long elapsed;
     
     public ClockSnapshot(long time, boolean paused, CountOperation operation, long countAmount) {
+        this(time, paused, operation, countAmount, 0);
+    }
+    
+    public ClockSnapshot(long time, boolean paused, CountOperation operation, long countAmount, long elapsed) {
         this.time = time;
         this.paused = paused;
         this.operation = operation;
         this.countAmount = countAmount;
+        this.elapsed = elapsed;
     }
     
     /**
@@ -49,4 +55,11 @@ public abstract class ClockSnapshot {
     public long getCountAmount() {
         return countAmount;
     }
+    
+    /**
+     * @return The amount of milliseconds the clock ran for at the moment this snapshot was created, or 0 if the clock did not provide it
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
 }
@@ -12,7 +12,11 @@ public class StopwatchSnapshot extends ClockSnapshot {
     private long endTime;
     
     public StopwatchSnapshot(long time, long endTime, boolean paused, CountOperation operation, long countAmount) {
-        super(time, paused, operation, countAmount);
+        this(time, endTime, paused, operation, countAmount, 0);
+    }
+    
+    public StopwatchSnapshot(long time, long endTime, boolean paused, CountOperation operation, long countAmount, long elapsed) {
+        super(time, paused, operation, countAmount, elapsed);
         this.endTime = endTime;
     }
     
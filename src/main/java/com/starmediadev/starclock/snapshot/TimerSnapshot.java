@@ -12,7 +12,11 @@ public class TimerSnapshot extends ClockSnapshot {
     protected final long length;
     
     public TimerSnapshot(long time, boolean paused, long length, CountOperation operation, long countAmount) {
-        super(time, paused, operation, countAmount);
+        this(time, paused, length, operation, countAmount, 0);
+    }
+    
+    public TimerSnapshot(long time, boolean paused, long length, CountOperation operation, long countAmount, long elapsed) {
+        super(time, paused, operation, countAmount, elapsed);
         this.length = length;
     }
     
@@ -0,0 +1,360 @@
+package com.starmediadev.starclock.table;
+
+import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.Clock.CountOperation;
+import com.starmediadev.starclock.ClockManager;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * A storage backend for large amounts of lightweight clocks. Instead of a {@link Clock} object per clock, the values are stored in parallel primitive columns. <br>
+ * The time, length (or end time), count amount and count step are stored in {@code long} columns, which can optionally be kept off-heap. The paused and cancelled flags are bitsets. <br>
+ * Clocks in a table are accessed through {@link TableTimer} and {@link TableStopwatch} handles. These only hold the slot and generation of the clock, and are invalid once the clock ends. <br>
+ * Clocks in a table do not support callbacks. Instead, a Timer ends when its time reaches 0 and a Stopwatch ends when its time reaches the end time, which is reported to the {@link EndListener} <br>
+ * Tables created by {@link ClockManager#createTable(int, boolean)} are counted by the {@link com.starmediadev.starclock.ClockRunnable} of that manager. <br>
+ * All operations synchronize on the table.
+ */
+public final class ClockTable {
+    private static final int LONG_COLUMNS = 4;
+    
+    private final boolean offHeap;
+    private final long countAmount;
+    
+    private long[] time, limit, amount, step;
+    private LongBuffer timeBuffer, limitBuffer, amountBuffer, stepBuffer;
+    private int[] generation;
+    private long[] used, up, paused, cancelled;
+    private int[] free;
+    private int freeCount;
+    private int highWater;
+    private int size;
+    private int capacity;
+    
+    private EndListener endListener;
+    
+    /**
+     * Constructs a new ClockTable
+     * @param capacity The initial amount of clocks this table can hold. The table grows when this is exceeded
+     * @param countAmount The amount to count by for clocks created in this table
+     * @param offHeap true to keep the long columns in direct memory outside of the Java heap
+     */
+    public ClockTable(int capacity, long countAmount, boolean offHeap) {
+        this.offHeap = offHeap;
+        this.countAmount = countAmount;
+        this.generation = new int[0];
+        this.used = new long[0];
+        this.up = new long[0];
+        this.paused = new long[0];
+        this.cancelled = new long[0];
+        this.free = new int[0];
+        if (offHeap) {
+            this.timeBuffer = this.limitBuffer = this.amountBuffer = this.stepBuffer = LongBuffer.allocate(0);
+        } else {
+            this.time = this.limit = this.amount = this.step = new long[0];
+        }
+        grow(Math.max(64, capacity));
+    }
+    
+    /**
+     * Creates a new Timer in this table. Timers start paused, just like a normal {@link com.starmediadev.starclock.impl.Timer}
+     * @param length The length of the timer in milliseconds
+     * @return The handle for the timer
+     */
+    public synchronized TableTimer createTimer(long length) {
+        int slot = allocate(length, length, false);
+        return new TableTimer(this, slot, this.generation[slot]);
+    }
+    
+    /**
+     * Creates a new Stopwatch in this table. Stopwatches start paused, just like a normal {@link com.starmediadev.starclock.impl.Stopwatch}
+     * @param endTime The end time of the stopwatch in milliseconds
+     * @return The handle for the stopwatch
+     */
+    public synchronized TableStopwatch createStopwatch(long endTime) {
+        int slot = allocate(0L, endTime, true);
+        return new TableStopwatch(this, slot, this.generation[slot]);
+    }
+    
+    /**
+     * Counts every running clock in this table once. Clocks that ended or were cancelled are released afterwards. <br>
+     * The counting is a single pass of {@code time += step} over the columns, where the step of paused clocks is 0
+     */
+    public synchronized void tick() {
+        int end = this.highWater;
+        if (this.offHeap) {
+            for (int i = 0; i < end; i++) {
+                this.timeBuffer.put(i, this.timeBuffer.get(i) + this.stepBuffer.get(i));
+            }
+        } else {
+            long[] time = this.time, step = this.step;
+            for (int i = 0; i < end; i++) {
+                time[i] += step[i];
+            }
+        }
+        
+        for (int word = 0; word < this.used.length; word++) {
+            long running = this.used[word] & ~this.paused[word];
+            long ended = this.used[word] & this.cancelled[word];
+            while (running != 0) {
+                int bit = Long.numberOfTrailingZeros(running);
+                running &= running - 1;
+                int slot = (word << 6) | bit;
+                if (hasEnded(slot, (this.up[word] & (1L << bit)) != 0)) {
+                    ended |= 1L << bit;
+                }
+            }
+            
+            while (ended != 0) {
+                int bit = Long.numberOfTrailingZeros(ended);
+                ended &= ended - 1;
+                end((word << 6) | bit);
+            }
+        }
+    }
+    
+    /**
+     * @return The amount of clocks in this table
+     */
+    public synchronized int size() {
+        return size;
+    }
+    
+    /**
+     * @return The amount of clocks this table can hold before it has to grow
+     */
+    public synchronized int capacity() {
+        return capacity;
+    }
+    
+    /**
+     * @return If the long columns of this table are stored off-heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+    
+    /**
+     * @return The amount that clocks created in this table count by
+     */
+    public long getCountAmount() {
+        return countAmount;
+    }
+    
+    /**
+     * @return The listener that is called when a clock in this table ends. This can be null
+     */
+    public synchronized EndListener getEndListener() {
+        return endListener;
+    }
+    
+    /**
+     * Sets the listener that is called when a clock in this table ends. This is called from within {@link ClockTable#tick()}
+     * @param endListener The listener, or null to remove it
+     */
+    public synchronized void setEndListener(EndListener endListener) {
+        this.endListener = endListener;
+    }
+    
+    synchronized boolean isValid(int slot, int generation) {
+        return slot < this.highWater && this.generation[slot] == generation && isSet(this.used, slot);
+    }
+    
+    synchronized long getTime(int slot, int generation) {
+        check(slot, generation);
+        return get(this.time, this.timeBuffer, slot);
+    }
+    
+    synchronized void setTime(int slot, int generation, long time) {
+        check(slot, generation);
+        set(this.time, this.timeBuffer, slot, time);
+    }
+    
+    synchronized void addTime(int slot, int generation, long time) {
+        check(slot, generation);
+        set(this.time, this.timeBuffer, slot, get(this.time, this.timeBuffer, slot) + time);
+    }
+    
+    synchronized long getLimit(int slot, int generation) {
+        check(slot, generation);
+        return get(this.limit, this.limitBuffer, slot);
+    }
+    
+    synchronized void setLimit(int slot, int generation, long limit) {
+        check(slot, generation);
+        set(this.limit, this.limitBuffer, slot, limit);
+    }
+    
+    synchronized void setLength(int slot, int generation, long length) {
+        check(slot, generation);
+        long elapsed = get(this.limit, this.limitBuffer, slot) - get(this.time, this.timeBuffer, slot);
+        set(this.limit, this.limitBuffer, slot, length);
+        set(this.time, this.timeBuffer, slot, Math.max(length - elapsed, 0));
+    }
+    
+    synchronized long getCountAmount(int slot, int generation) {
+        check(slot, generation);
+        return get(this.amount, this.amountBuffer, slot);
+    }
+    
+    synchronized CountOperation getOperation(int slot, int generation) {
+        check(slot, generation);
+        return isSet(this.up, slot) ? CountOperation.UP : CountOperation.DOWN;
+    }
+    
+    synchronized boolean isPaused(int slot, int generation) {
+        check(slot, generation);
+        return isSet(this.paused, slot);
+    }
+    
+    synchronized void setPaused(int slot, int generation, boolean paused) {
+        check(slot, generation);
+        setBit(this.paused, slot, paused);
+        updateStep(slot);
+    }
+    
+    synchronized boolean isCancelled(int slot, int generation) {
+        return !isValid(slot, generation) || isSet(this.cancelled, slot);
+    }
+    
+    synchronized void setCancelled(int slot, int generation, boolean cancelled) {
+        check(slot, generation);
+        setBit(this.cancelled, slot, cancelled);
+    }
+    
+    private int allocate(long time, long limit, boolean up) {
+        if (this.freeCount == 0 && this.highWater == this.capacity) {
+            grow(this.capacity * 2);
+        }
+        
+        int slot = this.freeCount > 0 ? this.free[--this.freeCount] : this.highWater++;
+        set(this.time, this.timeBuffer, slot, time);
+        set(this.limit, this.limitBuffer, slot, limit);
+        set(this.amount, this.amountBuffer, slot, this.countAmount);
+        setBit(this.used, slot, true);
+        setBit(this.up, slot, up);
+        setBit(this.paused, slot, true);
+        setBit(this.cancelled, slot, false);
+        updateStep(slot);
+        this.size++;
+        return slot;
+    }
+    
+    private boolean hasEnded(int slot, boolean up) {
+        long time = get(this.time, this.timeBuffer, slot);
+        if (up) {
+            return time >= get(this.limit, this.limitBuffer, slot);
+        }
+        
+        if (time <= 0) {
+            set(this.time, this.timeBuffer, slot, 0L);
+            return true;
+        }
+        
+        return false;
+    }
+    
+    private void end(int slot) {
+        EndListener listener = this.endListener;
+        if (listener != null && !isSet(this.cancelled, slot)) {
+            int generation = this.generation[slot];
+            listener.ended(isSet(this.up, slot) ? new TableStopwatch(this, slot, generation) : new TableTimer(this, slot, generation));
+        }
+        
+        setBit(this.used, slot, false);
+        setBit(this.paused, slot, false);
+        setBit(this.cancelled, slot, false);
+        set(this.step, this.stepBuffer, slot, 0L);
+        this.generation[slot]++;
+        this.free[this.freeCount++] = slot;
+        this.size--;
+    }
+    
+    private void updateStep(int slot) {
+        long step = 0;
+        if (isSet(this.used, slot) && !isSet(this.paused, slot)) {
+            step = get(this.amount, this.amountBuffer, slot);
+            if (!isSet(this.up, slot)) {
+                step = -step;
+            }
+        }
+        set(this.step, this.stepBuffer, slot, step);
+    }
+    
+    private void check(int slot, int generation) {
+        if (!isValid(slot, generation)) {
+            throw new IllegalStateException("This clock has ended and its slot in the table was released");
+        }
+    }
+    
+    private void grow(int capacity) {
+        int words = (capacity + 63) >>> 6;
+        capacity = words << 6;
+        if (this.offHeap) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(capacity * LONG_COLUMNS * Long.BYTES).order(ByteOrder.nativeOrder());
+            this.timeBuffer = copy(this.timeBuffer, slice(buffer, 0, capacity));
+            this.limitBuffer = copy(this.limitBuffer, slice(buffer, 1, capacity));
+            this.amountBuffer = copy(this.amountBuffer, slice(buffer, 2, capacity));
+            this.stepBuffer = copy(this.stepBuffer, slice(buffer, 3, capacity));
+        } else {
+            this.time = Arrays.copyOf(this.time, capacity);
+            this.limit = Arrays.copyOf(this.limit, capacity);
+            this.amount = Arrays.copyOf(this.amount, capacity);
+            this.step = Arrays.copyOf(this.step, capacity);
+        }
+        
+        this.generation = Arrays.copyOf(this.generation, capacity);
+        this.free = Arrays.copyOf(this.free, capacity);
+        this.used = Arrays.copyOf(this.used, words);
+        this.up = Arrays.copyOf(this.up, words);
+        this.paused = Arrays.copyOf(this.paused, words);
+        this.cancelled = Arrays.copyOf(this.cancelled, words);
+        this.capacity = capacity;
+    }
+    
+    private static LongBuffer slice(ByteBuffer buffer, int column, int capacity) {
+        return buffer.slice(column * capacity * Long.BYTES, capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+    
+    private static LongBuffer copy(LongBuffer from, LongBuffer to) {
+        to.put(0, from, 0, from.capacity());
+        return to;
+    }
+    
+    private long get(long[] column, LongBuffer buffer, int slot) {
+        return this.offHeap ? buffer.get(slot) : column[slot];
+    }
+    
+    private void set(long[] column, LongBuffer buffer, int slot, long value) {
+        if (this.offHeap) {
+            buffer.put(slot, value);
+        } else {
+            column[slot] = value;
+        }
+    }
+    
+    private static boolean isSet(long[] bits, int slot) {
+        return (bits[slot >>> 6] & (1L << slot)) != 0;
+    }
+    
+    private static void setBit(long[] bits, int slot, boolean value) {
+        if (value) {
+            bits[slot >>> 6] |= 1L << slot;
+        } else {
+            bits[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+    
+    /**
+     * Called when a clock in a {@link ClockTable} reaches its end. The handle is valid for the duration of the call
+     */
+    @FunctionalInterface
+    public interface EndListener {
+        /**
+         * @param clock The handle of the clock that ended
+         */
+        void ended(TableClock<?> clock);
+    }
+}
@@ -0,0 +1,155 @@
+package com.starmediadev.starclock.table;
+
+import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.Clock.CountOperation;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+
+/**
+ * A handle to a clock that is stored in a {@link ClockTable}. This mirrors the API of {@link Clock} without holding any of the values itself. <br>
+ * Handles are flyweights, multiple handles can exist for the same clock and they are cheap to create. <br>
+ * Once the clock ends or is cancelled, its slot in the table is released and every method besides {@link TableClock#isValid()} and {@link TableClock#isCancelled()} throws an {@link IllegalStateException}
+ * @param <T> The type for the ClockSnapshot instance
+ */
+public abstract class TableClock<T extends ClockSnapshot> {
+    protected final ClockTable table;
+    protected final int slot;
+    protected final int generation;
+    
+    TableClock(ClockTable table, int slot, int generation) {
+        this.table = table;
+        this.slot = slot;
+        this.generation = generation;
+    }
+    
+    /**
+     * Creates a ClockSnapshot for this clock
+     * @return The snapshot instance
+     */
+    public abstract T createSnapshot();
+    
+    /**
+     * @return The table that this clock is stored in
+     */
+    public ClockTable getTable() {
+        return table;
+    }
+    
+    /**
+     * @return If the clock this handle points to is still in the table
+     */
+    public boolean isValid() {
+        return table.isValid(slot, generation);
+    }
+    
+    /**
+     * @return The current time for the clock in milliseconds
+     */
+    public long getTime() {
+        return table.getTime(slot, generation);
+    }
+    
+    /**
+     * Sets the time of this clock.
+     * @param time The time to set
+     */
+    public void setTime(long time) {
+        table.setTime(slot, generation, time);
+    }
+    
+    /**
+     * Adds time to this clock. See {@link Clock#addTime(long)}
+     * @param time The time to add
+     */
+    public void addTime(long time) {
+        table.addTime(slot, generation, time);
+    }
+    
+    /**
+     * Removes time from this clock. See {@link Clock#removeTime(long)}
+     * @param time The time to remove
+     */
+    public void removeTime(long time) {
+        table.addTime(slot, generation, -time);
+    }
+    
+    /**
+     * @return The amount this clock counts by
+     */
+    public long getCountAmount() {
+        return table.getCountAmount(slot, generation);
+    }
+    
+    /**
+     * @return The direction of counting for this clock
+     */
+    public CountOperation getOperation() {
+        return table.getOperation(slot, generation);
+    }
+    
+    /**
+     * Unpauses the clock so it starts counting
+     * @return This handle (Utility return value)
+     */
+    public TableClock<T> start() {
+        unpause();
+        return this;
+    }
+    
+    /**
+     * Pauses the clock
+     */
+    public void pause() {
+        table.setPaused(slot, generation, true);
+    }
+    
+    /**
+     * Resumes the clock
+     */
+    public void unpause() {
+        table.setPaused(slot, generation, false);
+    }
+    
+    /**
+     * @return If this clock is currently paused.
+     */
+    public boolean isPaused() {
+        return table.isPaused(slot, generation);
+    }
+    
+    /**
+     * Marks this clock for cancellation. It is removed from the table on the next tick, without calling the {@link ClockTable.EndListener}
+     */
+    public void cancel() {
+        table.setCancelled(slot, generation, true);
+    }
+    
+    /**
+     * Removes the mark for cancellation. See the cancel() method
+     */
+    public void uncancel() {
+        table.setCancelled(slot, generation, false);
+    }
+    
+    /**
+     * @return If this clock is marked for cancellation or was already removed from the table
+     */
+    public boolean isCancelled() {
+        return table.isCancelled(slot, generation);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TableClock<?> other)) {
+            return false;
+        }
+        return slot == other.slot && generation == other.generation && table == other.table;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * slot + generation;
+    }
+}
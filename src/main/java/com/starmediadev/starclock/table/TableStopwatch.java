@@ -0,0 +1,39 @@
+package com.starmediadev.starclock.table;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.snapshot.StopwatchSnapshot;
+
+/**
+ * A handle to a count-up clock stored in a {@link ClockTable}. This behaves like a {@link Stopwatch}, and ends when the time reaches the end time
+ */
+public final class TableStopwatch extends TableClock<StopwatchSnapshot> {
+    
+    TableStopwatch(ClockTable table, int slot, int generation) {
+        super(table, slot, generation);
+    }
+    
+    /**
+     * @return The time that this stopwatch ends at
+     */
+    public long getEndTime() {
+        return table.getLimit(slot, generation);
+    }
+    
+    /**
+     * Sets the new endTime of this Stopwatch.
+     * @param endTime The new endTime
+     */
+    public void setEndTime(long endTime) {
+        table.setLimit(slot, generation, endTime);
+    }
+    
+    @Override
+    public TableStopwatch start() {
+        return (TableStopwatch) super.start();
+    }
+    
+    @Override
+    public StopwatchSnapshot createSnapshot() {
+        return new StopwatchSnapshot(getTime(), getEndTime(), isPaused(), getOperation(), getCountAmount());
+    }
+}
@@ -0,0 +1,55 @@
+package com.starmediadev.starclock.table;
+
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.TimerSnapshot;
+
+/**
+ * A handle to a count-down clock stored in a {@link ClockTable}. This behaves like a {@link Timer}, and ends when the time reaches 0
+ */
+public final class TableTimer extends TableClock<TimerSnapshot> {
+    
+    TableTimer(ClockTable table, int slot, int generation) {
+        super(table, slot, generation);
+    }
+    
+    /**
+     * @return The length of this Timer
+     */
+    public long getLength() {
+        return table.getLimit(slot, generation);
+    }
+    
+    /**
+     * Resets the current count back to the length
+     */
+    public void reset() {
+        table.setTime(slot, generation, getLength());
+    }
+    
+    /**
+     * Sets the new length of this timer, keeping previous elapsed time. See {@link Timer#setLength(long)}
+     * @param length The new length
+     */
+    public void setLength(long length) {
+        table.setLength(slot, generation, length);
+    }
+    
+    /**
+     * Sets the new length and resets the time to the new length as well, loosing the elapsed time.
+     * @param length The new length
+     */
+    public void setLengthAndReset(long length) {
+        table.setLimit(slot, generation, length);
+        reset();
+    }
+    
+    @Override
+    public TableTimer start() {
+        return (TableTimer) super.start();
+    }
+    
+    @Override
+    public TimerSnapshot createSnapshot() {
+        return new TimerSnapshot(getTime(), isPaused(), getLength(), getOperation(), getCountAmount());
+    }
+}
@@ -0,0 +1,63 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.condition.defaults.StopwatchEndCondition;
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a run of the {@link ClockRunnable} does not allocate once no callback is due, using the allocation counter of the thread
+ */
+class AllocationFreeTickTest {
+    
+    private static final long COUNT_AMOUNT = 50;
+    private static final int CLOCKS = 500;
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int MEASURED_TICKS = 100;
+    
+    @ParameterizedTest
+    @EnumSource(ClockManager.EngineType.class)
+    void steadyStateTickDoesNotAllocate(ClockManager.EngineType engineType) {
+        com.sun.management.ThreadMXBean threads = threads();
+        Assumptions.assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported(), "Allocation counters are not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        
+        ClockManager manager = new ClockManager(null, COUNT_AMOUNT, engineType);
+        for (int i = 0; i < CLOCKS; i++) {
+            Timer timer = manager.createTimer(100_000_000L);
+            timer.setEndCondition(new TimerEndCondition());
+            timer.addCallback(snapshot -> true, 3_600_000L);
+            timer.addCallback(snapshot -> true, 7_200_000L);
+            timer.start();
+            
+            Stopwatch stopwatch = manager.createStopwatch(100_000_000L);
+            stopwatch.setEndCondition(new StopwatchEndCondition());
+            stopwatch.start();
+        }
+        
+        Runnable runnable = manager.getRunnable();
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            runnable.run();
+        }
+        
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            runnable.run();
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+        
+        assertEquals(0, after - before, "Bytes allocated in " + MEASURED_TICKS + " ticks of the " + engineType + " engine");
+    }
+    
+    private static com.sun.management.ThreadMXBean threads() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads ? threads : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.CallbackHolder;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.StopwatchSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallbackDispatcherTest {
+    
+    @Test
+    void replacedDispatcherIsUsedByExistingClocks() {
+        ClockManager manager = new ClockManager(null, 50);
+        AtomicInteger calls = new AtomicInteger();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> {
+            calls.incrementAndGet();
+            return true;
+        }, 50);
+        stopwatch.start();
+        
+        AtomicInteger first = new AtomicInteger();
+        manager.setCallbackDispatcher(new CallbackDispatcher(task -> {
+            first.incrementAndGet();
+            task.run();
+        }, 4, CallbackDispatcher.OverflowPolicy.DROP_OLDEST));
+        manager.getRunnable().run();
+        
+        AtomicInteger second = new AtomicInteger();
+        manager.setCallbackDispatcher(new CallbackDispatcher(task -> {
+            second.incrementAndGet();
+            task.run();
+        }, 4, CallbackDispatcher.OverflowPolicy.DROP_OLDEST));
+        manager.getRunnable().run();
+        manager.getRunnable().run();
+        
+        assertEquals(1, first.get());
+        assertEquals(2, second.get());
+        assertEquals(3, calls.get());
+    }
+    
+    @Test
+    void rejectedCallbacksRunOnTheTickThreadWhenBlocking() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        
+        ClockManager manager = new ClockManager(null, 50);
+        manager.setCallbackDispatcher(new CallbackDispatcher(executor, 4, CallbackDispatcher.OverflowPolicy.BLOCK));
+        AtomicInteger calls = new AtomicInteger();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> {
+            calls.incrementAndGet();
+            return true;
+        }, 50);
+        stopwatch.start();
+        
+        for (int i = 0; i < 3; i++) {
+            manager.getRunnable().run();
+        }
+        assertEquals(3, calls.get());
+    }
+    
+    @Test
+    void rejectedCallbacksStayBoundedAndRunOnceAccepted() {
+        AtomicInteger accepting = new AtomicInteger();
+        ExecutorService rejecting = Executors.newSingleThreadExecutor();
+        rejecting.shutdown();
+        
+        ClockManager manager = new ClockManager(null, 50);
+        CallbackDispatcher dispatcher = new CallbackDispatcher(task -> {
+            if (accepting.get() == 0) {
+                rejecting.execute(task);
+            }
+            task.run();
+        }, 2, CallbackDispatcher.OverflowPolicy.DROP_OLDEST);
+        manager.setCallbackDispatcher(dispatcher);
+        AtomicInteger calls = new AtomicInteger();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> {
+            calls.incrementAndGet();
+            return true;
+        }, 50);
+        stopwatch.start();
+        
+        for (int i = 0; i < 5; i++) {
+            manager.getRunnable().run();
+        }
+        assertEquals(0, calls.get());
+        
+        accepting.set(1);
+        manager.getRunnable().run();
+        assertEquals(2, calls.get());
+    }
+    
+    @Test
+    void blockingKeepsEveryCallbackInOrder() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ClockManager manager = new ClockManager(null, 50);
+        manager.setCallbackDispatcher(new CallbackDispatcher(executor, 2, CallbackDispatcher.OverflowPolicy.BLOCK));
+        List<Long> fired = Collections.synchronizedList(new ArrayList<>());
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return fired.add(snapshot.getTime());
+        }, 50);
+        stopwatch.start();
+        
+        for (int i = 0; i < 20; i++) {
+            manager.getRunnable().run();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(20, fired.size());
+        for (int i = 0; i < fired.size(); i++) {
+            assertEquals(i * 50L, fired.get(i));
+        }
+    }
+    
+    @Test
+    void interruptedBlockingQueuesTheCallbackAnyway() {
+        List<Runnable> pending = new ArrayList<>();
+        ClockManager manager = new ClockManager(null, 50);
+        manager.setCallbackDispatcher(new CallbackDispatcher(pending::add, 1, CallbackDispatcher.OverflowPolicy.BLOCK));
+        List<Long> fired = new ArrayList<>();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> fired.add(snapshot.getTime()), 50);
+        stopwatch.start();
+        
+        manager.getRunnable().run();
+        Thread.currentThread().interrupt();
+        try {
+            manager.getRunnable().run();
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        
+        drain(pending);
+        assertEquals(List.of(0L, 50L), fired);
+    }
+    
+    @Test
+    void droppingTheOldestKeepsTheNewestInOrder() {
+        List<Runnable> pending = new ArrayList<>();
+        ClockManager manager = new ClockManager(null, 50);
+        manager.setCallbackDispatcher(new CallbackDispatcher(pending::add, 2, CallbackDispatcher.OverflowPolicy.DROP_OLDEST));
+        List<Long> fired = new ArrayList<>();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> fired.add(snapshot.getTime()), 50);
+        stopwatch.start();
+        
+        for (int i = 0; i < 5; i++) {
+            manager.getRunnable().run();
+        }
+        drain(pending);
+        assertEquals(List.of(150L, 200L), fired);
+    }
+    
+    @Test
+    void coalescingKeepsThePlaceOfTheReplacedCall() {
+        List<Runnable> pending = new ArrayList<>();
+        ClockManager manager = new ClockManager(null, 50);
+        manager.setCallbackDispatcher(new CallbackDispatcher(pending::add, 2, CallbackDispatcher.OverflowPolicy.COALESCE));
+        List<String> fired = new ArrayList<>();
+        Timer timer = manager.createTimer(10_000);
+        timer.addCallback(snapshot -> fired.add("fast " + snapshot.getTime()), 50);
+        timer.addCallback(snapshot -> fired.add("slow " + snapshot.getTime()), 100);
+        timer.start();
+        
+        manager.getRunnable().run();
+        manager.getRunnable().run();
+        drain(pending);
+        assertEquals(List.of("fast 9950", "slow 10000"), fired);
+    }
+    
+    @Test
+    void callbacksThatReturnFalseStopAfterRunningOnTheExecutor() {
+        List<Runnable> pending = new ArrayList<>();
+        ClockManager manager = new ClockManager(null, 50);
+        manager.setCallbackDispatcher(new CallbackDispatcher(pending::add, 4, CallbackDispatcher.OverflowPolicy.BLOCK));
+        AtomicInteger calls = new AtomicInteger();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        long callbackId = stopwatch.addCallback(snapshot -> calls.incrementAndGet() > 1, 50);
+        stopwatch.start();
+        
+        for (int i = 0; i < 3; i++) {
+            manager.getRunnable().run();
+        }
+        assertTrue(holder(stopwatch, callbackId).getStatus());
+        drain(pending);
+        assertEquals(1, calls.get());
+        assertFalse(holder(stopwatch, callbackId).getStatus());
+        
+        for (int i = 0; i < 3; i++) {
+            manager.getRunnable().run();
+        }
+        drain(pending);
+        assertEquals(1, calls.get());
+    }
+    
+    private static CallbackHolder<StopwatchSnapshot> holder(Stopwatch stopwatch, long callbackId) {
+        for (CallbackHolder<StopwatchSnapshot> holder : stopwatch.callbacks) {
+            if (holder.getCallbackId() == callbackId) {
+                return holder;
+            }
+        }
+        throw new AssertionError("No callback " + callbackId);
+    }
+    
+    private static void drain(List<Runnable> pending) {
+        while (!pending.isEmpty()) {
+            pending.remove(0).run();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,315 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.ClockCallback;
+import com.starmediadev.starclock.callback.MissedCallbackPolicy;
+import com.starmediadev.starclock.callback.TriggerSchedule;
+import com.starmediadev.starclock.condition.ClockEndCondition;
+import com.starmediadev.starclock.condition.CombinedEndCondition;
+import com.starmediadev.starclock.condition.ElapsedEndCondition;
+import com.starmediadev.starclock.condition.ThresholdEndCondition;
+import com.starmediadev.starclock.condition.defaults.StopwatchEndCondition;
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+import com.starmediadev.starclock.snapshot.StopwatchSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockCheckpointTest {
+    
+    private static final ClockCheckpoint.Resolver RESOLVER = (clock, callbackId) -> (ClockCallback<ClockSnapshot>) snapshot -> true;
+    private static final int RECORD_BYTES = (10 + 5 + 2) * 8;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void restoreKeepsTheStateOfEveryClock() throws IOException {
+        Path file = this.directory.resolve("clocks.bin");
+        ClockManager manager = new ClockManager(null, 50);
+        for (int i = 0; i < 20; i++) {
+            Timer timer = manager.createTimer(60_000 + i);
+            timer.setEndCondition(new TimerEndCondition());
+            timer.addCallback(snapshot -> true, 1000, MissedCallbackPolicy.FIRE_ALL);
+            timer.setPriority(Clock.Priority.values()[i % 3]);
+            timer.start();
+            
+            Stopwatch stopwatch = manager.createStopwatch(90_000 + i);
+            stopwatch.addCallback(snapshot -> true, 500);
+            if (i % 2 == 0) {
+                stopwatch.start();
+            }
+        }
+        for (int i = 0; i < 30; i++) {
+            manager.getRunnable().run();
+        }
+        
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            checkpoint.checkpoint(manager);
+        }
+        
+        ClockManager restored = new ClockManager(null, 50);
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            assertTrue(checkpoint.isComplete());
+            assertEquals(40, checkpoint.restore(restored, RESOLVER).size());
+        }
+        assertEquals(describe(manager), describe(restored));
+    }
+    
+    @Test
+    void recordsAreLaidOutAgainForMoreCallbacksAndClocks() throws IOException {
+        Path file = this.directory.resolve("clocks.bin");
+        ClockManager manager = new ClockManager(null, 50);
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file, 1)) {
+            Timer timer = manager.createTimer(60_000);
+            timer.addCallback(snapshot -> true, 1000);
+            timer.start();
+            checkpoint.checkpoint(manager);
+            
+            for (int i = 0; i < 3; i++) {
+                timer.addCallback(snapshot -> true, 2000 + i);
+            }
+            manager.getRunnable().run();
+            checkpoint.checkpoint(manager);
+            
+            for (int i = 0; i < 2000; i++) {
+                manager.createStopwatch(10_000 + i).start();
+            }
+            manager.getRunnable().run();
+            checkpoint.checkpoint(manager);
+            
+            for (int i = 0; i < 6; i++) {
+                timer.addCallback(snapshot -> true, 5000 + i);
+            }
+            manager.getRunnable().run();
+            checkpoint.checkpoint(manager);
+        }
+        
+        ClockManager restored = new ClockManager(null, 50);
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            checkpoint.restore(restored, RESOLVER);
+        }
+        assertEquals(2001, restored.getClockCount());
+        assertEquals(describe(manager), describe(restored));
+    }
+    
+    @Test
+    void unfinishedLayoutRestoresThePreviousCheckpoint() throws IOException {
+        Path file = this.directory.resolve("clocks.bin");
+        ClockManager manager = new ClockManager(null, 50);
+        Timer timer = manager.createTimer(60_000);
+        timer.addCallback(snapshot -> true, 1000);
+        timer.start();
+        Map<Long, String> before;
+        byte[] header;
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file, 1)) {
+            checkpoint.checkpoint(manager);
+            before = describe(manager);
+            header = Arrays.copyOf(Files.readAllBytes(file), 64);
+            
+            for (int i = 0; i < 4; i++) {
+                timer.addCallback(snapshot -> true, 2000 + i);
+            }
+            manager.getRunnable().run();
+            checkpoint.checkpoint(manager);
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(header), 0);
+        }
+        
+        ClockManager restored = new ClockManager(null, 50);
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            checkpoint.restore(restored, RESOLVER);
+        }
+        assertEquals(before, describe(restored));
+    }
+    
+    @Test
+    void damagedNewestCopyRestoresThePreviousCheckpoint() throws IOException {
+        Path file = this.directory.resolve("clocks.bin");
+        ClockManager manager = new ClockManager(null, 50);
+        Timer timer = manager.createTimer(60_000);
+        timer.addCallback(snapshot -> true, 1000);
+        timer.start();
+        Map<Long, String> before;
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file, 1)) {
+            checkpoint.checkpoint(manager);
+            before = describe(manager);
+            for (int i = 0; i < 10; i++) {
+                manager.getRunnable().run();
+            }
+            checkpoint.checkpoint(manager);
+        }
+        
+        damage(file, 64 + RECORD_BYTES + 16);
+        ClockManager restored = new ClockManager(null, 50);
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            assertEquals(1, checkpoint.restore(restored, RESOLVER).size());
+        }
+        assertEquals(before, describe(restored));
+    }
+    
+    @Test
+    void recordWithoutAValidCopyFailsTheRestore() throws IOException {
+        Path file = this.directory.resolve("clocks.bin");
+        ClockManager manager = new ClockManager(null, 50);
+        manager.createTimer(60_000).start();
+        manager.createStopwatch(60_000).start();
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file, 1)) {
+            checkpoint.checkpoint(manager);
+        }
+        
+        damage(file, 64 + 16);
+        ClockManager restored = new ClockManager(null, 50);
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            assertThrows(IOException.class, () -> checkpoint.restore(restored, RESOLVER));
+        }
+        assertEquals(0, restored.getClockCount());
+    }
+    
+    @Test
+    void builtInEndConditionsAreRestored() throws IOException {
+        Path file = this.directory.resolve("clocks.bin");
+        ClockManager manager = new ClockManager(null, 50);
+        manager.createTimer(60_000).setEndCondition(ThresholdEndCondition.atMost(5000));
+        manager.createTimer(60_000).setEndCondition(ElapsedEndCondition.after(3000));
+        manager.createTimer(60_000).setEndCondition(CombinedEndCondition.any(new TimerEndCondition(), ThresholdEndCondition.atMost(1000)));
+        manager.createStopwatch(60_000).setEndCondition(CombinedEndCondition.all(ThresholdEndCondition.atLeast(2000), ElapsedEndCondition.after(4000)));
+        manager.createStopwatch(60_000).setEndCondition(new StopwatchEndCondition());
+        manager.createStopwatch(60_000).setEndCondition(CombinedEndCondition.any(ThresholdEndCondition.atLeast(1), ThresholdEndCondition.atLeast(2)));
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            checkpoint.checkpoint(manager);
+        }
+        
+        ClockManager restored = new ClockManager(null, 50);
+        ClockCheckpoint.Resolver resolver = new ClockCheckpoint.Resolver() {
+            @Override
+            public ClockCallback<? extends ClockSnapshot> resolveCallback(Clock<? extends ClockSnapshot> clock, long callbackId) {
+                return null;
+            }
+            
+            @Override
+            public ClockEndCondition<? extends ClockSnapshot> resolveEndCondition(Clock<? extends ClockSnapshot> clock) {
+                return ElapsedEndCondition.after(clock.getClockId());
+            }
+        };
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            checkpoint.restore(restored, resolver);
+        }
+        
+        Map<Long, String> expected = new TreeMap<>();
+        for (Clock<? extends ClockSnapshot> clock : manager.getClocks()) {
+            expected.put(clock.getClockId(), describe(clock.getEndCondition()));
+        }
+        Clock<? extends ClockSnapshot> resolved = manager.getClocks().get(5);
+        expected.put(resolved.getClockId(), describe(ElapsedEndCondition.after(resolved.getClockId())));
+        Map<Long, String> actual = new TreeMap<>();
+        for (Clock<? extends ClockSnapshot> clock : restored.getClocks()) {
+            actual.put(clock.getClockId(), describe(clock.getEndCondition()));
+        }
+        assertEquals(expected, actual);
+    }
+    
+    @Test
+    void triggerPointsThatRanDoNotRunAgain() throws IOException {
+        Path file = this.directory.resolve("clocks.bin");
+        ClockManager manager = new ClockManager(null, 50);
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        List<Long> fired = new ArrayList<>();
+        stopwatch.addCallback(snapshot -> {
+            fired.add(snapshot.getTime());
+            stopwatch.pause();
+            return true;
+        }, TriggerSchedule.at(1500, 3000));
+        stopwatch.start();
+        while (!stopwatch.isPaused()) {
+            manager.getRunnable().run();
+        }
+        stopwatch.setTime(1500);
+        assertEquals(List.of(1500L), fired);
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            checkpoint.checkpoint(manager);
+        }
+        
+        ClockManager restored = new ClockManager(null, 50);
+        List<Long> restoredFired = new ArrayList<>();
+        ClockCheckpoint.Resolver resolver = (clock, callbackId) -> new ClockCallback<StopwatchSnapshot>() {
+            @Override
+            public boolean callback(StopwatchSnapshot snapshot) {
+                return restoredFired.add(snapshot.getTime());
+            }
+            
+            @Override
+            public TriggerSchedule getTriggers() {
+                return TriggerSchedule.at(1500, 3000);
+            }
+        };
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            checkpoint.restore(restored, resolver).get(0).unpause();
+        }
+        for (int i = 0; i < 40; i++) {
+            restored.getRunnable().run();
+        }
+        assertEquals(List.of(3000L), restoredFired);
+        
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            assertThrows(IllegalStateException.class, () -> checkpoint.restore(new ClockManager(null, 50), RESOLVER));
+        }
+    }
+    
+    private static void damage(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate(1);
+            channel.read(bytes, position);
+            bytes.put(0, (byte) (bytes.get(0) ^ 0x5A));
+            bytes.rewind();
+            channel.write(bytes, position);
+        }
+    }
+    
+    private static String describe(ClockEndCondition<?> condition) {
+        if (condition instanceof CombinedEndCondition<?> combined) {
+            List<String> parts = new ArrayList<>();
+            for (ClockEndCondition<?> part : combined.getConditions()) {
+                parts.add(describe(part));
+            }
+            return (combined.isAll() ? "all" : "any") + parts;
+        }
+        if (condition instanceof ThresholdEndCondition<?> threshold) {
+            return (threshold.isAtLeast() ? "atLeast " : "atMost ") + threshold.getThreshold();
+        }
+        if (condition instanceof ElapsedEndCondition<?> elapsed) {
+            return "after " + elapsed.getDuration();
+        }
+        return condition == null ? "none" : condition.getClass().getSimpleName();
+    }
+    
+    private static Map<Long, String> describe(ClockManager manager) {
+        Map<Long, String> clocks = new TreeMap<>();
+        for (Clock<? extends ClockSnapshot> clock : manager.getClocks()) {
+            long extent = clock instanceof Timer timer ? timer.getLength() : ((Stopwatch) clock).getEndTime();
+            List<String> callbacks = new ArrayList<>();
+            for (var holder : clock.callbacks) {
+                callbacks.add(holder.getCallbackId() + ":" + holder.getInterval() + ":" + holder.getMissedCallbackPolicy());
+            }
+            clocks.put(clock.getClockId(), clock.getClass().getSimpleName() + " time=" + clock.getTime() + " elapsed=" + clock.getElapsed() + " extent=" + extent + " paused=" + clock.isPaused() + " priority=" + clock.getPriority() + " callbacks=" + callbacks);
+        }
+        return clocks;
+    }
+}
\ No newline at end of file
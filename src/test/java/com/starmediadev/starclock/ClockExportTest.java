@@ -0,0 +1,133 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockExportTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void recordsAreReadBackAsTheyWereExported() throws IOException {
+        Path file = this.directory.resolve("clocks.export");
+        ClockManager manager = new ClockManager(null, 50);
+        Timer timer = manager.createTimer(10_000);
+        timer.start();
+        Stopwatch stopwatch = manager.createStopwatch(20_000);
+        stopwatch.start();
+        stopwatch.pause();
+        
+        try (ClockExport export = ClockExport.open(file, 4, 3, 2); ClockExport.Reader reader = ClockExport.Reader.open(file)) {
+            manager.setExport(export);
+            assertEquals(0, reader.getSequence());
+            assertEquals(0, reader.readLatest((clockId, type, time, extent, paused, operation) -> fail()));
+            assertEquals(4, reader.getCapacity());
+            assertEquals(3, reader.getFrames());
+            assertEquals(2, reader.getInterval());
+            
+            manager.getRunnable().run();
+            assertEquals(0, reader.getSequence());
+            manager.getRunnable().run();
+            assertEquals(1, reader.getSequence());
+            
+            List<String> records = new ArrayList<>();
+            assertEquals(1, reader.readLatest((clockId, type, time, extent, paused, operation) -> records.add(clockId + " " + type + " " + time + " " + extent + " " + paused + " " + operation)));
+            assertEquals(List.of(timer.getClockId() + " " + ClockExport.TYPE_TIMER + " 9900 10000 false DOWN", stopwatch.getClockId() + " " + ClockExport.TYPE_STOPWATCH + " 0 20000 true UP"), records);
+            assertEquals(2, reader.getClockCount(1));
+            assertTrue(reader.getExportTime(1) > 0);
+        }
+    }
+    
+    @Test
+    void theOldestFramesAreOverwritten() throws IOException {
+        Path file = this.directory.resolve("clocks.export");
+        ClockManager manager = new ClockManager(null, 50);
+        Timer timer = manager.createTimer(10_000);
+        timer.start();
+        
+        try (ClockExport export = ClockExport.open(file, 1, 3, 1); ClockExport.Reader reader = ClockExport.Reader.open(file)) {
+            manager.setExport(export);
+            for (int i = 0; i < 5; i++) {
+                manager.getRunnable().run();
+            }
+            assertEquals(5, reader.getSequence());
+            assertEquals(5, export.getSequence());
+            
+            List<Long> times = new ArrayList<>();
+            for (long sequence = 0; sequence <= 6; sequence++) {
+                if (reader.read(sequence, (clockId, type, time, extent, paused, operation) -> times.add(time))) {
+                    assertTrue(sequence >= 3 && sequence <= 5);
+                    assertEquals(1, reader.getClockCount(sequence));
+                } else {
+                    assertEquals(-1, reader.getClockCount(sequence));
+                    assertEquals(0, reader.getExportTime(sequence));
+                }
+            }
+            assertEquals(List.of(9850L, 9800L, 9750L), times);
+        }
+    }
+    
+    @Test
+    void clocksThatDoNotFitAreCountedButLeftOut() throws IOException {
+        Path file = this.directory.resolve("clocks.export");
+        ClockManager manager = new ClockManager(null, 50);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(manager.createTimer(10_000).getClockId());
+        }
+        
+        try (ClockExport export = ClockExport.open(file, 3, 2, 1); ClockExport.Reader reader = ClockExport.Reader.open(file)) {
+            manager.setExport(export);
+            manager.getRunnable().run();
+            
+            List<Long> records = new ArrayList<>();
+            assertEquals(1, reader.readLatest((clockId, type, time, extent, paused, operation) -> records.add(clockId)));
+            assertEquals(ids.subList(0, 3), records);
+            assertEquals(5, reader.getClockCount(1));
+        }
+    }
+    
+    @Test
+    void framesOverwrittenWhileTheyAreReadAreReported() throws IOException {
+        Path file = this.directory.resolve("clocks.export");
+        ClockManager manager = new ClockManager(null, 50);
+        manager.createTimer(10_000).start();
+        
+        try (ClockExport export = ClockExport.open(file, 1, 2, 1); ClockExport.Reader reader = ClockExport.Reader.open(file)) {
+            manager.setExport(export);
+            manager.getRunnable().run();
+            
+            List<Long> times = new ArrayList<>();
+            assertFalse(reader.read(1, (clockId, type, time, extent, paused, operation) -> {
+                times.add(time);
+                manager.getRunnable().run();
+                manager.getRunnable().run();
+            }));
+            assertEquals(List.of(9950L), times);
+            assertEquals(3, reader.getSequence());
+            assertTrue(reader.read(3, (clockId, type, time, extent, paused, operation) -> {}));
+        }
+    }
+    
+    @Test
+    void filesThatAreNotExportsAreRejected() throws IOException {
+        Path file = this.directory.resolve("other.bin");
+        Files.write(file, new byte[128]);
+        assertThrows(IOException.class, () -> ClockExport.Reader.open(file));
+        
+        Files.write(file, new byte[16]);
+        assertThrows(IOException.class, () -> ClockExport.Reader.open(file));
+        assertThrows(IllegalArgumentException.class, () -> ClockExport.open(file, 0, 1, 1));
+    }
+}
\ No newline at end of file
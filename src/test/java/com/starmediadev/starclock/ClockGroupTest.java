@@ -0,0 +1,126 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockGroupTest {
+    
+    private static final List<String> TAGS = List.of("red", "green", "blue", "yellow");
+    
+    @Test
+    void slotsStayConsistentWhileClocksAreTaggedAndUntagged() {
+        ClockManager manager = new ClockManager(null, 50);
+        List<Clock<?>> clocks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            clocks.add(i % 2 == 0 ? manager.createTimer(10_000) : manager.createStopwatch(10_000));
+        }
+        
+        Map<String, Set<Clock<?>>> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            Clock<?> clock = clocks.get(random.nextInt(clocks.size()));
+            String tag = TAGS.get(random.nextInt(TAGS.size()));
+            Set<Clock<?>> members = expected.computeIfAbsent(tag, key -> new HashSet<>());
+            switch (random.nextInt(5)) {
+                case 0, 1 -> assertEquals(members.add(clock), manager.tag(clock, tag));
+                case 2, 3 -> assertEquals(members.remove(clock), manager.untag(clock, tag));
+                default -> {
+                    manager.removeClock(clock);
+                    for (Set<Clock<?>> tagged : expected.values()) {
+                        tagged.remove(clock);
+                    }
+                    assertTrue(manager.getTags(clock).isEmpty());
+                    clocks.remove(clock);
+                    Clock<?> added = manager.createTimer(10_000);
+                    clocks.add(added);
+                }
+            }
+            verify(manager, clocks, expected);
+        }
+    }
+    
+    @Test
+    void bulkOperationsChangeEveryClockBetweenTheSameRuns() {
+        ClockManager manager = new ClockManager(null, 50);
+        List<Timer> timers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Timer timer = manager.createTimer(10_000);
+            manager.tag(timer, "round");
+            timer.start();
+            timers.add(timer);
+        }
+        Stopwatch stopwatch = manager.createStopwatch(10_000);
+        manager.tag(stopwatch, "round");
+        stopwatch.start();
+        Timer untagged = manager.createTimer(10_000);
+        untagged.start();
+        ClockGroup group = manager.getGroup("round");
+        assertEquals(4, group.size());
+        assertEquals("round", group.getTag());
+        
+        CompletableFuture<Integer> paused = group.pause();
+        assertFalse(paused.isDone());
+        manager.getRunnable().run();
+        assertEquals(4, paused.join());
+        for (Clock<?> clock : group.getClocks()) {
+            assertTrue(clock.isPaused());
+        }
+        assertFalse(untagged.isPaused());
+        
+        CompletableFuture<Integer> added = group.addTime(1000);
+        CompletableFuture<Integer> length = group.setLength(20_000);
+        manager.getRunnable().run();
+        assertEquals(4, added.join());
+        assertEquals(3, length.join());
+        for (Timer timer : timers) {
+            assertEquals(20_000, timer.getLength());
+            assertEquals(21_000, timer.getTime());
+        }
+        assertEquals(1000, stopwatch.getTime());
+        assertEquals(10_000, untagged.getLength());
+        
+        CompletableFuture<Integer> unpaused = group.unpause();
+        manager.getRunnable().run();
+        assertEquals(4, unpaused.join());
+        assertFalse(stopwatch.isPaused());
+        
+        CompletableFuture<Integer> cancelled = group.cancel();
+        manager.getRunnable().run();
+        assertEquals(4, cancelled.join());
+        manager.getRunnable().run();
+        assertEquals(0, group.size());
+        assertFalse(manager.getTags().contains("round"));
+        assertEquals(List.of(untagged), manager.getClocks());
+        
+        CompletableFuture<Integer> missing = manager.getGroup("missing").pause();
+        manager.getRunnable().run();
+        assertEquals(0, missing.join());
+        assertEquals(0, manager.getGroup("missing").size());
+    }
+    
+    private static void verify(ClockManager manager, List<Clock<?>> clocks, Map<String, Set<Clock<?>>> expected) {
+        for (Clock<?> clock : clocks) {
+            assertEquals(clock.tags.length, clock.tagSlots.length);
+            for (int i = 0; i < clock.tags.length; i++) {
+                assertSame(clock, clock.tags[i].clocks[clock.tagSlots[i]]);
+            }
+        }
+        
+        Set<String> tags = new HashSet<>();
+        for (Map.Entry<String, Set<Clock<?>>> entry : expected.entrySet()) {
+            ClockGroup group = manager.getGroup(entry.getKey());
+            assertEquals(entry.getValue().size(), group.size());
+            assertEquals(entry.getValue(), new HashSet<>(group.getClocks()));
+            if (!entry.getValue().isEmpty()) {
+                tags.add(entry.getKey());
+            }
+        }
+        assertEquals(tags, manager.getTags());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.ClockCallback;
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockJournalTest {
+    
+    private static final ClockCheckpoint.Resolver RESOLVER = (clock, callbackId) -> (ClockCallback<ClockSnapshot>) snapshot -> true;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void replayAppliesTheChangesMadeAfterTheCheckpoint() throws IOException {
+        Path file = this.directory.resolve("clocks.bin");
+        Path journalDirectory = this.directory.resolve("journal");
+        ClockManager manager = new ClockManager(null, 50);
+        ClockJournal journal = ClockJournal.open(journalDirectory);
+        manager.setJournal(journal);
+        List<Timer> timers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Timer timer = manager.createTimer(60_000);
+            timer.setEndCondition(new TimerEndCondition());
+            timer.addCallback(snapshot -> true, 1000);
+            timers.add(timer);
+        }
+        
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            journal.checkpoint(checkpoint, manager);
+        }
+        
+        timers.get(0).addTime(1234);
+        timers.get(1).setLength(90_000);
+        timers.get(2).unpause();
+        timers.get(2).setTime(500);
+        timers.get(2).pause();
+        timers.get(3).removeCallback(1);
+        timers.get(3).addCallback(snapshot -> true, 250);
+        manager.removeClock(timers.get(4));
+        timers.get(5).unpause();
+        for (int i = 0; i < 10; i++) {
+            manager.getRunnable().run();
+        }
+        timers.get(5).pause();
+        assertEquals(500, timers.get(5).getElapsed());
+        Stopwatch stopwatch = manager.createStopwatch(777);
+        stopwatch.setEndTime(888);
+        stopwatch.addCallback(snapshot -> true, 50);
+        stopwatch.setTime(100);
+        journal.close();
+        
+        ClockManager restored = new ClockManager(null, 50);
+        try (ClockCheckpoint checkpoint = ClockCheckpoint.open(file)) {
+            checkpoint.restore(restored, RESOLVER);
+        }
+        ClockJournal reopened = ClockJournal.open(journalDirectory);
+        try {
+            assertTrue(reopened.replay(restored, RESOLVER) > 0);
+        } finally {
+            reopened.close();
+        }
+        assertEquals(describe(manager), describe(restored));
+    }
+    
+    @Test
+    void compactionKeepsTheResultOfReplay() throws IOException, InterruptedException {
+        Path journalDirectory = this.directory.resolve("journal");
+        ClockManager manager = new ClockManager(null, 50);
+        ClockJournal journal = ClockJournal.open(journalDirectory, 0, 1024);
+        manager.setJournal(journal);
+        List<Timer> timers = new ArrayList<>();
+        for (int round = 0; round < 40; round++) {
+            Timer timer = manager.createTimer(10_000 + round);
+            timer.addCallback(snapshot -> true, 100 + round);
+            timers.add(timer);
+            for (Timer changed : timers) {
+                changed.addTime(round);
+            }
+            if (round % 3 == 1) {
+                manager.removeClock(timers.remove(0));
+            }
+            if (round % 5 == 0) {
+                Timer last = timers.get(timers.size() - 1);
+                last.removeCallback(1);
+                last.addCallback(snapshot -> true, 5000);
+                last.setLength(20_000 + round);
+            }
+            journal.sync();
+        }
+        
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (segments(journalDirectory) > 5 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(segments(journalDirectory) <= 5, "The segments were not compacted");
+        journal.close();
+        
+        ClockManager replayed = new ClockManager(null, 50);
+        ClockJournal reopened = ClockJournal.open(journalDirectory);
+        try {
+            reopened.replay(replayed, RESOLVER);
+        } finally {
+            reopened.close();
+        }
+        assertEquals(describe(manager), describe(replayed));
+    }
+    
+    private static long segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+    
+    private static Map<Long, String> describe(ClockManager manager) {
+        Map<Long, String> clocks = new TreeMap<>();
+        for (Clock<? extends ClockSnapshot> clock : manager.getClocks()) {
+            long extent = clock instanceof Timer timer ? timer.getLength() : ((Stopwatch) clock).getEndTime();
+            List<String> callbacks = new ArrayList<>();
+            for (var holder : clock.callbacks) {
+                callbacks.add(holder.getCallbackId() + ":" + holder.getInterval());
+            }
+            clocks.put(clock.getClockId(), clock.getClass().getSimpleName() + " time=" + clock.getTime() + " elapsed=" + clock.getElapsed() + " extent=" + extent + " paused=" + clock.isPaused() + " callbacks=" + callbacks);
+        }
+        return clocks;
+    }
+}
\ No newline at end of file
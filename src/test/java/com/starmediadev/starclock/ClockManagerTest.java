@@ -0,0 +1,191 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockManagerTest {
+    
+    private static final List<Long> EVERY_SECOND = List.of(10_000L, 9000L, 8000L, 7000L, 6000L, 5000L, 4000L, 3000L, 2000L, 1000L, 0L);
+    
+    @ParameterizedTest
+    @EnumSource(value = ClockManager.EngineType.class, names = {"LINEAR", "TIMING_WHEEL"})
+    void clocksOverTheBudgetAreDeferredAndCaughtUp(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 50, engineType);
+        AtomicBoolean slowCritical = new AtomicBoolean(true);
+        AtomicBoolean slowNormal = new AtomicBoolean();
+        List<Integer> order = new ArrayList<>();
+        Stopwatch critical = manager.createStopwatch(1_000_000L);
+        critical.setPriority(Clock.Priority.CRITICAL);
+        critical.addCallback(snapshot -> sleepIf(slowCritical), 50);
+        List<Stopwatch> clocks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int index = i;
+            Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+            stopwatch.addCallback(snapshot -> {
+                order.add(index);
+                return index != 0 || sleepIf(slowNormal);
+            }, 50);
+            clocks.add(stopwatch);
+        }
+        critical.start();
+        for (Stopwatch stopwatch : clocks) {
+            stopwatch.start();
+        }
+        manager.setTickBudget(1_000_000L);
+        
+        manager.getRunnable().run();
+        assertTrue(order.isEmpty());
+        for (Stopwatch stopwatch : clocks) {
+            assertEquals(1, stopwatch.getDeferrals());
+        }
+        
+        slowCritical.set(false);
+        slowNormal.set(true);
+        manager.getRunnable().run();
+        Set<Stopwatch> deferred = new HashSet<>();
+        for (Stopwatch stopwatch : clocks) {
+            if (stopwatch.getDeferrals() == 2) {
+                deferred.add(stopwatch);
+            }
+        }
+        assertEquals(4, deferred.size());
+        
+        order.clear();
+        manager.getRunnable().run();
+        Set<Stopwatch> first = new HashSet<>();
+        for (int i = 0; first.size() < deferred.size(); i++) {
+            first.add(clocks.get(order.get(i)));
+        }
+        assertEquals(deferred, first);
+        assertEquals(150, critical.getTime());
+        for (Stopwatch stopwatch : clocks) {
+            assertEquals(150, stopwatch.getTime());
+        }
+        assertEquals(0, critical.getDeferrals());
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = ClockManager.EngineType.class, names = {"LINEAR", "TIMING_WHEEL"})
+    void criticalClocksRunWhenTheBudgetIsUsedUp(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 50, engineType);
+        List<String> fired = new ArrayList<>();
+        Stopwatch normal = manager.createStopwatch(1_000_000L);
+        normal.addCallback(snapshot -> fired.add("normal"), 50);
+        Stopwatch bestEffort = manager.createStopwatch(1_000_000L);
+        bestEffort.setPriority(Clock.Priority.BEST_EFFORT);
+        bestEffort.addCallback(snapshot -> fired.add("best effort"), 50);
+        Stopwatch critical = manager.createStopwatch(1_000_000L);
+        critical.setPriority(Clock.Priority.CRITICAL);
+        critical.addCallback(snapshot -> fired.add("critical"), 50);
+        for (Stopwatch stopwatch : List.of(normal, bestEffort, critical)) {
+            stopwatch.start();
+        }
+        manager.setTickBudget(1);
+        
+        for (int i = 0; i < 4; i++) {
+            manager.getRunnable().run();
+        }
+        assertEquals(List.of("critical", "critical", "critical", "critical"), fired);
+        assertEquals(200, critical.getTime());
+        assertEquals(4, normal.getDeferrals());
+        assertEquals(4, bestEffort.getDeferrals());
+        
+        fired.clear();
+        manager.setTickBudget(0);
+        manager.getRunnable().run();
+        assertTrue(fired.containsAll(List.of("normal", "best effort", "critical")));
+        assertEquals(250, normal.getTime());
+        assertEquals(250, bestEffort.getTime());
+    }
+    
+    @ParameterizedTest
+    @EnumSource(ClockManager.EngineType.class)
+    void advancingRunsTheCallbacksWhenTicksWould(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 50, engineType, new VirtualClockSource());
+        List<Long> fired = new ArrayList<>();
+        Timer timer = createTimer(manager, 10_000, 1000, fired);
+        
+        manager.advance(10_000);
+        assertEquals(EVERY_SECOND, fired);
+        assertEquals(0, timer.getTime());
+        assertTrue(timer.isCancelled());
+    }
+    
+    @ParameterizedTest
+    @EnumSource(ClockManager.EngineType.class)
+    void advancingInPartsOfATickMatchesOneAdvance(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 50, engineType, new VirtualClockSource());
+        List<Long> fired = new ArrayList<>();
+        Timer timer = createTimer(manager, 10_000, 1000, fired);
+        
+        for (int i = 0; i < 10_000 / 30 + 1; i++) {
+            manager.advance(30);
+        }
+        assertEquals(EVERY_SECOND, fired);
+        assertTrue(timer.isCancelled());
+    }
+    
+    @Test
+    void advancingMatchesRunningTheTicks() {
+        for (ClockManager.EngineType engineType : new ClockManager.EngineType[] {ClockManager.EngineType.LINEAR, ClockManager.EngineType.TIMING_WHEEL}) {
+            ClockManager manager = new ClockManager(null, 50, engineType);
+            List<Long> fired = new ArrayList<>();
+            Timer timer = createTimer(manager, 10_000, 1000, fired);
+            for (int i = 0; i < 10_000 / 50 + 1; i++) {
+                manager.getRunnable().run();
+            }
+            assertEquals(EVERY_SECOND, fired, engineType.name());
+            assertTrue(timer.isCancelled(), engineType.name());
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(ClockManager.EngineType.class)
+    void advancingToTheNextEventStopsOnEveryCallback(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 50, engineType, new VirtualClockSource());
+        List<Long> fired = new ArrayList<>();
+        Timer timer = createTimer(manager, 30 * 60_000, 60_000, fired);
+        
+        assertEquals(0, manager.advanceToNextEvent());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(60_000, manager.advanceToNextEvent());
+        }
+        assertEquals(-1, manager.advanceToNextEvent());
+        assertEquals(31, fired.size());
+        for (int i = 0; i < fired.size(); i++) {
+            assertEquals(30 * 60_000 - i * 60_000L, fired.get(i));
+        }
+        assertTrue(timer.isCancelled());
+    }
+    
+    private static Timer createTimer(ClockManager manager, long length, long interval, List<Long> fired) {
+        Timer timer = manager.createTimer(length);
+        timer.setEndCondition(new TimerEndCondition());
+        timer.addCallback(snapshot -> fired.add(snapshot.getTime()), interval);
+        timer.start();
+        return timer;
+    }
+    
+    private static boolean sleepIf(AtomicBoolean slow) {
+        if (slow.compareAndSet(true, false)) {
+            try {
+                Thread.sleep(3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
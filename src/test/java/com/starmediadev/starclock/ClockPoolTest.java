@@ -0,0 +1,158 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.condition.defaults.StopwatchEndCondition;
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockPoolTest {
+    
+    @Test
+    void handlesStopWorkingOnceTheClockIsRecycled() {
+        ClockManager manager = new ClockManager(null, 50);
+        manager.setClockPool(new ClockPool(4));
+        ClockHandle<Timer> handle = manager.createPooledTimer(100);
+        Timer timer = handle.get();
+        timer.setEndCondition(new TimerEndCondition());
+        timer.start();
+        
+        runUntilRecycled(manager, handle);
+        assertFalse(handle.isValid());
+        assertThrows(IllegalStateException.class, handle::get);
+        assertFalse(handle.apply(Clock::pause));
+        assertFalse(handle.cancel());
+        assertEquals(1, manager.getClockPool().getTimers());
+        
+        ClockHandle<Timer> reused = manager.createPooledTimer(200);
+        assertSame(timer, reused.get());
+        assertEquals(handle.getGeneration() + 1, reused.getGeneration());
+        assertEquals(200, reused.get().getTime());
+        assertFalse(handle.isValid());
+        assertTrue(reused.isValid());
+    }
+    
+    @Test
+    void queuedChangesAreDroppedWhenTheClockIsRecycledFirst() throws InterruptedException {
+        ClockManager manager = new ClockManager(null, 50);
+        manager.setClockPool(new ClockPool(4));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Stopwatch blocking = manager.createStopwatch(1_000_000L);
+        ClockHandle<Timer> handle = manager.createPooledTimer(100);
+        blocking.addCallback(snapshot -> {
+            if (handle.get().getTime() == 0) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+            return true;
+        }, 50);
+        blocking.start();
+        handle.get().setEndCondition(new TimerEndCondition());
+        handle.get().start();
+        
+        Runnable runnable = manager.getRunnable();
+        Thread ticks = new Thread(() -> {
+            while (handle.isValid()) {
+                runnable.run();
+            }
+        });
+        ticks.start();
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        
+        List<Timer> applied = new ArrayList<>();
+        assertTrue(handle.apply(applied::add));
+        release.countDown();
+        ticks.join();
+        assertFalse(handle.isValid());
+        
+        ClockHandle<Timer> reused = manager.createPooledTimer(200);
+        runnable.run();
+        assertTrue(applied.isEmpty());
+        assertTrue(reused.isValid());
+    }
+    
+    @Test
+    void clocksWithAnotherCountAmountAreDropped() {
+        ClockPool pool = new ClockPool(4);
+        ClockManager fast = new ClockManager(null, 50);
+        fast.setClockPool(pool);
+        ClockManager slow = new ClockManager(null, 100);
+        slow.setClockPool(pool);
+        
+        ClockHandle<Timer> handle = fast.createPooledTimer(100);
+        Timer timer = handle.get();
+        timer.setEndCondition(new TimerEndCondition());
+        timer.start();
+        runUntilRecycled(fast, handle);
+        assertEquals(1, pool.getTimers());
+        
+        ClockHandle<Timer> other = slow.createPooledTimer(100);
+        assertNotSame(timer, other.get());
+        assertEquals(100, other.get().getCountAmount());
+        assertEquals(0, pool.getTimers());
+        assertEquals(1, pool.getDropped());
+        assertEquals(0, pool.getHits());
+        assertEquals(2, pool.getMisses());
+    }
+    
+    @Test
+    void statsCountHitsMissesAndOccupancy() {
+        ClockManager manager = new ClockManager(null, 50);
+        ClockPool pool = new ClockPool(2);
+        manager.setClockPool(pool);
+        
+        List<ClockHandle<Timer>> handles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ClockHandle<Timer> handle = manager.createPooledTimer(100);
+            handle.get().setEndCondition(new TimerEndCondition());
+        handle.get().start();
+            handles.add(handle);
+        }
+        ClockHandle<Stopwatch> stopwatch = manager.createPooledStopwatch(100);
+        stopwatch.get().setEndCondition(new StopwatchEndCondition());
+        stopwatch.get().start();
+        assertEquals(0, pool.getHitRate());
+        
+        for (ClockHandle<Timer> handle : handles) {
+            runUntilRecycled(manager, handle);
+        }
+        runUntilRecycled(manager, stopwatch);
+        assertEquals(2, pool.getTimers());
+        assertEquals(1, pool.getStopwatches());
+        assertEquals(0.75, pool.getOccupancy());
+        assertEquals(3, pool.getRecycled());
+        assertEquals(1, pool.getDropped());
+        
+        manager.createPooledTimer(100);
+        manager.createPooledTimer(100);
+        manager.createPooledTimer(100);
+        assertEquals(2, pool.getHits());
+        assertEquals(5, pool.getMisses());
+        assertEquals(2 / 7.0, pool.getHitRate());
+        assertEquals(0.25, pool.getOccupancy());
+        
+        pool.clear();
+        assertEquals(0, pool.getOccupancy());
+        assertEquals(0, pool.getHits());
+        assertEquals(0, pool.getHitRate());
+    }
+    
+    private static void runUntilRecycled(ClockManager manager, ClockHandle<?> handle) {
+        for (int i = 0; i < 100 && handle.isValid(); i++) {
+            manager.getRunnable().run();
+        }
+    }
+}
\ No newline at end of file
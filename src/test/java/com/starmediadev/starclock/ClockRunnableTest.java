@@ -0,0 +1,61 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.MissedCallbackPolicy;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClockRunnableTest {
+    
+    @Test
+    void driftCorrectionDoesNotSkipEventDrivenRuns() throws InterruptedException {
+        ClockManager manager = new ClockManager(null, 1000, ClockManager.EngineType.EVENT_DRIVEN);
+        manager.setDriftCorrection(true);
+        AtomicInteger runs = new AtomicInteger();
+        Stopwatch stopwatch = new Stopwatch(1_000_000L, 10);
+        manager.addClock(stopwatch);
+        stopwatch.addCallback(snapshot -> {
+            runs.incrementAndGet();
+            return true;
+        }, 10);
+        stopwatch.start();
+        
+        Runnable runnable = manager.getRunnable();
+        runnable.run();
+        assertEquals(1, runs.get());
+        
+        Thread.sleep(50);
+        runnable.run();
+        assertEquals(2, runs.get());
+    }
+    
+    @ParameterizedTest
+    @EnumSource(MissedCallbackPolicy.class)
+    void lateRunsKeepCallbacksOnTheirInterval(MissedCallbackPolicy policy) {
+        for (ClockManager.EngineType engineType : List.of(ClockManager.EngineType.LINEAR, ClockManager.EngineType.TIMING_WHEEL)) {
+            AtomicLong nanos = new AtomicLong();
+            ClockManager manager = new ClockManager(null, 50, engineType, nanos::get);
+            manager.setDriftCorrection(true);
+            Timer timer = manager.createTimer(10_000);
+            List<Long> intervals = new ArrayList<>();
+            timer.addCallback(snapshot -> intervals.add((10_000 - snapshot.getTime()) / 1000), 1000, policy);
+            timer.start();
+            
+            Runnable runnable = manager.getRunnable();
+            for (int i = 0; i < 22; i++) {
+                runnable.run();
+                nanos.addAndGet(400_000_000L);
+            }
+            assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), intervals, engineType + " " + policy);
+        }
+    }
+}
\ No newline at end of file
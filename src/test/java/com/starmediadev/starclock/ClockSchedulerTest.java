@@ -0,0 +1,91 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockSchedulerTest {
+    
+    @Test
+    void runsThatAreDueTogetherAreCoalesced() throws InterruptedException {
+        ClockManager fast = new ClockManager(null, 20);
+        ClockManager slow = new ClockManager(null, 40);
+        AtomicInteger fastRuns = counter(fast);
+        AtomicInteger slowRuns = counter(slow);
+        try (ClockScheduler scheduler = new ClockScheduler()) {
+            assertTrue(scheduler.register(fast));
+            assertTrue(scheduler.register(slow));
+            assertFalse(scheduler.register(fast));
+            scheduler.start();
+            
+            await(() -> slowRuns.get() >= 5);
+            assertTrue(fastRuns.get() > slowRuns.get());
+            assertTrue(scheduler.getCoalescedRuns() >= 3);
+            assertTrue(scheduler.getLag(fast).getCount() >= 5);
+        }
+    }
+    
+    @Test
+    void missedRunsAreSkippedAndRecordedAsLag() throws InterruptedException {
+        ClockManager blocking = new ClockManager(null, 20);
+        ClockManager waiting = new ClockManager(null, 20);
+        AtomicInteger blockingRuns = new AtomicInteger();
+        Stopwatch stopwatch = blocking.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> {
+            if (blockingRuns.incrementAndGet() == 3) {
+                try {
+                    Thread.sleep(150);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return true;
+        }, 20);
+        stopwatch.start();
+        AtomicInteger waitingRuns = counter(waiting);
+        try (ClockScheduler scheduler = new ClockScheduler()) {
+            scheduler.register(blocking);
+            scheduler.register(waiting);
+            scheduler.start();
+            
+            await(() -> blockingRuns.get() >= 6 && waitingRuns.get() >= 6);
+            assertTrue(scheduler.getSkippedRuns(blocking) >= 5);
+            assertTrue(scheduler.getSkippedRuns(waiting) >= 5);
+            assertTrue(scheduler.getLag(waiting).getMax() >= 100_000_000L);
+            
+            assertTrue(scheduler.unregister(waiting));
+            assertFalse(scheduler.unregister(waiting));
+            assertNull(scheduler.getLag(waiting));
+            assertEquals(-1, scheduler.getSkippedRuns(waiting));
+        }
+    }
+    
+    @Test
+    void managersThatRunElsewhereCannotBeRegistered() {
+        try (ClockScheduler scheduler = new ClockScheduler()) {
+            ClockManager virtual = new ClockManager(null, 50, ClockManager.EngineType.LINEAR, new VirtualClockSource());
+            assertThrows(IllegalStateException.class, () -> scheduler.register(virtual));
+            assertThrows(IllegalArgumentException.class, () -> new ClockScheduler(0));
+        }
+    }
+    
+    private static AtomicInteger counter(ClockManager manager) {
+        AtomicInteger runs = new AtomicInteger();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> runs.incrementAndGet() > 0, manager.getCountAmount());
+        stopwatch.start();
+        return runs;
+    }
+    
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "The scheduler did not run the managers in time");
+            Thread.sleep(5);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.callback.MissedCallbackPolicy;
+import com.starmediadev.starclock.callback.TriggerSchedule;
+import com.starmediadev.starclock.condition.CombinedEndCondition;
+import com.starmediadev.starclock.condition.ElapsedEndCondition;
+import com.starmediadev.starclock.condition.ThresholdEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import com.starmediadev.starclock.snapshot.StopwatchSnapshot;
+import com.starmediadev.starclock.snapshot.TimerSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockTest {
+    
+    @Test
+    void changesFromOtherThreadsWaitForTheRunningTick() throws InterruptedException {
+        ClockManager manager = new ClockManager(null, 50, ClockManager.EngineType.TIMING_WHEEL);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Stopwatch blocking = manager.createStopwatch(1_000_000L);
+        blocking.addCallback(snapshot -> {
+            if (calls.incrementAndGet() == 3) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return true;
+        }, 50);
+        blocking.start();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.start();
+        Stopwatch removed = manager.createStopwatch(1_000_000L);
+        
+        Runnable runnable = manager.getRunnable();
+        Thread ticks = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                runnable.run();
+            }
+        });
+        ticks.start();
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        
+        long time = stopwatch.time;
+        long callbackId = stopwatch.addCallback(snapshot -> true, 100);
+        stopwatch.resetCallbackStatus();
+        manager.removeClock(removed);
+        assertEquals(time, stopwatch.time);
+        assertNull(stopwatch.getCallback(callbackId));
+        assertEquals(3, manager.getClockCount());
+        
+        release.countDown();
+        ticks.join();
+        runnable.run();
+        assertNotNull(stopwatch.getCallback(callbackId));
+        assertEquals(2, manager.getClockCount());
+        assertEquals(200, stopwatch.getTime());
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = ClockManager.EngineType.class, names = {"LINEAR", "TIMING_WHEEL"})
+    void pausingKeepsATriggerThatWasCountedPast(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 1000, engineType, new VirtualClockSource());
+        Stopwatch sibling = manager.createStopwatch(1_000_000L);
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        AtomicInteger fired = new AtomicInteger();
+        stopwatch.addCallback(snapshot -> fired.incrementAndGet() > 0, TriggerSchedule.at(1500));
+        sibling.addCallback(snapshot -> {
+            stopwatch.pause();
+            stopwatch.unpause();
+            return true;
+        }, TriggerSchedule.at(2000));
+        stopwatch.start();
+        sibling.start();
+        
+        for (int i = 0; i < 5; i++) {
+            manager.advance(1000);
+        }
+        assertEquals(1, fired.get());
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = ClockManager.EngineType.class, names = {"LINEAR", "TIMING_WHEEL"})
+    void movingTheTimeAheadRunsThePassedTriggers(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 1000, engineType, new VirtualClockSource());
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        List<Long> fired = new ArrayList<>();
+        stopwatch.addCallback(snapshot -> fired.add(snapshot.getTime()), TriggerSchedule.at(1000, 2000, 3000), MissedCallbackPolicy.FIRE_ALL);
+        stopwatch.start();
+        
+        stopwatch.setTime(3500);
+        manager.advance(1000);
+        assertEquals(List.of(1000L, 2000L, 3000L), fired);
+        
+        stopwatch.setTime(0);
+        manager.advance(2000);
+        assertEquals(1000L, fired.get(3));
+    }
+    
+    @Test
+    void builtInEndConditionsAreCalculatedAhead() {
+        ClockManager manager = new ClockManager(null, 50);
+        Timer timer = manager.createTimer(10_000);
+        timer.setEndCondition(ThresholdEndCondition.atMost(4000));
+        assertEquals(6000, timer.endConditionDelay());
+        timer.setTime(3000);
+        assertEquals(0, timer.endConditionDelay());
+        
+        timer.setTime(10_000);
+        timer.setEndCondition(ThresholdEndCondition.atLeast(20_000));
+        assertEquals(Long.MAX_VALUE, timer.endConditionDelay());
+        
+        timer.setEndCondition(ElapsedEndCondition.after(3000));
+        assertEquals(3000, timer.endConditionDelay());
+        
+        timer.setEndCondition(CombinedEndCondition.<TimerSnapshot>any(ThresholdEndCondition.atMost(4000), ElapsedEndCondition.after(3000)));
+        assertEquals(3000, timer.endConditionDelay());
+        timer.setEndCondition(CombinedEndCondition.<TimerSnapshot>all(ThresholdEndCondition.atMost(4000), ElapsedEndCondition.after(3000)));
+        assertEquals(6000, timer.endConditionDelay());
+        timer.setEndCondition(CombinedEndCondition.<TimerSnapshot>any(ThresholdEndCondition.atLeast(20_000), CombinedEndCondition.all(ThresholdEndCondition.atMost(8000), ElapsedEndCondition.after(1000))));
+        assertEquals(2000, timer.endConditionDelay());
+        timer.setEndCondition(CombinedEndCondition.<TimerSnapshot>any(ThresholdEndCondition.atMost(4000), snapshot -> false));
+        assertEquals(-1, timer.endConditionDelay());
+        
+        timer.setEndCondition(CombinedEndCondition.<TimerSnapshot>all(ThresholdEndCondition.atLeast(5000), ElapsedEndCondition.after(3000)));
+        assertEquals(-1, timer.endConditionDelay());
+        timer.setEndCondition(CombinedEndCondition.<TimerSnapshot>all(ElapsedEndCondition.after(3000), CombinedEndCondition.any(ThresholdEndCondition.atLeast(5000), ElapsedEndCondition.after(1000))));
+        assertEquals(-1, timer.endConditionDelay());
+    }
+    
+    @ParameterizedTest
+    @EnumSource(ClockManager.EngineType.class)
+    void thresholdsThatRecedeAreCheckedEveryCount(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 50, engineType, new VirtualClockSource());
+        Stopwatch early = manager.createStopwatch(1_000_000L);
+        Stopwatch late = manager.createStopwatch(1_000_000L);
+        late.setTime(4000);
+        for (Stopwatch stopwatch : List.of(early, late)) {
+            stopwatch.setEndCondition(CombinedEndCondition.<StopwatchSnapshot>all(ThresholdEndCondition.atMost(5000), ElapsedEndCondition.after(3000)));
+            stopwatch.start();
+        }
+        Stopwatch any = manager.createStopwatch(1_000_000L);
+        any.setTime(4000);
+        any.setEndCondition(CombinedEndCondition.<StopwatchSnapshot>any(ThresholdEndCondition.atMost(3000), ElapsedEndCondition.after(2000)));
+        any.start();
+        
+        manager.advance(10_000);
+        assertTrue(early.isCancelled());
+        assertFalse(late.isCancelled());
+        assertTrue(any.isCancelled());
+        assertEquals(List.of(late), manager.getClocks());
+    }
+}
\ No newline at end of file
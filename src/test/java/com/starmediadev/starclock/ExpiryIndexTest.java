@@ -0,0 +1,59 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.condition.defaults.StopwatchEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryIndexTest {
+    
+    @ParameterizedTest
+    @EnumSource(ClockManager.EngineType.class)
+    void projectedEndsFollowTheChangesOfTheClocks(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 50, engineType, new VirtualClockSource());
+        Timer first = manager.createTimer(1000);
+        Timer second = manager.createTimer(2000);
+        Timer third = manager.createTimer(3200);
+        Stopwatch stopwatch = manager.createStopwatch(2600);
+        stopwatch.setEndCondition(new StopwatchEndCondition());
+        Stopwatch endless = manager.createStopwatch(1_000_000L);
+        for (Clock<?> clock : List.of(first, second, third, stopwatch, endless)) {
+            clock.start();
+        }
+        
+        manager.advance(500);
+        assertEquals(List.of(first, second, stopwatch, third), manager.getNextToEnd(10));
+        assertEquals(List.of(first, second), manager.getEndingWithin(1500));
+        assertEquals(first.getTime(), manager.getMillisUntilEnd(first));
+        assertEquals(2600 - stopwatch.getTime(), manager.getMillisUntilEnd(stopwatch));
+        assertEquals(-1, manager.getMillisUntilEnd(endless));
+        
+        second.pause();
+        assertEquals(List.of(first), manager.getEndingWithin(1500));
+        assertEquals(-1, manager.getMillisUntilEnd(second));
+        
+        first.addTime(1800);
+        assertEquals(List.of(stopwatch, first, third), manager.getNextToEnd(10));
+        assertEquals(first.getTime(), manager.getMillisUntilEnd(first));
+        
+        manager.advance(1000);
+        second.unpause();
+        assertEquals(List.of(stopwatch, first, second), manager.getEndingWithin(1600));
+        assertEquals(second.getTime(), manager.getMillisUntilEnd(second));
+        
+        stopwatch.addTime(-500);
+        manager.removeClock(third);
+        assertEquals(List.of(first, second, stopwatch), manager.getNextToEnd(10));
+        assertEquals(List.of(first), manager.getNextToEnd(1));
+        assertTrue(manager.getEndingWithin(0).isEmpty());
+        assertEquals(-1, manager.getMillisUntilEnd(third));
+        
+        stopwatch.cancel();
+        assertEquals(List.of(first, second), manager.getNextToEnd(10));
+    }
+}
\ No newline at end of file
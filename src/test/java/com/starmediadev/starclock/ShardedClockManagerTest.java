@@ -0,0 +1,96 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedClockManagerTest {
+    
+    private static final Executor DIRECT = Runnable::run;
+    
+    @Test
+    void throwingCallbackDoesNotStopTheShard() {
+        ShardedClockManager manager = new ShardedClockManager(null, 50, DIRECT);
+        Stopwatch failing = manager.createStopwatch(1_000_000L);
+        failing.addCallback(snapshot -> {
+            throw new IllegalStateException("callback failed");
+        }, 50);
+        failing.start();
+        Stopwatch other = manager.createStopwatch(1_000_000L);
+        other.start();
+        Stopwatch removed = manager.createStopwatch(1_000_000L);
+        removed.start();
+        
+        Runnable runnable = manager.getRunnable();
+        runnable.run();
+        manager.removeClock(removed);
+        for (int i = 0; i < 4; i++) {
+            runnable.run();
+        }
+        
+        ShardedClockManager.Shard shard = manager.getShards().get(0);
+        assertEquals(2, shard.size());
+        assertEquals(250, other.getTime());
+        assertTrue(manager.getClocks().contains(failing));
+    }
+    
+    @Test
+    void changesFromOtherThreadsWaitForTheRunningShard() throws InterruptedException {
+        ShardedClockManager manager = new ShardedClockManager(null, 50, 1);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Stopwatch blocking = manager.createStopwatch(1_000_000L);
+        blocking.addCallback(snapshot -> {
+            if (calls.incrementAndGet() == 3) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return true;
+        }, 50);
+        blocking.start();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.start();
+        
+        try {
+            Runnable runnable = manager.getRunnable();
+            Thread ticks = new Thread(() -> {
+                for (int i = 0; i < 3; i++) {
+                    runnable.run();
+                }
+            });
+            ticks.start();
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            
+            long time = stopwatch.getTime();
+            stopwatch.addTime(1000);
+            stopwatch.pause();
+            assertEquals(time, stopwatch.getTime());
+            assertFalse(stopwatch.isPaused());
+            
+            release.countDown();
+            ticks.join();
+            runnable.run();
+            assertTrue(stopwatch.isPaused());
+            assertEquals(1150, stopwatch.getTime());
+            
+            manager.removeClock(stopwatch);
+            runnable.run();
+            stopwatch.setTime(0);
+            assertEquals(0, stopwatch.getTime());
+        } finally {
+            release.countDown();
+            manager.shutdown();
+        }
+    }
+}
\ No newline at end of file
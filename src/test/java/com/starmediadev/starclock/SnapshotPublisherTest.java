@@ -0,0 +1,153 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.snapshot.ClockSnapshot;
+import com.starmediadev.starclock.snapshot.StopwatchSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotPublisherTest {
+    
+    @Test
+    void snapshotsAreOnlyDeliveredWhenRequested() {
+        ClockManager manager = new ClockManager(null, 50, ClockManager.EngineType.LINEAR, new VirtualClockSource());
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.start();
+        SnapshotPublisher<StopwatchSnapshot> publisher = manager.createPublisher(stopwatch, Runnable::run);
+        Recorder<StopwatchSnapshot> recorder = new Recorder<>(1);
+        publisher.subscribe(recorder);
+        
+        run(manager, 5);
+        assertEquals(List.of(50L), recorder.times());
+        
+        recorder.subscription.request(1);
+        assertEquals(List.of(50L, 250L), recorder.times());
+        
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(50L, 250L, 250L), recorder.times());
+        run(manager, 2);
+        assertEquals(List.of(50L, 250L, 250L, 300L, 350L), recorder.times());
+        assertFalse(recorder.completed);
+        
+        recorder.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, recorder.error);
+        assertEquals(0, publisher.getSubscriberCount());
+    }
+    
+    @Test
+    void slowSubscribersOnlyGetTheLatestSample() {
+        ClockManager manager = new ClockManager(null, 50, ClockManager.EngineType.LINEAR, new VirtualClockSource());
+        Stopwatch first = manager.createStopwatch(1_000_000L);
+        Stopwatch second = manager.createStopwatch(1_000_000L);
+        first.start();
+        second.start();
+        SnapshotPublisher<ClockSnapshot> publisher = manager.createPublisher(Runnable::run);
+        Recorder<ClockSnapshot> fast = new Recorder<>(Long.MAX_VALUE);
+        Recorder<ClockSnapshot> slow = new Recorder<>(1);
+        publisher.subscribe(fast);
+        publisher.subscribe(slow);
+        
+        run(manager, 10);
+        assertEquals(20, fast.received.size());
+        assertEquals(List.of(50L), slow.times());
+        
+        slow.subscription.request(5);
+        assertEquals(List.of(50L, 500L, 500L, 500L), slow.times());
+    }
+    
+    @Test
+    void intervalsSampleTheFirstRunAfterTheyPassed() {
+        ClockManager manager = new ClockManager(null, 50, ClockManager.EngineType.LINEAR, new VirtualClockSource());
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.start();
+        SnapshotPublisher<StopwatchSnapshot> publisher = manager.createPublisher(stopwatch, Runnable::run);
+        Recorder<StopwatchSnapshot> everyRun = new Recorder<>(Long.MAX_VALUE);
+        Recorder<StopwatchSnapshot> sampled = new Recorder<>(Long.MAX_VALUE);
+        publisher.subscribe(everyRun);
+        publisher.subscribe(sampled, 120);
+        
+        run(manager, 8);
+        assertEquals(8, everyRun.received.size());
+        assertEquals(List.of(50L, 200L, 350L), sampled.times());
+        assertThrows(IllegalArgumentException.class, () -> publisher.subscribe(new Recorder<>(1), -1));
+    }
+    
+    @Test
+    void singleClockPublishersCompleteOnceTheClockIsRemoved() {
+        ClockManager manager = new ClockManager(null, 50, ClockManager.EngineType.LINEAR, new VirtualClockSource());
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.start();
+        SnapshotPublisher<StopwatchSnapshot> publisher = manager.createPublisher(stopwatch, Runnable::run);
+        Recorder<StopwatchSnapshot> recorder = new Recorder<>(Long.MAX_VALUE);
+        publisher.subscribe(recorder);
+        
+        run(manager, 2);
+        manager.removeClock(stopwatch);
+        assertFalse(recorder.completed);
+        run(manager, 1);
+        assertEquals(List.of(50L, 100L, 100L), recorder.times());
+        assertTrue(recorder.completed);
+        assertTrue(publisher.isClosed());
+        assertEquals(0, publisher.getSubscriberCount());
+        assertTrue(manager.getPublishers().isEmpty());
+        
+        Recorder<StopwatchSnapshot> late = new Recorder<>(1);
+        publisher.subscribe(late);
+        assertTrue(late.completed);
+        assertTrue(late.received.isEmpty());
+    }
+    
+    private static void run(ClockManager manager, int runs) {
+        VirtualClockSource source = (VirtualClockSource) manager.getClockSource();
+        for (int i = 0; i < runs; i++) {
+            source.advance(50 * ClockEngine.NANOS_PER_MILLI);
+            manager.getRunnable().run(1);
+        }
+    }
+    
+    private static final class Recorder<T extends ClockSnapshot> implements Flow.Subscriber<T> {
+        private final long initialDemand;
+        private final List<T> received = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+        
+        private Recorder(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialDemand);
+        }
+        
+        @Override
+        public void onNext(T item) {
+            received.add(item);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+        
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+        
+        private List<Long> times() {
+            List<Long> times = new ArrayList<>();
+            for (T snapshot : received) {
+                times.add(snapshot.getTime());
+            }
+            return times;
+        }
+    }
+}
\ No newline at end of file
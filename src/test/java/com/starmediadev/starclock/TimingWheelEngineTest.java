@@ -0,0 +1,72 @@
+package com.starmediadev.starclock;
+
+import com.starmediadev.starclock.condition.defaults.StopwatchEndCondition;
+import com.starmediadev.starclock.condition.defaults.TimerEndCondition;
+import com.starmediadev.starclock.impl.Stopwatch;
+import com.starmediadev.starclock.impl.Timer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelEngineTest {
+    
+    @Test
+    void callbacksFireLikeTheLinearEngine() {
+        List<String> linear = run(ClockManager.EngineType.LINEAR);
+        List<String> wheel = run(ClockManager.EngineType.TIMING_WHEEL);
+        assertFalse(linear.isEmpty());
+        Collections.sort(linear);
+        Collections.sort(wheel);
+        assertEquals(linear, wheel);
+    }
+    
+    private static List<String> run(ClockManager.EngineType engineType) {
+        ClockManager manager = new ClockManager(null, 50, engineType);
+        List<String> events = new ArrayList<>();
+        AtomicInteger ticks = new AtomicInteger();
+        
+        Timer timer = manager.createTimer(20_000);
+        timer.setEndCondition(new TimerEndCondition());
+        timer.addCallback(snapshot -> events.add(ticks.get() + " timer " + snapshot.getTime()), 1000);
+        timer.start();
+        
+        Stopwatch stopwatch = manager.createStopwatch(900_000);
+        stopwatch.setEndCondition(new StopwatchEndCondition());
+        stopwatch.addCallback(snapshot -> events.add(ticks.get() + " stopwatch " + snapshot.getTime()), 70);
+        stopwatch.addCallback(snapshot -> events.add(ticks.get() + " far " + snapshot.getTime()), 600_000);
+        AtomicInteger limited = new AtomicInteger();
+        stopwatch.addCallback(snapshot -> {
+            events.add(ticks.get() + " limited " + snapshot.getTime());
+            return limited.incrementAndGet() < 3;
+        }, 150);
+        stopwatch.start();
+        
+        Stopwatch paused = manager.createStopwatch(900_000);
+        paused.addCallback(snapshot -> events.add(ticks.get() + " paused " + snapshot.getTime()), 250);
+        paused.start();
+        
+        Runnable runnable = manager.getRunnable();
+        for (int tick = 0; tick < 20_000; tick = ticks.incrementAndGet()) {
+            if (tick == 20) {
+                paused.pause();
+            } else if (tick == 90) {
+                paused.unpause();
+            } else if (tick == 100) {
+                timer.addTime(2500);
+                stopwatch.removeTime(1000);
+            } else if (tick == 200) {
+                paused.setTime(100_000);
+            }
+            runnable.run();
+        }
+        
+        events.add("timer cancelled " + timer.isCancelled() + " at " + timer.getTime());
+        events.add("stopwatch cancelled " + stopwatch.isCancelled() + " at " + stopwatch.getTime());
+        return events;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.starmediadev.starclock.callback;
+
+import org.junit.jupiter.api.Test;
+
+import static com.starmediadev.starclock.Clock.CountOperation.DOWN;
+import static com.starmediadev.starclock.Clock.CountOperation.UP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TriggerScheduleTest {
+    
+    @Test
+    void pointsAreFoundInBothDirections() {
+        TriggerSchedule points = TriggerSchedule.at(60_000, 10_000, 30_000);
+        assertEquals(10_000, points.next(10_000, true, UP));
+        assertEquals(30_000, points.next(10_000, false, UP));
+        assertEquals(TriggerSchedule.NONE, points.next(60_001, true, UP));
+        assertEquals(30_000, points.next(45_000, true, DOWN));
+        assertEquals(10_000, points.next(30_000, false, DOWN));
+        assertEquals(TriggerSchedule.NONE, points.next(9_999, true, DOWN));
+    }
+    
+    @Test
+    void cronRollsOverMinutes() {
+        TriggerSchedule minutes = TriggerSchedule.cron("0");
+        assertEquals(60_000, minutes.next(59_500, true, UP));
+        assertEquals(60_000, minutes.next(60_000, true, UP));
+        assertEquals(120_000, minutes.next(60_000, false, UP));
+        assertEquals(60_000, minutes.next(119_999, true, DOWN));
+        assertEquals(0, minutes.next(60_000, false, DOWN));
+        assertEquals(TriggerSchedule.NONE, minutes.next(0, false, DOWN));
+        
+        TriggerSchedule steps = TriggerSchedule.cron("0,30 */5");
+        assertEquals(330_000, steps.next(301_000, true, UP));
+        assertEquals(600_000, steps.next(330_000, false, UP));
+        assertEquals(330_000, steps.next(600_000, false, DOWN));
+        assertEquals(30_000, steps.next(299_999, true, DOWN));
+    }
+    
+    @Test
+    void cronRollsOverHoursAndDays() {
+        TriggerSchedule hours = TriggerSchedule.cron("0 0");
+        assertEquals(3_600_000, hours.next(3_599_000, true, UP));
+        assertEquals(7_200_000, hours.next(3_600_000, false, UP));
+        assertEquals(3_600_000, hours.next(7_199_999, true, DOWN));
+        assertEquals(0, hours.next(3_600_000, false, DOWN));
+        
+        TriggerSchedule days = TriggerSchedule.cron("30 59 23");
+        assertEquals(86_370_000, days.next(0, true, UP));
+        assertEquals(172_770_000, days.next(86_371_000, true, UP));
+        assertEquals(86_370_000, days.next(172_769_999, true, DOWN));
+        assertEquals(TriggerSchedule.NONE, days.next(86_369_999, true, DOWN));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.starmediadev.starclock.metrics;
+
+import com.starmediadev.starclock.ClockManager;
+import com.starmediadev.starclock.impl.Stopwatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockMetricsTest {
+    
+    @Test
+    void runsAndCallbacksAreRecordedOnlyWhileEnabled() {
+        ClockManager manager = new ClockManager(null, 50);
+        ClockMetrics metrics = manager.getMetrics();
+        Stopwatch stopwatch = manager.createStopwatch(1_000_000L);
+        stopwatch.addCallback(snapshot -> true, 50);
+        stopwatch.addCallback(snapshot -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }, 100);
+        stopwatch.start();
+        
+        manager.getRunnable().run();
+        assertFalse(metrics.isEnabled());
+        assertEquals(0, metrics.getTickDuration().getCount());
+        
+        metrics.setEnabled(true);
+        for (int i = 0; i < 4; i++) {
+            manager.getRunnable().run();
+        }
+        assertEquals(4, metrics.getTickDuration().getCount());
+        assertEquals(4, metrics.getCallbacksPerTick().getCount());
+        assertEquals(2, metrics.getCallbacksPerTick().getMax());
+        assertEquals(6, metrics.getCallbackDuration().getCount());
+        assertTrue(metrics.getCallbackDuration().getMax() >= 2_000_000L);
+        
+        List<SlowCallback> slowest = metrics.getSlowestCallbacks();
+        assertEquals(6, slowest.size());
+        assertTrue(slowest.get(0).durationNanos() >= 2_000_000L);
+        assertEquals(Stopwatch.class.getName(), slowest.get(0).clockType());
+        
+        metrics.close();
+        assertFalse(metrics.isEnabled());
+        manager.getRunnable().run();
+        assertEquals(4, metrics.getTickDuration().getCount());
+        metrics.close();
+        
+        metrics.reset();
+        assertEquals(0, metrics.getTickDuration().getCount());
+        assertTrue(metrics.getSlowestCallbacks().isEmpty());
+    }
+    
+    @Test
+    void lateRunsAreRecordedAsLag() throws InterruptedException {
+        ClockManager manager = new ClockManager(null, 50);
+        ClockMetrics metrics = manager.getMetrics();
+        metrics.setEnabled(true);
+        try {
+            manager.getRunnable().run();
+            Thread.sleep(150);
+            manager.getRunnable().run();
+            assertEquals(2, metrics.getTickLag().getCount());
+            assertTrue(metrics.getTickLag().getMax() >= 90_000_000L);
+        } finally {
+            metrics.close();
+        }
+    }
+    
+    @Test
+    void deferredClocksAreCountedWithABudget() {
+        ClockManager manager = new ClockManager(null, 50);
+        ClockMetrics metrics = manager.getMetrics();
+        for (int i = 0; i < 3; i++) {
+            manager.createStopwatch(1_000_000L).start();
+        }
+        manager.setTickBudget(1);
+        
+        for (int i = 0; i < 5; i++) {
+            manager.getRunnable().run();
+        }
+        assertEquals(15, metrics.getDeferredClocks());
+        assertEquals(5, metrics.getDeferringTicks());
+        assertEquals(0, metrics.getDeferredPerTick().getCount());
+        
+        metrics.setEnabled(true);
+        try {
+            manager.getRunnable().run();
+            assertEquals(3, metrics.getDeferredPerTick().getMax());
+        } finally {
+            metrics.close();
+        }
+        
+        ClockCounts counts = metrics.getClockCounts();
+        assertEquals(3, counts.active());
+        assertEquals(0, counts.paused());
+    }
+}
@@ -0,0 +1,182 @@
+package com.starmediadev.starclock.table;
+
+import com.starmediadev.starclock.Clock;
+import com.starmediadev.starclock.ClockManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockTableTest {
+    
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void clocksCountAndEndOnTheirOwn(boolean offHeap) {
+        ClockTable table = new ClockTable(16, 50, offHeap);
+        List<String> ended = new ArrayList<>();
+        table.setEndListener(clock -> {
+            assertTrue(clock.isValid());
+            ended.add(clock.getClass().getSimpleName() + " " + clock.getTime());
+        });
+        TableTimer timer = table.createTimer(100).start();
+        TableStopwatch stopwatch = table.createStopwatch(150).start();
+        TableTimer paused = table.createTimer(100);
+        assertEquals(3, table.size());
+        assertEquals(Clock.CountOperation.DOWN, timer.getOperation());
+        assertEquals(Clock.CountOperation.UP, stopwatch.getOperation());
+        assertEquals(50, stopwatch.getCountAmount());
+        
+        table.tick();
+        assertEquals(50, timer.getTime());
+        assertEquals(50, stopwatch.getTime());
+        table.tick();
+        assertFalse(timer.isValid());
+        assertTrue(timer.isCancelled());
+        assertEquals(List.of("TableTimer 0"), ended);
+        table.tick();
+        assertFalse(stopwatch.isValid());
+        assertEquals(List.of("TableTimer 0", "TableStopwatch 150"), ended);
+        assertEquals(100, paused.getTime());
+        assertTrue(paused.isPaused());
+        assertEquals(1, table.size());
+        
+        paused.start();
+        paused.addTime(-80);
+        table.tick();
+        assertFalse(paused.isValid());
+        assertEquals("TableTimer 0", ended.get(2));
+        assertEquals(0, table.size());
+    }
+    
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void handlesOfReleasedSlotsStayInvalid(boolean offHeap) {
+        ClockTable table = new ClockTable(16, 50, offHeap);
+        List<TableClock<?>> ended = new ArrayList<>();
+        table.setEndListener(ended::add);
+        TableTimer cancelled = table.createTimer(1000).start();
+        cancelled.cancel();
+        assertTrue(cancelled.isCancelled());
+        cancelled.uncancel();
+        assertFalse(cancelled.isCancelled());
+        cancelled.cancel();
+        table.tick();
+        assertTrue(ended.isEmpty());
+        assertFalse(cancelled.isValid());
+        assertThrows(IllegalStateException.class, cancelled::getTime);
+        assertThrows(IllegalStateException.class, () -> cancelled.setTime(10));
+        assertThrows(IllegalStateException.class, cancelled::start);
+        
+        TableTimer reused = table.createTimer(500);
+        assertEquals(cancelled.slot, reused.slot);
+        assertEquals(cancelled.generation + 1, reused.generation);
+        assertNotEquals(cancelled, reused);
+        assertEquals(reused, new TableTimer(table, reused.slot, reused.generation));
+        assertFalse(cancelled.isValid());
+        assertEquals(500, reused.getTime());
+        
+        reused.setLength(300);
+        assertEquals(300, reused.getTime());
+        reused.start();
+        table.tick();
+        reused.setLength(400);
+        assertEquals(350, reused.getTime());
+        reused.setLengthAndReset(200);
+        assertEquals(200, reused.getTime());
+        assertEquals(200, reused.createSnapshot().getLength());
+    }
+    
+    @Test
+    void onHeapAndOffHeapTablesCountTheSame() {
+        ClockTable onHeap = new ClockTable(8, 50, false);
+        ClockTable offHeap = new ClockTable(8, 50, true);
+        List<String> onHeapEnded = new ArrayList<>();
+        List<String> offHeapEnded = new ArrayList<>();
+        onHeap.setEndListener(clock -> onHeapEnded.add(clock.slot + " " + clock.getTime()));
+        offHeap.setEndListener(clock -> offHeapEnded.add(clock.slot + " " + clock.getTime()));
+        List<TableClock<?>> onHeapClocks = new ArrayList<>();
+        List<TableClock<?>> offHeapClocks = new ArrayList<>();
+        
+        List<TableTimer> idle = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            idle.add(offHeap.createTimer(i + 1));
+            onHeap.createTimer(i + 1);
+        }
+        
+        Random random = new Random(7);
+        for (int tick = 0; tick < 200; tick++) {
+            for (int i = 0; i < 5; i++) {
+                int action = random.nextInt(4);
+                long value = 50 + random.nextInt(2000);
+                if (action == 0 || onHeapClocks.isEmpty()) {
+                    boolean timer = random.nextBoolean();
+                    onHeapClocks.add(timer ? onHeap.createTimer(value).start() : onHeap.createStopwatch(value).start());
+                    offHeapClocks.add(timer ? offHeap.createTimer(value).start() : offHeap.createStopwatch(value).start());
+                    continue;
+                }
+                
+                int index = random.nextInt(onHeapClocks.size());
+                TableClock<?> onHeapClock = onHeapClocks.get(index);
+                TableClock<?> offHeapClock = offHeapClocks.get(index);
+                if (!onHeapClock.isValid()) {
+                    assertFalse(offHeapClock.isValid());
+                    onHeapClocks.remove(index);
+                    offHeapClocks.remove(index);
+                } else if (action == 1) {
+                    onHeapClock.addTime(value);
+                    offHeapClock.addTime(value);
+                } else if (action == 2) {
+                    if (onHeapClock.isPaused()) {
+                        onHeapClock.unpause();
+                        offHeapClock.unpause();
+                    } else {
+                        onHeapClock.pause();
+                        offHeapClock.pause();
+                    }
+                } else {
+                    onHeapClock.cancel();
+                    offHeapClock.cancel();
+                }
+            }
+            
+            onHeap.tick();
+            offHeap.tick();
+            assertEquals(onHeap.size(), offHeap.size());
+            assertEquals(onHeap.capacity(), offHeap.capacity());
+            for (int i = 0; i < onHeapClocks.size(); i++) {
+                TableClock<?> onHeapClock = onHeapClocks.get(i);
+                assertEquals(onHeapClock.isValid(), offHeapClocks.get(i).isValid());
+                if (onHeapClock.isValid()) {
+                    assertEquals(onHeapClock.getTime(), offHeapClocks.get(i).getTime());
+                }
+            }
+        }
+        assertEquals(onHeapEnded, offHeapEnded);
+        assertFalse(onHeapEnded.isEmpty());
+        assertTrue(offHeap.capacity() > 100);
+        for (int i = 0; i < idle.size(); i++) {
+            assertEquals(i + 1, idle.get(i).getTime());
+        }
+        assertTrue(offHeap.isOffHeap());
+    }
+    
+    @Test
+    void tablesOfAManagerAreCountedByItsRuns() {
+        ClockManager manager = new ClockManager(null, 50);
+        ClockTable table = manager.createTable(16, true);
+        TableStopwatch stopwatch = table.createStopwatch(1000).start();
+        for (int i = 0; i < 3; i++) {
+            manager.getRunnable().run();
+        }
+        assertEquals(150, stopwatch.getTime());
+        
+        manager.removeTable(table);
+        manager.getRunnable().run();
+        assertEquals(150, stopwatch.getTime());
+    }
+}
\ No newline at end of file